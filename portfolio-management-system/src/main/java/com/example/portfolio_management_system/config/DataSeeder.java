@@ -7,11 +7,14 @@ import com.example.portfolio_management_system.repository.HolderRepository;
 import com.example.portfolio_management_system.repository.HoldingRepository;
 import com.example.portfolio_management_system.repository.StockRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 
+// ✅ Steps aside when SyntheticDataSeeder generates a load-test dataset
 @Component
+@ConditionalOnProperty(name = "data.synthetic.enabled", havingValue = "false", matchIfMissing = true)
 public class DataSeeder implements CommandLineRunner {
 
     private final StockRepository stockRepository;
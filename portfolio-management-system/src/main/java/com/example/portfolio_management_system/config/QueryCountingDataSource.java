@@ -0,0 +1,75 @@
+package com.example.portfolio_management_system.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the SQL statements executed on the current thread, whichever path issued
+ * them (Hibernate, JdbcTemplate, plain JDBC). Each {@code execute*} call on a
+ * statement counts once, so a JDBC batch is one statement.
+ * {@link QueryCountInterceptor} turns the count into a per-request metric.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) ->
+                result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())
+                        ? proxy(method.getReturnType(), result, QueryCountingDataSource::countExecute)
+                        : result);
+    }
+
+    private static Object countExecute(Method method, Object result) {
+        if (method.getName().startsWith("execute")) {
+            COUNT.get()[0]++;
+        }
+        return result;
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, AfterCall after) {
+        InvocationHandler handler = (p, method, args) -> {
+            try {
+                return after.apply(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
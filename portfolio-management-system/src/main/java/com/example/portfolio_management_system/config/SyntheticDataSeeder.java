@@ -0,0 +1,484 @@
+package com.example.portfolio_management_system.config;
+
+import com.example.portfolio_management_system.repository.HoldingJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills an empty database with a synthetic market for load testing, in place of
+ * {@link DataSeeder}. Enabled with {@code data.synthetic.enabled=true} (see the
+ * {@code synthetic} profile).
+ * <p>
+ * Stocks spread over weighted sectors with sector-typical prices and volatility.
+ * Holdings per holder follow a Pareto distribution (many small portfolios, a few
+ * very large ones) and stock popularity follows a Zipf law, so hot symbols and
+ * heavy holders look like production rather than a uniform grid. Every row goes
+ * in through JDBC batches, holdings from {@code data.synthetic.writer-threads}
+ * writers; a fixed {@code data.synthetic.seed} reproduces the same dataset.
+ */
+@Component
+@ConditionalOnProperty(name = "data.synthetic.enabled", havingValue = "true")
+public class SyntheticDataSeeder implements CommandLineRunner {
+
+    // Holders per writer task; with the seed it fixes which random stream fills which holders
+    private static final int HOLDERS_PER_TASK = 10_000;
+    private static final long PROGRESS_INTERVAL_MS = 5_000;
+
+    private record Stocks(String[] symbols, double[] basePrices) {}
+
+    private record Sector(String name, String code, double weight,
+                          double minPrice, double maxPrice, double minVolatility, double maxVolatility) {}
+
+    private static final List<Sector> SECTORS = List.of(
+            new Sector("Banking", "BNK", 0.14, 150, 2000, 0.15, 0.25),
+            new Sector("IT", "ITS", 0.12, 300, 4000, 0.18, 0.28),
+            new Sector("Finance", "FIN", 0.10, 100, 8000, 0.20, 0.35),
+            new Sector("Healthcare", "HLT", 0.09, 200, 6000, 0.18, 0.30),
+            new Sector("FMCG", "FMC", 0.08, 200, 25000, 0.12, 0.18),
+            new Sector("Automobile", "AUT", 0.08, 300, 10000, 0.20, 0.32),
+            new Sector("Energy", "ENR", 0.07, 100, 3000, 0.20, 0.30),
+            new Sector("Infrastructure", "INF", 0.07, 50, 3500, 0.22, 0.35),
+            new Sector("Metals", "MTL", 0.06, 50, 1500, 0.28, 0.40),
+            new Sector("Consumer", "CNS", 0.05, 200, 4000, 0.16, 0.24),
+            new Sector("Telecom", "TEL", 0.03, 20, 1500, 0.20, 0.35),
+            new Sector("Realty", "RLT", 0.03, 50, 2000, 0.30, 0.45),
+            new Sector("Tech", "TCH", 0.03, 50, 1000, 0.35, 0.50),
+            new Sector("FinTech", "FTC", 0.02, 100, 1200, 0.40, 0.55),
+            new Sector("Retail", "RTL", 0.02, 100, 5000, 0.16, 0.25),
+            new Sector("Defense", "DEF", 0.01, 100, 4000, 0.20, 0.30)
+    );
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Vivaan", "Aditya", "Arjun", "Rohan", "Ishaan", "Kabir", "Rahul", "Vikram", "Karan",
+            "Ananya", "Diya", "Priya", "Sneha", "Kavya", "Isha", "Meera", "Riya", "Pooja", "Neha"
+    };
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Verma", "Patel", "Iyer", "Reddy", "Nair", "Gupta", "Singh", "Mehta", "Joshi",
+            "Rao", "Kapoor", "Bose", "Das", "Kulkarni", "Menon", "Chopra", "Banerjee", "Pillai", "Shah"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HoldingJdbcRepository holdingJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int stockCount;
+    private final int holderCount;
+    private final long holdingTarget;
+    private final int maxPerHolder;
+    private final double zipfExponent;
+    private final double paretoAlpha;
+    private final long seed;
+    private final int batchSize;
+    private final int writerThreads;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbcTemplate,
+                               HoldingJdbcRepository holdingJdbcRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${data.synthetic.stocks:2000}") int stockCount,
+                               @Value("${data.synthetic.holders:100000}") int holderCount,
+                               @Value("${data.synthetic.holdings:2000000}") long holdingTarget,
+                               @Value("${data.synthetic.max-holdings-per-holder:500}") int maxPerHolder,
+                               @Value("${data.synthetic.zipf-exponent:1.1}") double zipfExponent,
+                               @Value("${data.synthetic.pareto-alpha:1.6}") double paretoAlpha,
+                               @Value("${data.synthetic.seed:42}") long seed,
+                               @Value("${data.synthetic.batch-size:5000}") int batchSize,
+                               @Value("${data.synthetic.writer-threads:4}") int writerThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.holdingJdbcRepository = holdingJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stockCount = Math.max(1, stockCount);
+        this.holderCount = Math.max(1, holderCount);
+        this.holdingTarget = Math.max(this.holderCount, holdingTarget);
+        this.maxPerHolder = Math.max(1, Math.min(maxPerHolder, this.stockCount));
+        this.zipfExponent = zipfExponent;
+        this.paretoAlpha = Math.max(1.05, paretoAlpha);
+        this.seed = seed;
+        this.batchSize = Math.max(1, batchSize);
+        this.writerThreads = Math.max(1, writerThreads);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+
+        // ✅ Same rule as DataSeeder: never generate on top of existing data
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stocks", Long.class);
+        if (existing != null && existing > 0) {
+            System.out.println("✅ Database already seeded.");
+            return;
+        }
+
+        System.out.println("🚀 Generating synthetic market: " + stockCount + " stocks, " + holderCount
+                + " holders, ~" + holdingTarget + " holdings (seed " + seed + ")");
+        long start = System.currentTimeMillis();
+
+        SplittableRandom random = new SplittableRandom(seed);
+
+        Stocks stocks = insertStocks(random.split());
+        long[] holderIds = insertHolders(random.split());
+        long holdings = insertHoldings(random.split(), stocks, holderIds);
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("✅ Synthetic data ready: " + stockCount + " stocks, " + holderIds.length
+                + " holders, " + holdings + " holdings in " + elapsed / 1000 + " s");
+    }
+
+    // -------------------------------
+    // ✅ 1. Stocks
+    // -------------------------------
+    private Stocks insertStocks(SplittableRandom random) {
+
+        double totalWeight = SECTORS.stream().mapToDouble(Sector::weight).sum();
+
+        String[] symbols = new String[stockCount];
+        String[] names = new String[stockCount];
+        String[] sectors = new String[stockCount];
+        double[] prices = new double[stockCount];
+        double[] volatilities = new double[stockCount];
+        int[] confidences = new int[stockCount];
+
+        int next = 0;
+        for (int s = 0; s < SECTORS.size(); s++) {
+            Sector sector = SECTORS.get(s);
+            int count = s == SECTORS.size() - 1
+                    ? stockCount - next
+                    : (int) Math.round(stockCount * sector.weight() / totalWeight);
+            count = Math.min(count, stockCount - next);
+
+            for (int k = 0; k < count; k++, next++) {
+                // Log-uniform price: as many ₹100 stocks as ₹1,000 ones within the sector's band
+                double price = sector.minPrice()
+                        * Math.pow(sector.maxPrice() / sector.minPrice(), random.nextDouble());
+                double volatility = sector.minVolatility()
+                        + (sector.maxVolatility() - sector.minVolatility()) * random.nextDouble();
+
+                symbols[next] = sector.code() + String.format(Locale.ROOT, "%05d", k + 1);
+                names[next] = sector.name() + " Company " + (k + 1);
+                sectors[next] = sector.name();
+                prices[next] = Math.round(price * 100.0) / 100.0;
+                volatilities[next] = Math.round(volatility * 1000.0) / 1000.0;
+                // Steadier stocks score higher, as in the hand-picked seed data
+                confidences[next] = (int) Math.round(100 - volatility * 60 - random.nextDouble() * 8);
+            }
+        }
+
+        String sql = "INSERT INTO stocks (symbol, name, sector, base_price, volatility, confidence_score, current_price)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < stockCount; from += batchSize) {
+                int batchFrom = from;
+                int batchTo = Math.min(stockCount, from + batchSize);
+                jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int j) throws SQLException {
+                        int i = batchFrom + j;
+                        ps.setString(1, symbols[i]);
+                        ps.setString(2, names[i]);
+                        ps.setString(3, sectors[i]);
+                        ps.setDouble(4, prices[i]);
+                        ps.setDouble(5, volatilities[i]);
+                        ps.setInt(6, confidences[i]);
+                        ps.setDouble(7, prices[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batchTo - batchFrom;
+                    }
+                });
+            }
+        });
+
+        System.out.println("📈 Inserted " + stockCount + " stocks across " + SECTORS.size() + " sectors");
+        return new Stocks(symbols, prices);
+    }
+
+    // -------------------------------
+    // ✅ 2. Holders
+    // -------------------------------
+    private long[] insertHolders(SplittableRandom random) {
+
+        Long maxBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM holders", Long.class);
+
+        Progress progress = new Progress("holders", holderCount);
+        String[] names = new String[Math.min(batchSize, holderCount)];
+
+        for (int from = 0; from < holderCount; from += batchSize) {
+            int count = Math.min(batchSize, holderCount - from);
+            for (int j = 0; j < count; j++) {
+                names[j] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            }
+
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("INSERT INTO holders (name) VALUES (?)", new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int j) throws SQLException {
+                            ps.setString(1, names[j]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return count;
+                        }
+                    }));
+
+            progress.add(count);
+            progress.report(false);
+        }
+        progress.report(true);
+
+        // IDENTITY ids: read them back once rather than per row
+        long[] ids = new long[holderCount];
+        int[] n = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM holders WHERE id > ? ORDER BY id");
+            ps.setLong(1, maxBefore == null ? 0 : maxBefore);
+            ps.setFetchSize(batchSize);
+            return ps;
+        }, rs -> {
+            if (n[0] < ids.length) ids[n[0]++] = rs.getLong(1);
+        });
+
+        return n[0] == ids.length ? ids : Arrays.copyOf(ids, n[0]);
+    }
+
+    // -------------------------------
+    // ✅ 3. Holdings
+    // -------------------------------
+    private long insertHoldings(SplittableRandom random, Stocks stocks, long[] holderIds) throws Exception {
+
+        double[] popularity = zipfCdf(random.split(), stockCount);
+        int[] sizes = portfolioSizes(random.split(), holderIds.length);
+
+        long total = 0;
+        for (int size : sizes) total += size;
+
+        Progress progress = new Progress("holdings", total);
+        ExecutorService writers = Executors.newFixedThreadPool(writerThreads, r -> {
+            Thread t = new Thread(r, "synthetic-writer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int from = 0; from < holderIds.length; from += HOLDERS_PER_TASK) {
+                HoldingWriter writer = new HoldingWriter(random.split(), stocks.symbols(), stocks.basePrices(), popularity,
+                        holderIds, sizes, from, Math.min(holderIds.length, from + HOLDERS_PER_TASK), progress);
+                tasks.add(writers.submit(writer));
+            }
+
+            for (Future<?> task : tasks) {
+                while (true) {
+                    try {
+                        task.get(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        progress.report(false);
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Synthetic holdings generation failed", e.getCause());
+                    }
+                }
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        progress.report(true);
+        return total;
+    }
+
+    /** Cumulative Zipf weights over a random permutation of the stocks (popularity is not tied to sector). */
+    private double[] zipfCdf(SplittableRandom random, int n) {
+
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) rank[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = rank[i]; rank[i] = rank[j]; rank[j] = t;
+        }
+
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(rank[i] + 1, zipfExponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) cdf[i] /= sum;
+        cdf[n - 1] = 1.0;
+        return cdf;
+    }
+
+    /** Pareto-distributed portfolio sizes, scaled so the total lands near the holdings target. */
+    private int[] portfolioSizes(SplittableRandom random, int holders) {
+
+        double[] raw = new double[holders];
+        double sum = 0;
+        for (int h = 0; h < holders; h++) {
+            raw[h] = Math.pow(1.0 - random.nextDouble(), -1.0 / paretoAlpha);
+            sum += raw[h];
+        }
+
+        double scale = (double) holdingTarget / sum;
+        int[] sizes = new int[holders];
+        long total = 0;
+        for (int h = 0; h < holders; h++) {
+            sizes[h] = (int) Math.max(1, Math.min(maxPerHolder, Math.round(raw[h] * scale)));
+            total += sizes[h];
+        }
+
+        // Capping the tail loses rows; hand them back one per holder until the target is met
+        long missing = Math.min(holdingTarget, (long) holders * maxPerHolder) - total;
+        for (int h = 0; missing > 0; h = (h + 1) % holders) {
+            if (sizes[h] < maxPerHolder) {
+                sizes[h]++;
+                missing--;
+            }
+        }
+        return sizes;
+    }
+
+    /** Generates and writes the holdings of holders {@code [from, to)} with its own random stream. */
+    private final class HoldingWriter implements Runnable {
+
+        private final SplittableRandom random;
+        private final String[] symbols;
+        private final double[] basePrices;
+        private final double[] popularity;
+        private final long[] holderIds;
+        private final int[] sizes;
+        private final int from;
+        private final int to;
+        private final Progress progress;
+
+        HoldingWriter(SplittableRandom random, String[] symbols, double[] basePrices, double[] popularity,
+                      long[] holderIds, int[] sizes, int from, int to, Progress progress) {
+            this.random = random;
+            this.symbols = symbols;
+            this.basePrices = basePrices;
+            this.popularity = popularity;
+            this.holderIds = holderIds;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+        }
+
+        @Override
+        public void run() {
+
+            int capacity = batchSize + maxPerHolder;
+            long[] ids = new long[capacity];
+            String[] rowSymbols = new String[capacity];
+            int[] quantities = new int[capacity];
+            double[] prices = new double[capacity];
+
+            // stamp[s] == holder + 1 marks a symbol this holder already owns
+            int[] stamp = new int[symbols.length];
+            int count = 0;
+
+            for (int h = from; h < to; h++) {
+                int size = sizes[h];
+                int drawn = 0;
+                int attempts = 0;
+
+                while (drawn < size) {
+                    int s = attempts++ < size * 8 ? sample() : firstUnowned(stamp, h + 1);
+                    if (stamp[s] == h + 1) continue;
+                    stamp[s] = h + 1;
+
+                    ids[count] = holderIds[h];
+                    rowSymbols[count] = symbols[s];
+                    // Mostly small lots with a long tail, bought within ±30% of base price
+                    quantities[count] = 1 + (int) Math.exp(2.3 + 1.1 * gaussian());
+                    prices[count] = Math.round(basePrices[s] * (0.7 + 0.6 * random.nextDouble()) * 100.0) / 100.0;
+                    count++;
+                    drawn++;
+                }
+
+                if (count >= batchSize) {
+                    write(ids, rowSymbols, quantities, prices, count);
+                    count = 0;
+                }
+            }
+            write(ids, rowSymbols, quantities, prices, count);
+        }
+
+        private void write(long[] ids, String[] rowSymbols, int[] quantities, double[] prices, int count) {
+            if (count == 0) return;
+            transactionTemplate.executeWithoutResult(status ->
+                    holdingJdbcRepository.insertBatch(ids, rowSymbols, quantities, prices, 0, count));
+            progress.add(count);
+        }
+
+        private int sample() {
+            int i = Arrays.binarySearch(popularity, random.nextDouble());
+            return i >= 0 ? i : Math.min(-i - 1, popularity.length - 1);
+        }
+
+        private int firstUnowned(int[] stamp, int mark) {
+            for (int s = 0; s < stamp.length; s++) {
+                if (stamp[s] != mark) return s;
+            }
+            return 0;
+        }
+
+        private double gaussian() {
+            // Box-Muller, written out so a seed keeps producing the same dataset across JDKs
+            double u = 1.0 - random.nextDouble();
+            return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * random.nextDouble());
+        }
+    }
+
+    /** Rows written so far, printed at most every {@link #PROGRESS_INTERVAL_MS}. */
+    private static final class Progress {
+
+        private final String what;
+        private final long total;
+        private final long start = System.currentTimeMillis();
+        private final AtomicLong done = new AtomicLong();
+        private long lastReport = start;
+
+        Progress(String what, long total) {
+            this.what = what;
+            this.total = total;
+        }
+
+        void add(long rows) {
+            done.addAndGet(rows);
+        }
+
+        synchronized void report(boolean last) {
+            long now = System.currentTimeMillis();
+            if (!last && now - lastReport < PROGRESS_INTERVAL_MS) return;
+            lastReport = now;
+
+            long rows = done.get();
+            long rate = rows * 1000 / Math.max(1, now - start);
+            System.out.println((last ? "✅ " : "⏳ ") + what + " " + rows + "/" + total
+                    + " (" + (total == 0 ? 100 : rows * 100 / total) + "%) at " + rate + " rows/s");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.portfolio_management_system.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, e.g. blocking
+ * inside a {@code synchronized} block or a native frame.
+ * <p>
+ * Only active when virtual threads are enabled and supported (JDK 21+). Each
+ * pinned event longer than {@code threads.virtual.pinned-threshold-ms} counts
+ * towards {@code jvm.threads.virtual.pinned} and logs the first application frame.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.example.portfolio_management_system";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final long thresholdMs;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Environment environment,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${threads.virtual.pinned-threshold-ms:20}") long thresholdMs) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.thresholdMs = thresholdMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            if (requested) {
+                System.out.println("⚠️ spring.threads.virtual.enabled needs JDK 21+, running on "
+                        + Runtime.version() + ": using platform threads");
+            }
+            return;
+        }
+
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            System.out.println("⚠️ Virtual thread pinned for " + event.getDuration().toMillis() + " ms at "
+                    + firstAppFrame(event.getStackTrace()));
+        });
+        stream.startAsync();
+
+        System.out.println("🧵 Virtual threads enabled for Tomcat, @Scheduled jobs and price stream fan-out");
+    }
+
+    private static String firstAppFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) return "unknown";
+
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return describe(stackTrace.getFrames().get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.portfolio_management_system.controller;
+
+import com.example.portfolio_management_system.dto.BacktestReport;
+import com.example.portfolio_management_system.dto.BacktestRequest;
+import com.example.portfolio_management_system.service.BacktestService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/backtest")
+@CrossOrigin(origins = "*")
+public class BacktestController {
+
+    private final BacktestService backtestService;
+
+    public BacktestController(BacktestService backtestService) {
+        this.backtestService = backtestService;
+    }
+
+    // ✅ Replays a generated or recorded series through rule / threshold variants in parallel
+    @PostMapping
+    public ResponseEntity<BacktestReport> run(@RequestBody(required = false) BacktestRequest request) {
+        try {
+            return ResponseEntity.ok(backtestService.run(request != null ? request : new BacktestRequest()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
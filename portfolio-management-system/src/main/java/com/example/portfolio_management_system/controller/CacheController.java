@@ -0,0 +1,25 @@
+package com.example.portfolio_management_system.controller;
+
+import com.example.portfolio_management_system.dto.CacheStats;
+import com.example.portfolio_management_system.service.ResultCacheService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    private final ResultCacheService resultCacheService;
+
+    public CacheController(ResultCacheService resultCacheService) {
+        this.resultCacheService = resultCacheService;
+    }
+
+    // ✅ API: Hit / miss / eviction statistics of the per-holder result caches
+    @GetMapping("/stats")
+    public List<CacheStats> stats() {
+        return resultCacheService.stats();
+    }
+}
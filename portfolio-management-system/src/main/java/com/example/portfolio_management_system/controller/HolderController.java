@@ -1,9 +1,15 @@
 package com.example.portfolio_management_system.controller;
 
+import com.example.portfolio_management_system.dto.HolderSummary;
+import com.example.portfolio_management_system.dto.KeysetPage;
 import com.example.portfolio_management_system.model.Holder;
 import com.example.portfolio_management_system.service.HolderService;
+import com.example.portfolio_management_system.service.ListingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,12 +20,32 @@ import java.util.List;
 public class HolderController {
 
     private final HolderService holderService;
+    private final ListingService listingService;
 
     @GetMapping
-    public List<Holder> getAllHolders() {
+    public List<HolderSummary> getAllHolders() {
         return holderService.getAllHolders();
     }
 
+    // ✅ Keyset pages in ID order: ?limit=100, then ?cursor=<nextCursor>
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<HolderSummary>> getHolderPage(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(listingService.holders(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ✅ Every holder as one JSON array, written row by row from a JDBC cursor
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamHolders() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(listingService::streamHolders);
+    }
+
     @PostMapping
     public Holder createHolder(@RequestBody Holder holder) {
         return holderService.addHolder(holder);
@@ -1,11 +1,16 @@
 package com.example.portfolio_management_system.controller;
 
+import com.example.portfolio_management_system.dto.HoldingView;
+import com.example.portfolio_management_system.dto.ImportReport;
 import com.example.portfolio_management_system.model.Holding;
+import com.example.portfolio_management_system.service.HoldingImportService;
 import com.example.portfolio_management_system.service.HoldingService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -15,6 +20,7 @@ import java.util.List;
 public class HoldingController {
 
     private final HoldingService holdingService;
+    private final HoldingImportService holdingImportService;
 
     // ✅ Helper DTO matches the JSON sent from app.js
     @Data
@@ -35,8 +41,21 @@ public class HoldingController {
         );
     }
 
+    // ✅ Bulk import: CSV (holderId,stockSymbol,quantity,price) or JSON lines, streamed from the body
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain", "application/x-ndjson", "application/jsonl"})
+    public ImportReport importHoldings(HttpServletRequest request) throws IOException {
+
+        String contentType = request.getContentType();
+        HoldingImportService.Format format =
+                contentType != null && contentType.contains("json")
+                        ? HoldingImportService.Format.JSON_LINES
+                        : HoldingImportService.Format.CSV;
+
+        return holdingImportService.importHoldings(request.getInputStream(), format);
+    }
+
     @GetMapping("/{holderId}")
-    public List<Holding> getHoldings(@PathVariable Long holderId) {
+    public List<HoldingView> getHoldings(@PathVariable Long holderId) {
         return holdingService.getHoldingsByHolder(holderId);
     }
 }
\ No newline at end of file
@@ -1,19 +1,31 @@
 package com.example.portfolio_management_system.controller;
 
+import com.example.portfolio_management_system.dto.AnalyticsDrift;
 import com.example.portfolio_management_system.dto.DiversificationRecommendation;
+import com.example.portfolio_management_system.dto.HoldingView;
+import com.example.portfolio_management_system.dto.KeysetPage;
 import com.example.portfolio_management_system.dto.PortfolioAnalyticsResponse;
+import com.example.portfolio_management_system.dto.PortfolioCorrelation;
+import com.example.portfolio_management_system.dto.RiskReport;
 import com.example.portfolio_management_system.model.Holder;
-import com.example.portfolio_management_system.model.Holding;
 import com.example.portfolio_management_system.repository.HolderRepository;
-import com.example.portfolio_management_system.repository.HoldingRepository;
 import com.example.portfolio_management_system.repository.StockRepository;
+import com.example.portfolio_management_system.service.CovarianceService;
 import com.example.portfolio_management_system.service.DiversificationService;
+import com.example.portfolio_management_system.service.HoldingService;
+import com.example.portfolio_management_system.service.ListingService;
 import com.example.portfolio_management_system.service.PortfolioAnalyticsService;
+import com.example.portfolio_management_system.service.ResultCacheService;
 import com.example.portfolio_management_system.service.DumbMoneyService;
+import com.example.portfolio_management_system.service.RiskService;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -21,24 +33,36 @@ import java.util.List;
 public class PortfolioController {
 
     private final HolderRepository holderRepository;
-    private final HoldingRepository holdingRepository;
     private final StockRepository stockRepository;
     private final DiversificationService diversificationService;
     private final DumbMoneyService dumbMoneyService;
 
     private final PortfolioAnalyticsService analyticsService;
+    private final ResultCacheService resultCacheService;
+    private final RiskService riskService;
+    private final CovarianceService covarianceService;
+    private final ListingService listingService;
+    private final HoldingService holdingService;
 
     public PortfolioController(HolderRepository holderRepository,
-                               HoldingRepository holdingRepository,
                                StockRepository stockRepository, DiversificationService diversificationService, DumbMoneyService dumbMoneyService,
-                               PortfolioAnalyticsService analyticsService) {
+                               PortfolioAnalyticsService analyticsService,
+                               ResultCacheService resultCacheService,
+                               RiskService riskService,
+                               CovarianceService covarianceService,
+                               ListingService listingService,
+                               HoldingService holdingService) {
 
         this.holderRepository = holderRepository;
-        this.holdingRepository = holdingRepository;
         this.stockRepository = stockRepository;
         this.diversificationService = diversificationService;
         this.dumbMoneyService = dumbMoneyService;
         this.analyticsService = analyticsService;
+        this.resultCacheService = resultCacheService;
+        this.riskService = riskService;
+        this.covarianceService = covarianceService;
+        this.listingService = listingService;
+        this.holdingService = holdingService;
     }
 
     // ✅ API 1: Get all holders
@@ -49,23 +73,93 @@ public class PortfolioController {
 
     // ✅ API 2: Get portfolio of one holder
     @GetMapping("/portfolio/{holderId}")
-    public List<Holding> getPortfolio(@PathVariable Long holderId) {
-        return holdingRepository.findByHolderId(holderId);
+    public List<HoldingView> getPortfolio(@PathVariable Long holderId) {
+        return holdingService.getHoldingsByHolder(holderId);
+    }
+
+    // ✅ Same rows as keyset pages in holding ID order: ?limit=100, then ?cursor=<nextCursor>
+    @GetMapping("/portfolio/{holderId}/page")
+    public ResponseEntity<KeysetPage<HoldingView>> getPortfolioPage(@PathVariable Long holderId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(listingService.portfolio(holderId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ✅ Same rows as one JSON array, written row by row from a JDBC cursor
+    @GetMapping("/portfolio/{holderId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamPortfolio(@PathVariable Long holderId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> listingService.streamPortfolio(holderId, out));
     }
 
     // ✅ API 3: Portfolio Analytics
     @GetMapping("/{holderId}/analytics")
     public PortfolioAnalyticsResponse analytics(@PathVariable Long holderId) {
-        return analyticsService.getAnalytics(holderId);
+        return resultCacheService.analytics(holderId, () -> analyticsService.getAnalytics(holderId));
+    }
+
+    // ✅ Batch analytics for many holders (reporting jobs): one request, one IN query
+    @PostMapping("/analytics/batch")
+    public Map<Long, PortfolioAnalyticsResponse> batchAnalytics(@RequestBody List<Long> holderIds) {
+        return analyticsService.getAnalytics(holderIds);
+    }
+
+    // ✅ Recomputes analytics from scratch and reports drift from the running aggregate
+    @GetMapping("/{holderId}/analytics/consistency")
+    public AnalyticsDrift analyticsConsistency(@PathVariable Long holderId) {
+        return analyticsService.checkConsistency(holderId);
     }
+    // ✅ Monte Carlo VaR / CVaR of the live portfolio, e.g. ?confidence=0.99&horizon=1d
+    @GetMapping("/{holderId}/risk")
+    public ResponseEntity<RiskReport> risk(@PathVariable Long holderId,
+                                           @RequestParam(defaultValue = "0.99") double confidence,
+                                           @RequestParam(defaultValue = "1d") String horizon,
+                                           @RequestParam(defaultValue = "100000") int paths) {
+        RiskReport report;
+        try {
+            report = riskService.valueAtRisk(holderId, confidence, RiskService.parseHorizon(horizon), paths);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    // ✅ Result of the last nightly VaR batch (risk.batch.*)
+    @GetMapping("/{holderId}/risk/nightly")
+    public ResponseEntity<RiskReport> nightlyRisk(@PathVariable Long holderId) {
+        RiskReport report = riskService.nightly(holderId);
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    // ✅ Portfolio volatility and effective number of bets from the running covariance matrix
+    @GetMapping("/{holderId}/correlation")
+    public ResponseEntity<PortfolioCorrelation> correlation(@PathVariable Long holderId) {
+        PortfolioCorrelation correlation = covarianceService.portfolio(holderId);
+        return correlation != null ? ResponseEntity.ok(correlation) : ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/{holderId}/diversification")
     public List<DiversificationRecommendation> diversification(@PathVariable Long holderId) {
-        return diversificationService.analyzeDiversification(holderId);
+        return resultCacheService.diversification(holderId,
+                () -> diversificationService.analyzeDiversification(holderId));
     }
-    // ✅ API 5: Dumb Money Heatmap
+    // ✅ API 5: Dumb Money Heatmap (precomputed per tick, no DB access)
+    //    ?sector=IT limits it to one sector, ?format=compact returns parallel arrays
     @GetMapping("/dumb-money/heatmap")
-    public List<?> dumbMoneyHeatmap() {
-        return dumbMoneyService.generateHeatmap();
+    public Object dumbMoneyHeatmap(@RequestParam(required = false) String sector,
+                                   @RequestParam(required = false) String format) {
+
+        if ("compact".equalsIgnoreCase(format)) {
+            return dumbMoneyService.generateCompactHeatmap(sector);
+        }
+        return sector != null
+                ? dumbMoneyService.generateHeatmap(sector)
+                : dumbMoneyService.generateHeatmap();
     }
 
 }
@@ -0,0 +1,24 @@
+package com.example.portfolio_management_system.controller;
+
+import com.example.portfolio_management_system.service.PriceStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class PriceStreamController {
+
+    private final PriceStreamService priceStreamService;
+
+    public PriceStreamController(PriceStreamService priceStreamService) {
+        this.priceStreamService = priceStreamService;
+    }
+
+    // ✅ API: Live price stream (snapshot first, then changed symbols per tick)
+    @GetMapping(value = "/prices", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPrices() {
+        return priceStreamService.subscribe();
+    }
+}
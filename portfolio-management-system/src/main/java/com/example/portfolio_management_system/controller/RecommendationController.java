@@ -2,6 +2,7 @@ package com.example.portfolio_management_system.controller;
 
 import com.example.portfolio_management_system.dto.StockRecommendation;
 import com.example.portfolio_management_system.service.RecommendationService;
+import com.example.portfolio_management_system.service.ResultCacheService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -12,14 +13,18 @@ import java.util.List;
 public class RecommendationController {
 
     private final RecommendationService recommendationService;
+    private final ResultCacheService resultCacheService;
 
-    public RecommendationController(RecommendationService recommendationService) {
+    public RecommendationController(RecommendationService recommendationService,
+                                    ResultCacheService resultCacheService) {
         this.recommendationService = recommendationService;
+        this.resultCacheService = resultCacheService;
     }
 
     @GetMapping("/{holderId}")
     public List<StockRecommendation> getRecommendations(
             @PathVariable Long holderId) {
-        return recommendationService.getRecommendations(holderId);
+        return resultCacheService.recommendations(holderId,
+                () -> recommendationService.getRecommendations(holderId));
     }
 }
\ No newline at end of file
@@ -1,25 +1,153 @@
 package com.example.portfolio_management_system.controller;
 
+import com.example.portfolio_management_system.dto.CandleSeries;
+import com.example.portfolio_management_system.dto.KeysetPage;
+import com.example.portfolio_management_system.dto.PairCorrelation;
+import com.example.portfolio_management_system.dto.PriceHistory;
+import com.example.portfolio_management_system.model.CandleInterval;
 import com.example.portfolio_management_system.model.Stock;
-import com.example.portfolio_management_system.repository.StockRepository;
+import com.example.portfolio_management_system.service.CandleService;
+import com.example.portfolio_management_system.service.CovarianceService;
+import com.example.portfolio_management_system.service.ListingService;
+import com.example.portfolio_management_system.service.MarketState;
+import com.example.portfolio_management_system.service.TickHistoryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/stocks")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {"ETag", StockController.VERSION_HEADER})
 public class StockController {
 
-    private final StockRepository stockRepository;
+    static final String VERSION_HEADER = "X-Market-Version";
 
-    public StockController(StockRepository stockRepository) {
-        this.stockRepository = stockRepository;
+    private final MarketState marketState;
+    private final TickHistoryService tickHistoryService;
+    private final CandleService candleService;
+    private final CovarianceService covarianceService;
+    private final ListingService listingService;
+
+    public StockController(MarketState marketState,
+                           TickHistoryService tickHistoryService,
+                           CandleService candleService,
+                           CovarianceService covarianceService,
+                           ListingService listingService) {
+        this.marketState = marketState;
+        this.tickHistoryService = tickHistoryService;
+        this.candleService = candleService;
+        this.covarianceService = covarianceService;
+        this.listingService = listingService;
     }
 
-    // ✅ API: Get all stocks with live prices
+    // ✅ API: Get all stocks with live prices (served from the in-memory market state)
+    //    ?since=<X-Market-Version> returns only rows changed after that version, or 304 if none can be;
+    //    If-None-Match with the current ETag returns 304.
     @GetMapping
-    public List<Stock> getAllStocks() {
-        return stockRepository.findAll();
+    public ResponseEntity<List<Stock>> getAllStocks(@RequestParam(required = false) String since,
+                                                    WebRequest request) {
+
+        long version = marketState.version();
+        int size = marketState.size();
+
+        // A token from before a restart (another epoch) is meaningless now: send everything
+        long sinceVersion = marketState.parseVersionToken(since);
+        boolean delta = sinceVersion >= 0;
+
+        // Names the market state alone, so the ETag a poller kept still matches when it sends a newer since
+        String eTag = "\"" + marketState.epoch() + "-" + version + "-" + size + "\"";
+        if (delta && sinceVersion >= version) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .header(VERSION_HEADER, marketState.versionToken(version))
+                    .build();
+        }
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        List<Stock> stocks = delta ? marketState.toStocksChangedSince(sinceVersion) : marketState.toStocks();
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(VERSION_HEADER, marketState.versionToken(version))
+                .body(stocks);
+    }
+
+    // ✅ API: Live stocks as keyset pages: ?limit=100, then ?cursor=<nextCursor>
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<Stock>> getStockPage(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok()
+                    .header(VERSION_HEADER, marketState.versionToken(marketState.version()))
+                    .body(listingService.stocks(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ✅ API: Every live stock as one JSON array, written row by row without building a list
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamStocks() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(VERSION_HEADER, marketState.versionToken(marketState.version()))
+                .body(listingService::streamStocks);
+    }
+
+    // ✅ API: Recorded ticks of one symbol between from and to (epoch millis, default: the last 24h)
+    @GetMapping("/{symbol}/history")
+    public ResponseEntity<PriceHistory> getHistory(@PathVariable String symbol,
+                                                   @RequestParam(required = false) Long from,
+                                                   @RequestParam(required = false) Long to) {
+
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - TimeUnit.DAYS.toMillis(1);
+
+        if (start > end) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        PriceHistory history = tickHistoryService.history(symbol, start, end);
+        return history != null ? ResponseEntity.ok(history) : ResponseEntity.notFound().build();
+    }
+
+    // ✅ API: OHLC bars (interval = 1m, 5m, 1h or 1d) starting between from and to
+    //    (epoch millis, default: the last 500 bars)
+    @GetMapping("/{symbol}/candles")
+    public ResponseEntity<CandleSeries> getCandles(@PathVariable String symbol,
+                                                   @RequestParam(defaultValue = "1m") String interval,
+                                                   @RequestParam(required = false) Long from,
+                                                   @RequestParam(required = false) Long to) {
+
+        CandleInterval candleInterval = CandleInterval.fromLabel(interval);
+        long end = to != null ? to : System.currentTimeMillis();
+
+        if (candleInterval == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        long start = from != null ? from : end - 500 * candleInterval.millis();
+        if (start > end) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CandleSeries candles = candleService.candles(symbol, candleInterval, start, end);
+        return candles != null ? ResponseEntity.ok(candles) : ResponseEntity.notFound().build();
+    }
+
+    // ✅ API: Running covariance and correlation of two symbols' per-tick returns
+    @GetMapping("/{symbol}/correlation/{other}")
+    public ResponseEntity<PairCorrelation> getCorrelation(@PathVariable String symbol,
+                                                          @PathVariable String other) {
+        PairCorrelation pair = covarianceService.pair(symbol, other);
+        return pair != null ? ResponseEntity.ok(pair) : ResponseEntity.notFound().build();
     }
 }
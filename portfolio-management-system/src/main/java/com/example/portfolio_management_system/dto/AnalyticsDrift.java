@@ -0,0 +1,21 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AnalyticsDrift {
+
+    private Long holderId;
+    private Boolean consistent;
+
+    // incremental value minus value recomputed from scratch
+    private Double totalInvestedDrift;
+    private Double currentValueDrift;
+    private Double maxSectorAllocationDrift;
+    private Integer riskScoreDrift;
+    private Integer diversificationScoreDrift;
+}
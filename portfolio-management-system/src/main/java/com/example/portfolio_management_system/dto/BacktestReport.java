@@ -0,0 +1,52 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class BacktestReport {
+
+    private final String source;
+    private final Integer symbols;
+    private final Integer ticks;
+    private final Integer holders;
+    private final Integer positionsPerHolder;
+    private final Long seed;
+
+    // Holding the starting positions and cash throughout, for comparison
+    private final Double buyAndHoldReturnPercent;
+    private final String bestVariant;
+
+    private final List<VariantResult> variants;
+
+    private final Long holderTicks;
+    private final Long holderTicksPerSecond;
+    private final Long elapsedMs;
+
+    @Getter
+    @AllArgsConstructor
+    @Builder
+    public static class VariantResult {
+
+        private final String name;
+        private final Double dumbVolatility;
+        private final Integer dumbConfidence;
+        private final Double smartVolatility;
+        private final Integer smartConfidence;
+        private final String rules;
+
+        // Of all holders' combined value; drawdowns are peak-to-trough per holder
+        private final Double returnPercent;
+        private final Double meanMaxDrawdownPercent;
+        private final Double worstDrawdownPercent;
+
+        // Trades scored against the price horizon ticks later
+        private final Double hitRatePercent;
+        private final Long buys;
+        private final Long sells;
+        private final Long scoredTrades;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Backtest of the recommendation rules and dumb-money thresholds. Unset fields
+ * take the defaults of {@code BacktestService}; with neither {@code variants} nor
+ * {@code grid} a single variant runs the live rules and thresholds.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BacktestRequest {
+
+    // "generated" (seeded random walk of the first symbols) or "recorded" (backtest.recorded-file)
+    private String source;
+    private Integer symbols;
+    private Integer ticks;
+    private Long seed;
+
+    // Simulated holders, each starting with positionsPerHolder random positions and cash
+    private Integer holders;
+    private Integer positionsPerHolder;
+    private Double cashPercent;
+
+    // Holders act on the rules every rebalanceEvery ticks; a trade is a hit if the price
+    // moved its way horizon ticks later
+    private Integer rebalanceEvery;
+    private Integer horizon;
+
+    // Decision table CSV for variants without their own (default: the live rules)
+    private String rules;
+
+    private List<Variant> variants;
+    private Grid grid;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Variant {
+        private String name;
+        private Double dumbVolatility;
+        private Integer dumbConfidence;
+        private Double smartVolatility;
+        private Integer smartConfidence;
+        private String rules;
+    }
+
+    /** Every combination of the listed thresholds; a missing list keeps the live value. */
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Grid {
+        private List<Double> dumbVolatility;
+        private List<Integer> dumbConfidence;
+        private List<Double> smartVolatility;
+        private List<Integer> smartConfidence;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CacheStats {
+
+    private String name;
+    private Integer size;
+    private Integer maxEntries;
+
+    private Long hits;
+    private Long misses;
+    private Long coalesced; // misses that waited on an in-flight computation
+    private Long evictions;
+    private Long invalidations;
+}
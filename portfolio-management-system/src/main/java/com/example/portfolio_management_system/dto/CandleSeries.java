@@ -0,0 +1,31 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+/**
+ * Column-oriented OHLC bars of one symbol and interval, oldest first.
+ * {@code time} holds each bar's start in epoch millis; {@code ticks} counts the price updates in the bar.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class CandleSeries {
+
+    private final String symbol;
+    private final String interval;
+    private final Long from;
+    private final Long to;
+
+    // The last bar is still forming
+    private final Boolean lastBarPartial;
+
+    // True when more bars matched than market.candles.max-points; the most recent are returned
+    private final Boolean truncated;
+
+    private final long[] time;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final int[] ticks;
+}
@@ -0,0 +1,31 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Column-oriented heatmap encoding: one entry per sector with parallel arrays.
+ * Each character of {@code signalCodes} is the index of the symbol's signal in {@link #signals}.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class CompactHeatmap {
+
+    private final Long version;
+    private final Long timestamp;
+    private final List<String> signals;
+    private final List<Sector> sectors;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Sector {
+
+        private final String sector;
+        private final String[] symbols;
+        private final String signalCodes;
+        private final double[] volatility;
+        private final int[] confidenceScore;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dumb-money heatmap of the whole universe at one market version,
+ * grouped by sector. Built once per tick and never mutated afterwards.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class HeatmapSnapshot {
+
+    private final Long version;
+    private final Long timestamp;
+    private final Map<String, List<DumbMoneyStock>> sectors;
+}
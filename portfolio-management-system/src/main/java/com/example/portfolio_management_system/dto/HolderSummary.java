@@ -0,0 +1,14 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+/**
+ * Read-only holder row, serialised like the {@code Holder} entity.
+ */
+@Getter
+@AllArgsConstructor
+public class HolderSummary {
+
+    private final Long id;
+    private final String name;
+}
@@ -0,0 +1,35 @@
+package com.example.portfolio_management_system.dto;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import lombok.*;
+
+/**
+ * Read-only holding with its stock, serialised like the {@code Holding} entity.
+ * Built straight from query columns (JPQL constructor expression or JDBC row),
+ * so nothing is hydrated into or tracked by a persistence context.
+ */
+@Getter
+public class HoldingView {
+
+    private final Long id;
+    private final Integer quantity;
+    private final Double avgPrice;
+
+    private final StockQuote stock;
+
+    public HoldingView(Long id, Integer quantity, Double avgPrice, StockQuote stock) {
+        this.id = id;
+        this.quantity = quantity;
+        this.avgPrice = avgPrice;
+        this.stock = stock;
+    }
+
+    // ✅ Flat form for "select new": JPQL constructor expressions cannot nest; no symbol means no stock row
+    public HoldingView(Long id, Integer quantity, Double avgPrice,
+                       String symbol, String name, String sector,
+                       Double basePrice, Double volatility, Integer confidenceScore, Double currentPrice,
+                       DumbMoneySignal dumbMoneySignal) {
+        this(id, quantity, avgPrice, symbol == null ? null : new StockQuote(symbol, name, sector,
+                basePrice, volatility, confidenceScore, currentPrice, dumbMoneySignal));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportReport {
+
+    private Long rowsRead;
+    private Long rowsInserted;
+    private Long rowsRejected;
+    private Long elapsedMs;
+
+    // First errors only (holdings.import.max-errors); rowsRejected has the full count
+    private List<RowError> errors;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private Long line;
+        private String message;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back as
+ * {@code ?cursor=} for the following page; it is null on the last page.
+ * Cursors are opaque and stay valid while rows are added.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final Integer limit;
+    private final String nextCursor;
+
+    private static final String PREFIX = "k1:";
+
+    /** Opaque cursor resuming after the row with the given key. */
+    public static String cursor(long key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + key).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return the key the cursor resumes after, or {@code first} for a null or blank cursor
+     * @throws IllegalArgumentException for a cursor this API did not issue
+     */
+    public static long after(String cursor, long first) {
+        if (cursor == null || cursor.isBlank()) return first;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!decoded.startsWith(PREFIX)) throw new IllegalArgumentException("Invalid cursor");
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+/**
+ * Running return statistics of two symbols. Null until enough ticks have been
+ * observed, or if either symbol is outside the tracked universe.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class PairCorrelation {
+
+    private final String symbolA;
+    private final String symbolB;
+    private final Long observations;
+
+    // Of per-tick log returns
+    private final Double covariance;
+    private final Double correlation;
+}
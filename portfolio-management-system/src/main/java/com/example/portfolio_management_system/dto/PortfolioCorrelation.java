@@ -0,0 +1,30 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Correlation-aware view of one holder's portfolio. Statistics are null until
+ * {@code risk.covariance.min-observations} ticks have been observed.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class PortfolioCorrelation {
+
+    private final Long holderId;
+    private final Long observations;
+
+    // Distinct symbols held, how many are in the tracked universe, and their share of the value
+    private final Integer positions;
+    private final Integer trackedPositions;
+    private final Double coverage;
+
+    // Standard deviation of the portfolio's per-tick return, in percent
+    private final Double volatilityPercent;
+
+    // 1 / Σ w² over clusters of positions that move together; equals positions when none do
+    private final Double effectiveBets;
+    private final List<List<String>> correlatedClusters;
+}
@@ -0,0 +1,28 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Column-oriented tick history of one symbol, oldest first.
+ * Each character of {@code signalCodes} is the index of that tick's signal in {@link #signals}.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class PriceHistory {
+
+    private final String symbol;
+    private final Long from;
+    private final Long to;
+
+    // True when more ticks matched than market.history.max-points; the most recent are returned
+    private final Boolean truncated;
+
+    private final List<String> signals;
+    private final long[] timestamps;
+    private final double[] prices;
+    private final int[] confidenceScore;
+    private final String signalCodes;
+}
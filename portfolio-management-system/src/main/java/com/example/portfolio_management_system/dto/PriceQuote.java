@@ -0,0 +1,16 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceQuote {
+
+    private String symbol;
+    private Double currentPrice;
+    private Integer confidenceScore;
+    private String dumbMoneySignal;
+}
@@ -0,0 +1,17 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PriceUpdate {
+
+    private Long version;
+    private Long timestamp;
+    private List<PriceQuote> quotes;
+}
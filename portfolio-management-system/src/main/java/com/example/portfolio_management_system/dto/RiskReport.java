@@ -0,0 +1,34 @@
+package com.example.portfolio_management_system.dto;
+
+import lombok.*;
+
+/**
+ * Monte Carlo Value-at-Risk of one holder's portfolio. Losses are positive
+ * amounts in the portfolio's currency over {@code horizonDays} trading days.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class RiskReport {
+
+    private final Long holderId;
+    private final String holderName;
+
+    private final Double confidence;
+    private final Integer horizonDays;
+    private final Integer paths;
+    private final Integer positions;
+
+    private final Double portfolioValue;
+
+    // Loss not exceeded with the given confidence, and the mean loss beyond it (expected shortfall)
+    private final Double valueAtRisk;
+    private final Double conditionalValueAtRisk;
+    private final Double valueAtRiskPercent;
+
+    private final Double expectedPnl;
+    private final Double worstLoss;
+
+    private final Long computedAt;
+    private final Long elapsedMs;
+}
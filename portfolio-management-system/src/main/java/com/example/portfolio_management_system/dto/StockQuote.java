@@ -0,0 +1,24 @@
+package com.example.portfolio_management_system.dto;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import lombok.*;
+
+/**
+ * Read-only stock row, serialised like the {@code Stock} entity.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class StockQuote {
+
+    private final String symbol;
+    private final String name;
+    private final String sector;
+
+    private final Double basePrice;
+    private final Double volatility;
+    private final Integer confidenceScore;
+    private final Double currentPrice;
+
+    private final DumbMoneySignal dumbMoneySignal;
+}
@@ -0,0 +1,40 @@
+package com.example.portfolio_management_system.model;
+
+import java.util.concurrent.TimeUnit;
+
+public enum CandleInterval {
+
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+    FIVE_MINUTES("5m", TimeUnit.MINUTES.toMillis(5)),
+    ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1)),
+    ONE_DAY("1d", TimeUnit.DAYS.toMillis(1));
+
+    private final String label;
+    private final long millis;
+
+    CandleInterval(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public long millis() {
+        return millis;
+    }
+
+    /** Start of the bar containing {@code timestamp} (UTC-aligned). */
+    public long barStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, millis);
+    }
+
+    /** @return the interval with the given label ("1m", "5m", "1h", "1d"), or null */
+    public static CandleInterval fromLabel(String label) {
+        for (CandleInterval interval : values()) {
+            if (interval.label.equals(label)) return interval;
+        }
+        return null;
+    }
+}
@@ -1,7 +1,17 @@
 package com.example.portfolio_management_system.repository;
 
+import com.example.portfolio_management_system.dto.HolderSummary;
 import com.example.portfolio_management_system.model.Holder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 public interface HolderRepository extends JpaRepository<Holder, Long> {
+
+    // ✅ Read-only projection: id and name only, no entities in the persistence context
+    @Transactional(readOnly = true)
+    @Query("select new com.example.portfolio_management_system.dto.HolderSummary(h.id, h.name) from Holder h order by h.id")
+    List<HolderSummary> findAllSummaries();
 }
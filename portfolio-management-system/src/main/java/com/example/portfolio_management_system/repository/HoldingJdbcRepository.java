@@ -0,0 +1,163 @@
+package com.example.portfolio_management_system.repository;
+
+import com.example.portfolio_management_system.dto.HolderSummary;
+import com.example.portfolio_management_system.dto.HoldingView;
+import com.example.portfolio_management_system.dto.StockQuote;
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Plain-JDBC access to holdings for bulk paths, where Hibernate's per-entity
+ * insert (IDENTITY ids cannot be batched) would cost one round-trip per row.
+ */
+@Repository
+public class HoldingJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO holdings (holder_id, stock_symbol, quantity, avg_price) VALUES (?, ?, ?, ?)";
+
+    private static final String HOLDINGS_OF_HOLDER_SQL =
+            "SELECT h.id, h.quantity, h.avg_price, s.symbol, s.name, s.sector, s.base_price, s.volatility,"
+                    + " s.confidence_score, s.current_price, s.dumb_money_signal"
+                    + " FROM holdings h LEFT JOIN stocks s ON s.symbol = h.stock_symbol"
+                    + " WHERE h.holder_id = ? AND h.id > ? ORDER BY h.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    /** Receives one holdings row of a streamed scan. */
+    @FunctionalInterface
+    public interface PositionHandler {
+        void accept(long holderId, String symbol, int quantity, double avgPrice);
+    }
+
+    public HoldingJdbcRepository(JdbcTemplate jdbcTemplate,
+                                 @Value("${holdings.scan.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /** Inserts rows {@code [from, to)} of the given columns as one JDBC batch. */
+    public void insertBatch(long[] holderIds, String[] symbols, int[] quantities, double[] prices,
+                            int from, int to) {
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int j) throws SQLException {
+                int i = from + j;
+                ps.setLong(1, holderIds[i]);
+                ps.setString(2, symbols[i]);
+                ps.setInt(3, quantities[i]);
+                ps.setDouble(4, prices[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return to - from;
+            }
+        });
+    }
+
+    /** Holder ID → name for every holder, in one query. */
+    public Map<Long, String> findHolderNames() {
+        Map<Long, String> names = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM holders",
+                rs -> {
+                    names.put(rs.getLong(1), rs.getString(2));
+                });
+        return names;
+    }
+
+    /** Highest holding ID committed so far (0 without holdings). */
+    public long maxHoldingId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM holdings", Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Streams every holding with {@code id <= maxId} through {@code handler} without
+     * materialising entities. Rows arrive {@code holdings.scan.fetch-size} at a time
+     * (a server-side cursor on MySQL with {@code useCursorFetch=true}).
+     */
+    public void forEachPosition(long maxId, PositionHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT holder_id, stock_symbol, quantity, avg_price FROM holdings WHERE id <= ?",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setLong(1, maxId);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getDouble(4));
+        });
+    }
+
+    /**
+     * Holders with {@code id > afterId} in ID order, at most {@code limit} of them
+     * ({@code limit <= 0}: all, streamed through a forward-only cursor).
+     */
+    public void forEachHolder(long afterId, int limit, Consumer<? super HolderSummary> handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, name FROM holders WHERE id > ? ORDER BY id" + (limit > 0 ? " LIMIT ?" : ""),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setLong(1, afterId);
+            if (limit > 0) ps.setInt(2, limit);
+            ps.setFetchSize(limit > 0 ? Math.min(limit, fetchSize) : fetchSize);
+            return ps;
+        }, rs -> {
+            handler.accept(new HolderSummary(rs.getLong(1), rs.getString(2)));
+        });
+    }
+
+    /**
+     * One holder's holdings with {@code id > afterId} in ID order, each with its stock row,
+     * at most {@code limit} of them ({@code limit <= 0}: all, streamed). Rows are
+     * built per row, never held as a list.
+     */
+    public void forEachHolding(long holderId, long afterId, int limit, Consumer<? super HoldingView> handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    HOLDINGS_OF_HOLDER_SQL + (limit > 0 ? " LIMIT ?" : ""),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setLong(1, holderId);
+            ps.setLong(2, afterId);
+            if (limit > 0) ps.setInt(3, limit);
+            ps.setFetchSize(limit > 0 ? Math.min(limit, fetchSize) : fetchSize);
+            return ps;
+        }, rs -> {
+            handler.accept(mapHolding(rs));
+        });
+    }
+
+    private static HoldingView mapHolding(ResultSet rs) throws SQLException {
+
+        StockQuote stock = null;
+        String symbol = rs.getString(4);
+        if (symbol != null) {
+            String signal = rs.getString(11);
+            stock = StockQuote.builder()
+                    .symbol(symbol)
+                    .name(rs.getString(5))
+                    .sector(rs.getString(6))
+                    .basePrice(rs.getObject(7, Double.class))
+                    .volatility(rs.getObject(8, Double.class))
+                    .confidenceScore(rs.getObject(9, Integer.class))
+                    .currentPrice(rs.getObject(10, Double.class))
+                    .dumbMoneySignal(signal != null ? DumbMoneySignal.valueOf(signal) : null)
+                    .build();
+        }
+
+        return new HoldingView(rs.getLong(1), rs.getObject(2, Integer.class), rs.getObject(3, Double.class), stock);
+    }
+}
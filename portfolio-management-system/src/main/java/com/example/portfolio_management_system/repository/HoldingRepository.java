@@ -1,8 +1,13 @@
 package com.example.portfolio_management_system.repository;
 
+import com.example.portfolio_management_system.dto.HoldingView;
 import com.example.portfolio_management_system.model.Holding;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface HoldingRepository extends JpaRepository<Holding, Long> {
@@ -10,4 +15,23 @@ public interface HoldingRepository extends JpaRepository<Holding, Long> {
     // ✅ Find holdings by holder ID
     List<Holding> findByHolderId(Long holderId);
 
+    // ✅ Same rows, with stock and holder fetched in the same round-trip (no N+1)
+    @Query("select h from Holding h join fetch h.stock join fetch h.holder where h.holder.id = :holderId")
+    List<Holding> findWithStockByHolderId(@Param("holderId") Long holderId);
+
+    // ✅ Read-only projection of the same rows for read endpoints: no entity hydration or dirty tracking
+    @Transactional(readOnly = true)
+    @Query("select new com.example.portfolio_management_system.dto.HoldingView(h.id, h.quantity, h.avgPrice,"
+            + " s.symbol, s.name, s.sector, s.basePrice, s.volatility, s.confidenceScore, s.currentPrice, s.dumbMoneySignal)"
+            + " from Holding h left join h.stock s where h.holder.id = :holderId order by h.id")
+    List<HoldingView> findViewsByHolderId(@Param("holderId") Long holderId);
+
+    // ✅ Holdings of many holders in a single holder_id IN (...) query
+    @Query("select h from Holding h join fetch h.stock join fetch h.holder where h.holder.id in :holderIds")
+    List<Holding> findWithStockByHolderIdIn(@Param("holderIds") Collection<Long> holderIds);
+
+    // ✅ Every holding with stock and holder, for building in-memory state at startup
+    @Query("select h from Holding h join fetch h.stock join fetch h.holder")
+    List<Holding> findAllWithStockAndHolder();
+
 }
@@ -0,0 +1,530 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.BacktestReport;
+import com.example.portfolio_management_system.dto.BacktestRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Backtests the recommendation decision table and the dumb-money thresholds
+ * against a price series: a seeded random walk of the market, or a feed recorded
+ * by {@link PriceFeedRecorder}.
+ * <p>
+ * A book of simulated holders (random positions plus cash, seeded) follows the
+ * rules: every {@code rebalanceEvery} ticks each position is matched against the
+ * table, a BUY adds one starting lot if the cash covers it and a SELL closes the
+ * position. Each variant reports the book's return, per-holder drawdowns and the
+ * hit rate of its trades, scored against the price {@code horizon} ticks later.
+ * <p>
+ * Variants run in parallel on a dedicated fork-join pool, one variant per task.
+ * A run keeps one {@link Workspace} of primitive columns per variant in flight, reused
+ * across its variants so the tick loop allocates nothing, and drops them when it ends:
+ * idle workers hold no run-sized buffers. A run depends only on its request, not on
+ * the number of cores.
+ */
+@Service
+public class BacktestService {
+
+    private static final int HOLD = 0;
+    private static final int BUY = 1;
+    private static final int SELL = 2;
+
+    private final MarketState marketState;
+    private final RecommendationRules rules;
+    private final ForkJoinPool pool;
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private final Path recordedFile;
+    private final long maxCells;
+    private final long maxHolderTicks;
+    private final int maxVariants;
+
+    public BacktestService(MarketState marketState,
+                           RecommendationRules rules,
+                           @Value("${backtest.parallelism:0}") int parallelism,
+                           @Value("${backtest.recorded-file:data/recorded-ticks.csv}") String recordedFile,
+                           @Value("${backtest.max-cells:20000000}") long maxCells,
+                           @Value("${backtest.max-holder-ticks:10000000000}") long maxHolderTicks,
+                           @Value("${backtest.max-variants:1024}") int maxVariants) {
+        this.marketState = marketState;
+        this.rules = rules;
+        this.recordedFile = Path.of(recordedFile);
+        this.maxCells = maxCells;
+        this.maxHolderTicks = maxHolderTicks;
+        this.maxVariants = maxVariants;
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("backtest-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Runs every variant of the request; one backtest runs at a time.
+     *
+     * @throws IllegalArgumentException for invalid parameters or rules
+     * @throws IllegalStateException    if the market is not loaded or a backtest is running
+     */
+    public BacktestReport run(BacktestRequest request) {
+
+        if (!marketState.isLoaded()) {
+            throw new IllegalStateException("Market state not loaded yet");
+        }
+        if (!runLock.tryLock()) {
+            throw new IllegalStateException("A backtest is already running");
+        }
+        try {
+            return execute(request);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private BacktestReport execute(BacktestRequest request) {
+
+        long start = System.nanoTime();
+
+        String source = valueOr(request.getSource(), "generated").toLowerCase(Locale.ROOT);
+        long seed = valueOr(request.getSeed(), 42L);
+        int holders = valueOr(request.getHolders(), 1000);
+        int positionsPerHolder = valueOr(request.getPositionsPerHolder(), 10);
+        double cashPercent = valueOr(request.getCashPercent(), 50.0);
+        int rebalanceEvery = valueOr(request.getRebalanceEvery(), 1);
+        int horizon = valueOr(request.getHorizon(), 20);
+
+        if (holders < 1 || positionsPerHolder < 1 || rebalanceEvery < 1 || horizon < 1 || cashPercent < 0) {
+            throw new IllegalArgumentException("holders, positionsPerHolder, rebalanceEvery and horizon must be positive");
+        }
+        if ((long) holders * positionsPerHolder > maxCells) {
+            throw new IllegalArgumentException("At most " + maxCells + " positions across all holders");
+        }
+
+        List<Variant> variants = variants(request);
+
+        PriceSeries series = switch (source) {
+            case "generated" -> {
+                int symbols = Math.min(valueOr(request.getSymbols(), 500), marketState.size());
+                int ticks = valueOr(request.getTicks(), 2000);
+                if (symbols < 1 || ticks < 2 || (long) symbols * ticks > maxCells) {
+                    throw new IllegalArgumentException("Need at least 1 symbol and 2 ticks, at most "
+                            + maxCells + " symbol-ticks");
+                }
+                yield PriceSeries.generate(marketState, symbols, ticks, seed);
+            }
+            case "recorded" -> {
+                if (!Files.isReadable(recordedFile)) {
+                    throw new IllegalArgumentException("No recorded feed at backtest.recorded-file");
+                }
+                try {
+                    yield PriceSeries.load(recordedFile, marketState, maxCells);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            default -> throw new IllegalArgumentException("source must be generated or recorded");
+        };
+        if (series.ticks() < 2) {
+            throw new IllegalArgumentException("Series has fewer than 2 ticks");
+        }
+
+        long holderTicks = (long) holders * (series.ticks() - 1) * variants.size();
+        if (holderTicks > maxHolderTicks) {
+            throw new IllegalArgumentException("Run of " + holderTicks + " holder-ticks is above backtest.max-holder-ticks");
+        }
+
+        Book book = book(series, holders, Math.min(positionsPerHolder, series.symbols()), cashPercent, seed);
+        Settings settings = new Settings(series, book, rebalanceEvery, horizon, new ConcurrentLinkedQueue<>());
+
+        BacktestReport.VariantResult[] results = new BacktestReport.VariantResult[variants.size()];
+        pool.invoke(new VariantTask(settings, variants, results, 0, variants.size()));
+
+        BacktestReport.VariantResult best = null;
+        for (BacktestReport.VariantResult result : results) {
+            if (best == null || result.getReturnPercent() > best.getReturnPercent()) best = result;
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.println("🧪 Backtest of " + variants.size() + " variants, " + holderTicks + " holder-ticks in "
+                + elapsedNanos / 1_000_000 + " ms");
+
+        return BacktestReport.builder()
+                .source(source)
+                .symbols(series.symbols())
+                .ticks(series.ticks())
+                .holders(holders)
+                .positionsPerHolder(book.positionsPerHolder)
+                .seed(seed)
+                .buyAndHoldReturnPercent(round(buyAndHold(settings)))
+                .bestVariant(best.getName())
+                .variants(List.of(results))
+                .holderTicks(holderTicks)
+                .holderTicksPerSecond(holderTicks * 1_000_000_000L / Math.max(1, elapsedNanos))
+                .elapsedMs(elapsedNanos / 1_000_000)
+                .build();
+    }
+
+    private static <T> T valueOr(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    // -----------------------------
+    // Variants
+    // -----------------------------
+
+    private record Variant(String name, SignalThresholds thresholds, DecisionTable table, String rulesSource,
+                           int[] actions) {
+    }
+
+    private List<Variant> variants(BacktestRequest request) {
+
+        SignalThresholds live = SignalThresholds.DEFAULT;
+        BacktestRequest.Grid grid = request.getGrid();
+        List<Double> dumbVolatility = List.of(live.dumbVolatility());
+        List<Integer> dumbConfidence = List.of(live.dumbConfidence());
+        List<Double> smartVolatility = List.of(live.smartVolatility());
+        List<Integer> smartConfidence = List.of(live.smartConfidence());
+        if (grid != null) {
+            dumbVolatility = valueOr(grid.getDumbVolatility(), dumbVolatility);
+            dumbConfidence = valueOr(grid.getDumbConfidence(), dumbConfidence);
+            smartVolatility = valueOr(grid.getSmartVolatility(), smartVolatility);
+            smartConfidence = valueOr(grid.getSmartConfidence(), smartConfidence);
+        }
+
+        // Counted before anything is built, as a grid's product can be far beyond memory;
+        // capped past the limit so four long axes cannot overflow
+        long count = request.getVariants() != null ? request.getVariants().size() : 0;
+        if (grid != null) {
+            long cells = 1;
+            for (List<?> axis : List.of(dumbVolatility, dumbConfidence, smartVolatility, smartConfidence)) {
+                cells = Math.min(cells * axis.size(), maxVariants + 1L);
+            }
+            count += cells;
+        }
+        if (count > maxVariants) {
+            throw new IllegalArgumentException("At most " + maxVariants + " variants per run");
+        }
+
+        DecisionTable shared = request.getRules() != null
+                ? DecisionTable.parse("request", request.getRules().lines().toList())
+                : rules.current();
+
+        List<Variant> variants = new ArrayList<>();
+
+        if (request.getVariants() != null) {
+            for (BacktestRequest.Variant v : request.getVariants()) {
+                DecisionTable table = v.getRules() != null
+                        ? DecisionTable.parse(valueOr(v.getName(), "variant"), v.getRules().lines().toList())
+                        : shared;
+                SignalThresholds thresholds = new SignalThresholds(
+                        valueOr(v.getDumbVolatility(), live.dumbVolatility()),
+                        valueOr(v.getDumbConfidence(), live.dumbConfidence()),
+                        valueOr(v.getSmartVolatility(), live.smartVolatility()),
+                        valueOr(v.getSmartConfidence(), live.smartConfidence()));
+                addVariant(variants, valueOr(v.getName(), "variant-" + variants.size()), thresholds, table);
+            }
+        }
+
+        if (grid != null) {
+            for (double dv : dumbVolatility) {
+                for (int dc : dumbConfidence) {
+                    for (double sv : smartVolatility) {
+                        for (int sc : smartConfidence) {
+                            addVariant(variants, "dumb>" + dv + "/<" + dc + " smart<" + sv + "/>" + sc,
+                                    new SignalThresholds(dv, dc, sv, sc), shared);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (variants.isEmpty()) {
+            addVariant(variants, "live", live, shared);
+        }
+        return variants;
+    }
+
+    private static void addVariant(List<Variant> variants, String name, SignalThresholds thresholds,
+                                   DecisionTable table) {
+        List<String> decisions = table.decisions();
+        int[] actions = new int[decisions.size()];
+        for (int d = 0; d < actions.length; d++) {
+            actions[d] = switch (decisions.get(d)) {
+                case "BUY" -> BUY;
+                case "SELL" -> SELL;
+                default -> HOLD;
+            };
+        }
+        variants.add(new Variant(name, thresholds, table, table.source(), actions));
+    }
+
+    // -----------------------------
+    // Book
+    // -----------------------------
+
+    /** Starting positions of the simulated holders; position {@code p} belongs to holder {@code p / positionsPerHolder}. */
+    private record Book(int holders, int positionsPerHolder, int[] symbols, int[] lots,
+                        double[] startCash, double startValue) {
+    }
+
+    private static Book book(PriceSeries series, int holders, int positionsPerHolder, double cashPercent, long seed) {
+
+        int n = holders * positionsPerHolder;
+        int[] symbols = new int[n];
+        int[] lots = new int[n];
+        double[] startCash = new double[holders];
+        double startValue = 0;
+
+        // Split off the series' stream so holders don't mirror the first symbols' draws
+        SplittableRandom random = new SplittableRandom(seed).split();
+        for (int h = 0; h < holders; h++) {
+            double positions = 0;
+            for (int k = 0; k < positionsPerHolder; k++) {
+                int p = h * positionsPerHolder + k;
+                symbols[p] = random.nextInt(series.symbols());
+                lots[p] = 1 + random.nextInt(100);
+                positions += lots[p] * series.price(0, symbols[p]);
+            }
+            startCash[h] = positions * cashPercent / 100;
+            startValue += positions + startCash[h];
+        }
+        return new Book(holders, positionsPerHolder, symbols, lots, startCash, startValue);
+    }
+
+    /** {@code workspaces}: the run's idle workspaces, at most one per worker that ran a variant. */
+    private record Settings(PriceSeries series, Book book, int rebalanceEvery, int horizon,
+                            Queue<Workspace> workspaces) {
+    }
+
+    private static double buyAndHold(Settings settings) {
+        PriceSeries series = settings.series;
+        Book book = settings.book;
+        int last = series.ticks() - 1;
+
+        double value = 0;
+        for (int h = 0; h < book.holders; h++) value += book.startCash[h];
+        for (int p = 0; p < book.symbols.length; p++) value += book.lots[p] * series.price(last, book.symbols[p]);
+        return (value / book.startValue - 1) * 100;
+    }
+
+    // -----------------------------
+    // Simulation
+    // -----------------------------
+
+    /** Buffers of one variant at a time; sized on first use within a run. */
+    private static final class Workspace {
+
+        int[] quantities = new int[0];
+        double[] avgPrices = new double[0];
+        double[] cash = new double[0];
+        double[] peaks = new double[0];
+        double[] drawdowns = new double[0];
+        byte[] signals = new byte[0];
+
+        void ensure(int positions, int holders, int symbols) {
+            if (quantities.length < positions) {
+                quantities = new int[positions];
+                avgPrices = new double[positions];
+            }
+            if (cash.length < holders) {
+                cash = new double[holders];
+                peaks = new double[holders];
+                drawdowns = new double[holders];
+            }
+            if (signals.length < symbols) {
+                signals = new byte[symbols];
+            }
+        }
+    }
+
+    /** Halves the variant range until one variant is left. */
+    private final class VariantTask extends RecursiveAction {
+
+        private final Settings settings;
+        private final List<Variant> variants;
+        private final BacktestReport.VariantResult[] results;
+        private final int lo;
+        private final int hi;
+
+        VariantTask(Settings settings, List<Variant> variants, BacktestReport.VariantResult[] results, int lo, int hi) {
+            this.settings = settings;
+            this.variants = variants;
+            this.results = results;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                Workspace w = settings.workspaces.poll();
+                if (w == null) w = new Workspace();
+                try {
+                    results[lo] = simulate(settings, variants.get(lo), w);
+                } finally {
+                    settings.workspaces.offer(w);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new VariantTask(settings, variants, results, lo, mid),
+                    new VariantTask(settings, variants, results, mid, hi)
+            );
+        }
+    }
+
+    private static BacktestReport.VariantResult simulate(Settings settings, Variant variant, Workspace w) {
+
+        PriceSeries series = settings.series;
+        Book book = settings.book;
+        DecisionTable table = variant.table;
+        SignalThresholds thresholds = variant.thresholds;
+        int[] actions = variant.actions;
+
+        int symbols = series.symbols();
+        int ticks = series.ticks();
+        int k = book.positionsPerHolder;
+        double[] prices = series.prices();
+        byte[] confidences = series.confidences();
+        int[] positionSymbols = book.symbols;
+        int[] lots = book.lots;
+
+        w.ensure(positionSymbols.length, book.holders, symbols);
+        int[] quantities = w.quantities;
+        double[] avgPrices = w.avgPrices;
+        double[] cash = w.cash;
+        double[] peaks = w.peaks;
+        double[] drawdowns = w.drawdowns;
+        byte[] signals = w.signals;
+
+        for (int h = 0; h < book.holders; h++) {
+            double value = book.startCash[h];
+            cash[h] = value;
+            for (int p = h * k, end = p + k; p < end; p++) {
+                quantities[p] = lots[p];
+                avgPrices[p] = prices[positionSymbols[p]];
+                value += lots[p] * avgPrices[p];
+            }
+            peaks[h] = value;
+            drawdowns[h] = 0;
+        }
+
+        long buys = 0;
+        long sells = 0;
+        long scored = 0;
+        long hits = 0;
+        double finalValue = 0;
+
+        for (int t = 1; t < ticks; t++) {
+
+            int base = t * symbols;
+            boolean decide = t % settings.rebalanceEvery == 0;
+            int future = t + settings.horizon < ticks ? (t + settings.horizon) * symbols : -1;
+
+            if (decide) {
+                for (int s = 0; s < symbols; s++) {
+                    signals[s] = (byte) thresholds.evaluate(series.volatility(s), confidences[base + s]).ordinal();
+                }
+            }
+
+            for (int h = 0; h < book.holders; h++) {
+
+                double holderCash = cash[h];
+                double value = 0;
+
+                for (int p = h * k, end = p + k; p < end; p++) {
+                    int s = positionSymbols[p];
+                    double price = prices[base + s];
+                    int quantity = quantities[p];
+
+                    if (decide) {
+                        double pnl = quantity > 0 ? DecisionTable.pnlPercent(avgPrices[p], price) : 0;
+                        int row = table.match(confidences[base + s], pnl, series.volatility(s), signals[s]);
+                        int action = row >= 0 ? actions[table.decisionCode(row)] : HOLD;
+
+                        if (action == BUY && holderCash >= price * lots[p]) {
+                            avgPrices[p] = (avgPrices[p] * quantity + price * lots[p]) / (quantity + lots[p]);
+                            quantity += lots[p];
+                            holderCash -= price * lots[p];
+                            buys++;
+                            if (future >= 0) {
+                                scored++;
+                                if (prices[future + s] > price) hits++;
+                            }
+                        } else if (action == SELL && quantity > 0) {
+                            holderCash += price * quantity;
+                            quantity = 0;
+                            sells++;
+                            if (future >= 0) {
+                                scored++;
+                                if (prices[future + s] < price) hits++;
+                            }
+                        }
+                        quantities[p] = quantity;
+                    }
+                    value += quantity * price;
+                }
+
+                cash[h] = holderCash;
+                value += holderCash;
+                if (value > peaks[h]) {
+                    peaks[h] = value;
+                } else if (peaks[h] > 0) {
+                    double drawdown = (peaks[h] - value) / peaks[h];
+                    if (drawdown > drawdowns[h]) drawdowns[h] = drawdown;
+                }
+                if (t == ticks - 1) finalValue += value;
+            }
+        }
+
+        double drawdownSum = 0;
+        double worstDrawdown = 0;
+        for (int h = 0; h < book.holders; h++) {
+            drawdownSum += drawdowns[h];
+            worstDrawdown = Math.max(worstDrawdown, drawdowns[h]);
+        }
+
+        return BacktestReport.VariantResult.builder()
+                .name(variant.name)
+                .dumbVolatility(thresholds.dumbVolatility())
+                .dumbConfidence(thresholds.dumbConfidence())
+                .smartVolatility(thresholds.smartVolatility())
+                .smartConfidence(thresholds.smartConfidence())
+                .rules(variant.rulesSource)
+                .returnPercent(round((finalValue / book.startValue - 1) * 100))
+                .meanMaxDrawdownPercent(round(drawdownSum * 100 / book.holders))
+                .worstDrawdownPercent(round(worstDrawdown * 100))
+                .hitRatePercent(scored > 0 ? round(hits * 100.0 / scored) : null)
+                .buys(buys)
+                .sells(sells)
+                .scoredTrades(scored)
+                .build();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.CandleSeries;
+import com.example.portfolio_management_system.model.CandleInterval;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains rolling OHLC bars for every interval in {@link CandleInterval},
+ * updated from each tick's changed rows.
+ * <p>
+ * Open bars live in primitive columns indexed like {@link MarketState}. When a
+ * tick crosses a bar boundary, every open bar of that interval is closed and
+ * appended to the interval's {@link SegmentLog} as a 32-byte record (open, high,
+ * low and close in integer cents, plus the tick count). A query reads closed
+ * bars straight from the log and appends the bar still forming, so no
+ * window is ever rebuilt from raw ticks. A bar exists only for intervals in
+ * which the symbol ticked; open bars are not persisted across restarts.
+ */
+@Service
+public class CandleService implements MarketTickListener {
+
+    private static final int PAYLOAD_BYTES = 20;
+    private static final int P_OPEN = 0;
+    private static final int P_HIGH = 4;
+    private static final int P_LOW = 8;
+    private static final int P_CLOSE = 12;
+    private static final int P_TICKS = 16;
+
+    // A segment spans at most 20 days of bars (record time offsets are ints)
+    private static final long MAX_SEGMENT_MILLIS = TimeUnit.DAYS.toMillis(20);
+
+    private final MarketState marketState;
+    private final int maxPoints;
+    private final Map<CandleInterval, Bars> bars = new EnumMap<>(CandleInterval.class);
+
+    public CandleService(MarketState marketState,
+                         @Value("${market.data-dir:data}") String dataDir,
+                         @Value("${market.candles.segment-mb:64}") long segmentMb,
+                         @Value("${market.candles.retention-days.1m:7}") long retention1m,
+                         @Value("${market.candles.retention-days.5m:30}") long retention5m,
+                         @Value("${market.candles.retention-days.1h:365}") long retention1h,
+                         @Value("${market.candles.retention-days.1d:0}") long retention1d,
+                         @Value("${market.candles.max-points:5000}") int maxPoints) {
+        this.marketState = marketState;
+        this.maxPoints = maxPoints;
+
+        long[] retentionDays = {retention1m, retention5m, retention1h, retention1d};
+        for (CandleInterval interval : CandleInterval.values()) {
+            SegmentLog log = new SegmentLog(
+                    Path.of(dataDir, "candles", interval.label()),
+                    PAYLOAD_BYTES,
+                    Math.min(MAX_SEGMENT_MILLIS, interval.millis() * 1440),
+                    segmentMb << 20,
+                    TimeUnit.DAYS.toMillis(retentionDays[interval.ordinal()])
+            );
+            bars.put(interval, new Bars(interval, log));
+        }
+    }
+
+    @Override
+    public void onTick(MarketTick tick) {
+        for (Bars b : bars.values()) {
+            b.apply(tick);
+        }
+    }
+
+    /**
+     * @return the symbol's bars starting in {@code [from, to]}, oldest first, including
+     *         the bar still forming; null if the symbol is unknown
+     */
+    public CandleSeries candles(String symbol, CandleInterval interval, long from, long to) {
+
+        int i = marketState.indexOf(symbol);
+        if (i < 0) return null;
+
+        return bars.get(interval).query(symbol, i, from, to);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Bars b : bars.values()) {
+            b.log.close();
+        }
+    }
+
+    /** Open bars and closed-bar log of one interval. Written by the tick thread only. */
+    private final class Bars {
+
+        private static final long NO_BAR = Long.MIN_VALUE;
+
+        final CandleInterval interval;
+        final SegmentLog log;
+
+        // Bar start of the open bars (all open bars share it)
+        long current = NO_BAR;
+
+        // Per-symbol columns, indexed like MarketState
+        long[] barStart = new long[0];
+        double[] open = new double[0];
+        double[] high = new double[0];
+        double[] low = new double[0];
+        double[] close = new double[0];
+        int[] ticks = new int[0];
+        int[] logIds = new int[0];
+
+        // Symbols with an open bar
+        int[] openRows = new int[0];
+        int openCount;
+
+        // Reused close buffer
+        int[] closeIds = new int[0];
+        int[] closeRows = new int[0];
+
+        Bars(CandleInterval interval, SegmentLog log) {
+            this.interval = interval;
+            this.log = log;
+        }
+
+        void apply(MarketTick tick) {
+
+            long start = interval.barStart(tick.timestamp());
+            if (start != current) {
+                closeAll();
+                current = start;
+            }
+
+            for (int i : tick.changed()) {
+                update(i, marketState.price(i), start);
+            }
+        }
+
+        private void update(int i, double price, long start) {
+
+            if (i >= barStart.length) grow(Math.max(i + 1, marketState.size()));
+
+            if (barStart[i] != start) {
+                // Continue from the previous bar's close so consecutive bars join up
+                double first = Double.isNaN(close[i]) ? price : close[i];
+                barStart[i] = start;
+                open[i] = first;
+                high[i] = Math.max(first, price);
+                low[i] = Math.min(first, price);
+                close[i] = price;
+                ticks[i] = 1;
+                openRows[openCount++] = i;
+                return;
+            }
+
+            if (price > high[i]) high[i] = price;
+            if (price < low[i]) low[i] = price;
+            close[i] = price;
+            ticks[i]++;
+        }
+
+        private void closeAll() {
+
+            int n = openCount;
+            if (n == 0) return;
+
+            if (closeIds.length < n) {
+                closeIds = new int[n];
+                closeRows = new int[n];
+            }
+            for (int k = 0; k < n; k++) {
+                int i = openRows[k];
+                if (logIds[i] < 0) logIds[i] = log.symbolId(marketState.symbol(i));
+                closeIds[k] = logIds[i];
+                closeRows[k] = i;
+            }
+
+            int[] rows = closeRows;
+            log.append(current, n, closeIds, (b, offset, k) -> {
+                int i = rows[k];
+                b.putInt(offset + P_OPEN, cents(open[i]));
+                b.putInt(offset + P_HIGH, cents(high[i]));
+                b.putInt(offset + P_LOW, cents(low[i]));
+                b.putInt(offset + P_CLOSE, cents(close[i]));
+                b.putInt(offset + P_TICKS, ticks[i]);
+            });
+
+            for (int k = 0; k < n; k++) {
+                barStart[openRows[k]] = NO_BAR;
+            }
+            openCount = 0;
+        }
+
+        private void grow(int capacity) {
+            int old = barStart.length;
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            ticks = Arrays.copyOf(ticks, capacity);
+            logIds = Arrays.copyOf(logIds, capacity);
+            openRows = Arrays.copyOf(openRows, capacity);
+            Arrays.fill(close, old, capacity, Double.NaN);
+            Arrays.fill(logIds, old, capacity, -1);
+
+            // Last, so a reader that sees the longer barStart also finds the other columns grown
+            long[] starts = Arrays.copyOf(barStart, capacity);
+            Arrays.fill(starts, old, capacity, NO_BAR);
+            barStart = starts;
+        }
+
+        CandleSeries query(String symbol, int i, long from, long to) {
+
+            Series series = new Series(Math.min(maxPoints, 1024));
+
+            // Bar still forming (read racily, like any MarketState row)
+            long forming = i < barStart.length ? barStart[i] : NO_BAR;
+            boolean partial = forming != NO_BAR && forming >= from && forming <= to;
+            if (partial) {
+                series.add(forming, open[i], high[i], low[i], close[i], ticks[i]);
+            }
+
+            int id = log.findSymbol(symbol);
+            // One bar past the cap, newest first: if it exists, older bars were left out
+            log.scan(id, from, to, maxPoints - series.size + 1, (b, offset, timestamp) ->
+                    series.add(timestamp,
+                            b.getInt(offset + P_OPEN) / 100.0,
+                            b.getInt(offset + P_HIGH) / 100.0,
+                            b.getInt(offset + P_LOW) / 100.0,
+                            b.getInt(offset + P_CLOSE) / 100.0,
+                            b.getInt(offset + P_TICKS)));
+            boolean truncated = series.size > maxPoints;
+            if (truncated) series.size = maxPoints;
+
+            series.reverse();
+
+            return CandleSeries.builder()
+                    .symbol(symbol)
+                    .interval(interval.label())
+                    .from(from)
+                    .to(to)
+                    .lastBarPartial(partial)
+                    .truncated(truncated)
+                    .time(Arrays.copyOf(series.time, series.size))
+                    .open(Arrays.copyOf(series.open, series.size))
+                    .high(Arrays.copyOf(series.high, series.size))
+                    .low(Arrays.copyOf(series.low, series.size))
+                    .close(Arrays.copyOf(series.close, series.size))
+                    .ticks(Arrays.copyOf(series.ticks, series.size))
+                    .build();
+        }
+    }
+
+    private static int cents(double price) {
+        return (int) Math.round(price * 100.0);
+    }
+
+    /** Growable columns, filled newest first. */
+    private static final class Series {
+
+        long[] time;
+        double[] open, high, low, close;
+        int[] ticks;
+        int size;
+
+        Series(int capacity) {
+            time = new long[capacity];
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            ticks = new int[capacity];
+        }
+
+        void add(long t, double o, double h, double l, double c, int n) {
+            if (size == time.length) {
+                int capacity = Math.max(16, size * 2);
+                time = Arrays.copyOf(time, capacity);
+                open = Arrays.copyOf(open, capacity);
+                high = Arrays.copyOf(high, capacity);
+                low = Arrays.copyOf(low, capacity);
+                close = Arrays.copyOf(close, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            time[size] = t;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            ticks[size] = n;
+            size++;
+        }
+
+        void reverse() {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                long t = time[i]; time[i] = time[j]; time[j] = t;
+                double d = open[i]; open[i] = open[j]; open[j] = d;
+                d = high[i]; high[i] = high[j]; high[j] = d;
+                d = low[i]; low[i] = low[j]; low[j] = d;
+                d = close[i]; close[i] = close[j]; close[j] = d;
+                int n = ticks[i]; ticks[i] = ticks[j]; ticks[j] = n;
+            }
+        }
+    }
+}
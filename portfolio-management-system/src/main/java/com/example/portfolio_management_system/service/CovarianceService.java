@@ -0,0 +1,305 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.PairCorrelation;
+import com.example.portfolio_management_system.dto.PortfolioCorrelation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running covariance of per-tick log returns across the market, updated
+ * incrementally from every tick (Welford's online algorithm), so the
+ * O(n²) matrix is never rebuilt from history.
+ * <p>
+ * Means live in a primitive column and the co-moment sums in a packed upper
+ * triangle ({@code n(n+1)/2} doubles, diagonal included). A tick costs one
+ * pass over the triangle. Only the first {@code risk.covariance.max-symbols}
+ * rows of {@link MarketState} are tracked, which bounds both memory and the
+ * per-tick cost. Statistics start afresh on every restart.
+ */
+@Service
+@Order(50)
+public class CovarianceService implements MarketTickListener {
+
+    private final MarketState marketState;
+    private final PortfolioAggregateService aggregateService;
+
+    private final int maxSymbols;
+    private final long minObservations;
+    private final double clusterThreshold;
+
+    // 8192 symbols already take 256 MB of co-moments; the packed int index overflows past ~46k
+    private static final int MAX_TRACKED = 8192;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Tracked rows [0, n); allocated on the first tick
+    private int n = -1;
+    private long observations;
+    private double[] lastPrices;
+    private double[] means;
+    private double[] comoments;
+    private int[] rowStart;
+
+    // Per-tick scratch (tick thread only)
+    private double[] before;
+    private double[] after;
+
+    public CovarianceService(MarketState marketState,
+                             PortfolioAggregateService aggregateService,
+                             @Value("${risk.covariance.max-symbols:1000}") int maxSymbols,
+                             @Value("${risk.covariance.min-observations:30}") long minObservations,
+                             @Value("${risk.covariance.cluster-threshold:0.7}") double clusterThreshold) {
+        this.marketState = marketState;
+        this.aggregateService = aggregateService;
+        this.maxSymbols = Math.min(maxSymbols, MAX_TRACKED);
+        this.minObservations = Math.max(2, minObservations);
+        this.clusterThreshold = clusterThreshold;
+    }
+
+    @Override
+    public void onTick(MarketTick tick) {
+        lock.lock();
+        try {
+            if (n < 0) {
+                start();
+                return;
+            }
+            update();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** First tick: remember the prices that the next tick's returns are measured from. */
+    private void start() {
+
+        n = Math.min(maxSymbols, marketState.size());
+        lastPrices = new double[n];
+        means = new double[n];
+        comoments = new double[n * (n + 1) / 2];
+        rowStart = new int[n];
+        before = new double[n];
+        after = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            lastPrices[i] = marketState.price(i);
+            rowStart[i] = i * n - i * (i - 1) / 2;
+        }
+        System.out.println("🔗 Covariance tracking " + n + " symbols (" + comoments.length + " pairs)");
+    }
+
+    /** C += (r - mean_old) ⊗ (r - mean_new), over the upper triangle only. */
+    private void update() {
+
+        observations++;
+        double inv = 1.0 / observations;
+
+        for (int i = 0; i < n; i++) {
+            double price = marketState.price(i);
+            double last = lastPrices[i];
+            double r = last > 0 && price > 0 ? Math.log(price / last) : 0.0;
+            lastPrices[i] = price;
+
+            double delta = r - means[i];
+            means[i] += delta * inv;
+            before[i] = delta;
+            after[i] = r - means[i];
+        }
+
+        double[] c = comoments;
+        for (int i = 0; i < n; i++) {
+            double a = before[i];
+            if (a == 0) continue;
+            int k = rowStart[i] - i;
+            for (int j = i; j < n; j++) {
+                c[k + j] += a * after[j];
+            }
+        }
+    }
+
+    /** Packed index of the pair; requires {@code i <= j}. */
+    private int index(int i, int j) {
+        return rowStart[i] + (j - i);
+    }
+
+    /** Sample covariance of two tracked rows; caller holds the lock. */
+    private double covariance(int i, int j) {
+        return i <= j
+                ? comoments[index(i, j)] / (observations - 1)
+                : comoments[index(j, i)] / (observations - 1);
+    }
+
+    private double correlation(int i, int j) {
+        double denominator = Math.sqrt(covariance(i, i) * covariance(j, j));
+        return denominator > 0 ? covariance(i, j) / denominator : 0.0;
+    }
+
+    private boolean tracked(int i) {
+        return i >= 0 && i < n;
+    }
+
+    /** @return the pair's statistics, or null if either symbol is unknown */
+    public PairCorrelation pair(String a, String b) {
+
+        int i = marketState.indexOf(a);
+        int j = marketState.indexOf(b);
+        if (i < 0 || j < 0) return null;
+
+        lock.lock();
+        try {
+            boolean ready = tracked(i) && tracked(j) && observations >= minObservations;
+            return PairCorrelation.builder()
+                    .symbolA(marketState.symbol(i))
+                    .symbolB(marketState.symbol(j))
+                    .observations(observations)
+                    .covariance(ready ? covariance(i, j) : null)
+                    .correlation(ready ? round(correlation(i, j)) : null)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the holder's correlation view, or null if the holder is not tracked */
+    public PortfolioCorrelation portfolio(Long holderId) {
+
+        HolderAggregate aggregate = aggregateService.get(holderId);
+        if (aggregate == null) return null;
+
+        HolderAggregate.Positions positions = aggregate.positions();
+        int[] symbols = positions.symbols();
+        double[] values = new double[symbols.length];
+        for (int p = 0; p < symbols.length; p++) {
+            values[p] = marketState.price(symbols[p]) * positions.quantities()[p];
+        }
+        return analyze(holderId, symbols, values);
+    }
+
+    /**
+     * Portfolio variance {@code wᵀΣw} and the effective number of bets of the given
+     * positions (holdings of the same symbol may repeat).
+     * <p>
+     * Positions whose returns correlate above {@code risk.covariance.cluster-threshold}
+     * are joined into one cluster (single linkage); the effective number of bets is
+     * {@code 1 / Σ w²} over cluster weights. Untracked symbols count as their own cluster
+     * and are left out of the variance.
+     */
+    public PortfolioCorrelation analyze(Long holderId, int[] symbols, double[] values) {
+
+        // Merge repeated symbols
+        Map<Integer, Double> bySymbol = new LinkedHashMap<>();
+        for (int p = 0; p < symbols.length; p++) {
+            bySymbol.merge(symbols[p], values[p], Double::sum);
+        }
+        int k = bySymbol.size();
+        int[] rows = new int[k];
+        double[] weights = new double[k];
+        double total = 0;
+        int q = 0;
+        for (Map.Entry<Integer, Double> e : bySymbol.entrySet()) {
+            rows[q] = e.getKey();
+            weights[q] = e.getValue();
+            total += e.getValue();
+            q++;
+        }
+        if (total > 0) {
+            for (int p = 0; p < k; p++) weights[p] /= total;
+        }
+
+        lock.lock();
+        try {
+            PortfolioCorrelation.PortfolioCorrelationBuilder result = PortfolioCorrelation.builder()
+                    .holderId(holderId)
+                    .observations(observations)
+                    .positions(k);
+
+            int trackedCount = 0;
+            double coverage = 0;
+            for (int p = 0; p < k; p++) {
+                if (tracked(rows[p])) {
+                    trackedCount++;
+                    coverage += weights[p];
+                }
+            }
+            result.trackedPositions(trackedCount).coverage(round(coverage));
+
+            if (observations < minObservations || k == 0) {
+                return result.build();
+            }
+
+            double variance = 0;
+            for (int a = 0; a < k; a++) {
+                if (!tracked(rows[a])) continue;
+                for (int b = a; b < k; b++) {
+                    if (!tracked(rows[b])) continue;
+                    double term = weights[a] * weights[b] * covariance(rows[a], rows[b]);
+                    variance += a == b ? term : 2 * term;
+                }
+            }
+
+            // Single-linkage clusters by union-find
+            int[] parent = new int[k];
+            for (int p = 0; p < k; p++) parent[p] = p;
+            for (int a = 0; a < k; a++) {
+                if (!tracked(rows[a])) continue;
+                for (int b = a + 1; b < k; b++) {
+                    if (tracked(rows[b]) && correlation(rows[a], rows[b]) > clusterThreshold) {
+                        parent[find(parent, a)] = find(parent, b);
+                    }
+                }
+            }
+
+            double[] clusterWeights = new double[k];
+            Map<Integer, List<String>> clusters = new LinkedHashMap<>();
+            for (int p = 0; p < k; p++) {
+                int root = find(parent, p);
+                clusterWeights[root] += weights[p];
+                clusters.computeIfAbsent(root, r -> new ArrayList<>()).add(marketState.symbol(rows[p]));
+            }
+            double herfindahl = 0;
+            for (double w : clusterWeights) herfindahl += w * w;
+
+            List<List<String>> correlated = new ArrayList<>();
+            for (List<String> cluster : clusters.values()) {
+                if (cluster.size() > 1) correlated.add(cluster);
+            }
+
+            return result
+                    .volatilityPercent(round(Math.sqrt(Math.max(0, variance)) * 100))
+                    .effectiveBets(herfindahl > 0 ? round(1 / herfindahl) : null)
+                    .correlatedClusters(correlated)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int find(int[] parent, int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000.0) / 10000.0;
+    }
+
+    /** Number of ticks observed so far. */
+    public long observations() {
+        lock.lock();
+        try {
+            return observations;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
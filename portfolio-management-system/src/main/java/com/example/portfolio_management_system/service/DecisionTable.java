@@ -0,0 +1,358 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * First-match decision table over confidence, P&amp;L %, volatility and the
+ * dumb-money signal, compiled from CSV into flat primitive columns.
+ * <p>
+ * The header names the columns ({@code confidence, pnlPercent, volatility, signal,
+ * decision, reason}); only {@code decision} is required. A numeric cell is blank or
+ * {@code *} (any value) or one or more bounds joined by spaces, e.g. {@code >=75} or
+ * {@code >=0.2 <0.3}. A signal cell lists {@link DumbMoneySignal} names joined by
+ * {@code |}. Lines starting with {@code #} are comments.
+ * <p>
+ * Each row compiles to inclusive {@code [lo, hi]} bounds, a wildcard mask and a
+ * signal bitmask, so matching a row is a handful of comparisons combined without
+ * short-circuiting. Instances are immutable; evaluation allocates nothing.
+ */
+public final class DecisionTable {
+
+    /** Returned when no row matches. */
+    public static final int NO_MATCH = -1;
+
+    private static final int ANY_CONFIDENCE = 1;
+    private static final int ANY_PNL = 2;
+    private static final int ANY_VOLATILITY = 4;
+    private static final int ALL_SIGNALS = (1 << DumbMoneySignal.values().length) - 1;
+
+    private static final List<String> COLUMNS =
+            List.of("confidence", "pnlpercent", "volatility", "signal", "decision", "reason");
+
+    private final String source;
+    private final int rows;
+
+    // Row columns
+    private final double[] confidenceLo;
+    private final double[] confidenceHi;
+    private final double[] pnlLo;
+    private final double[] pnlHi;
+    private final double[] volatilityLo;
+    private final double[] volatilityHi;
+    private final int[] wildcards;
+    private final int[] signalMasks;
+    private final int[] decisionCodes;
+    private final String[] reasons;
+
+    // Distinct decisions in order of first appearance
+    private final String[] decisions;
+
+    private DecisionTable(String source, List<Row> parsed) {
+
+        this.source = source;
+        this.rows = parsed.size();
+
+        confidenceLo = new double[rows];
+        confidenceHi = new double[rows];
+        pnlLo = new double[rows];
+        pnlHi = new double[rows];
+        volatilityLo = new double[rows];
+        volatilityHi = new double[rows];
+        wildcards = new int[rows];
+        signalMasks = new int[rows];
+        decisionCodes = new int[rows];
+        reasons = new String[rows];
+
+        List<String> distinct = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            Row row = parsed.get(r);
+            confidenceLo[r] = row.confidence.lo;
+            confidenceHi[r] = row.confidence.hi;
+            pnlLo[r] = row.pnl.lo;
+            pnlHi[r] = row.pnl.hi;
+            volatilityLo[r] = row.volatility.lo;
+            volatilityHi[r] = row.volatility.hi;
+            wildcards[r] = (row.confidence.any ? ANY_CONFIDENCE : 0)
+                    | (row.pnl.any ? ANY_PNL : 0)
+                    | (row.volatility.any ? ANY_VOLATILITY : 0);
+            signalMasks[r] = row.signals;
+
+            int code = distinct.indexOf(row.decision);
+            if (code < 0) {
+                code = distinct.size();
+                distinct.add(row.decision);
+            }
+            decisionCodes[r] = code;
+            reasons[r] = row.reason;
+        }
+        decisions = distinct.toArray(String[]::new);
+    }
+
+    // ----------------------------
+    // Evaluation
+    // ----------------------------
+
+    /** @return the index of the first matching row, or {@link #NO_MATCH} */
+    public int match(double confidence, double pnlPercent, double volatility, int signalCode) {
+
+        int signalBit = 1 << signalCode;
+
+        for (int r = 0; r < rows; r++) {
+            int wild = wildcards[r];
+            boolean hit = ((wild & ANY_CONFIDENCE) != 0 | (confidence >= confidenceLo[r] & confidence <= confidenceHi[r]))
+                    & ((wild & ANY_PNL) != 0 | (pnlPercent >= pnlLo[r] & pnlPercent <= pnlHi[r]))
+                    & ((wild & ANY_VOLATILITY) != 0 | (volatility >= volatilityLo[r] & volatility <= volatilityHi[r]))
+                    & (signalMasks[r] & signalBit) != 0;
+            if (hit) return r;
+        }
+        return NO_MATCH;
+    }
+
+    /** Matches positions {@code [0, in.size())}, writing row indexes into {@code out}. */
+    public void matchAll(Inputs in, int[] out) {
+        double[] confidence = in.confidence;
+        double[] pnl = in.pnlPercent;
+        double[] volatility = in.volatility;
+        byte[] signal = in.signal;
+        for (int p = 0, n = in.size; p < n; p++) {
+            out[p] = match(confidence[p], pnl[p], volatility[p], signal[p]);
+        }
+    }
+
+    /** Adds one to {@code counts[decisionCode]} per matched position; unmatched positions are skipped. */
+    public void countDecisions(Inputs in, long[] counts) {
+        double[] confidence = in.confidence;
+        double[] pnl = in.pnlPercent;
+        double[] volatility = in.volatility;
+        byte[] signal = in.signal;
+        for (int p = 0, n = in.size; p < n; p++) {
+            int r = match(confidence[p], pnl[p], volatility[p], signal[p]);
+            if (r >= 0) counts[decisionCodes[r]]++;
+        }
+    }
+
+    public int rows() { return rows; }
+    public String source() { return source; }
+    public String decision(int row) { return decisions[decisionCodes[row]]; }
+    public int decisionCode(int row) { return decisionCodes[row]; }
+    public String reason(int row) { return reasons[row]; }
+
+    /** Distinct decisions, indexed by decision code. */
+    public List<String> decisions() {
+        return List.of(decisions);
+    }
+
+    /** P&amp;L in percent of the buy price, as the table expects it. */
+    public static double pnlPercent(double buyPrice, double currentPrice) {
+        return ((currentPrice - buyPrice) / buyPrice) * 100;
+    }
+
+    /**
+     * Reusable input columns for bulk evaluation. Filling up to the current
+     * capacity allocates nothing.
+     */
+    public static final class Inputs {
+
+        private double[] confidence;
+        private double[] pnlPercent;
+        private double[] volatility;
+        private byte[] signal;
+        private int size;
+
+        public Inputs(int capacity) {
+            confidence = new double[capacity];
+            pnlPercent = new double[capacity];
+            volatility = new double[capacity];
+            signal = new byte[capacity];
+        }
+
+        public void add(double confidence, double pnlPercent, double volatility, byte signalCode) {
+            if (size == signal.length) {
+                int capacity = Math.max(16, size * 2);
+                this.confidence = Arrays.copyOf(this.confidence, capacity);
+                this.pnlPercent = Arrays.copyOf(this.pnlPercent, capacity);
+                this.volatility = Arrays.copyOf(this.volatility, capacity);
+                this.signal = Arrays.copyOf(this.signal, capacity);
+            }
+            this.confidence[size] = confidence;
+            this.pnlPercent[size] = pnlPercent;
+            this.volatility[size] = volatility;
+            this.signal[size] = signalCode;
+            size++;
+        }
+
+        public int size() { return size; }
+        public int capacity() { return signal.length; }
+        public void clear() { size = 0; }
+    }
+
+    // ----------------------------
+    // Parsing
+    // ----------------------------
+
+    /**
+     * Parses and compiles a table.
+     *
+     * @param source shown in error messages
+     * @throws IllegalArgumentException naming the offending line
+     */
+    public static DecisionTable parse(String source, List<String> lines) {
+
+        int[] columnOf = null;
+        List<Row> rows = new ArrayList<>();
+
+        for (int lineNo = 1; lineNo <= lines.size(); lineNo++) {
+            String line = lines.get(lineNo - 1).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            List<String> cells;
+            try {
+                cells = splitCsv(line);
+            } catch (IllegalArgumentException e) {
+                throw error(source, lineNo, e.getMessage());
+            }
+
+            if (columnOf == null) {
+                columnOf = header(source, lineNo, cells);
+                continue;
+            }
+
+            try {
+                rows.add(new Row(
+                        range(cell(cells, columnOf[0])),
+                        range(cell(cells, columnOf[1])),
+                        range(cell(cells, columnOf[2])),
+                        signals(cell(cells, columnOf[3])),
+                        decision(cell(cells, columnOf[4])),
+                        cell(cells, columnOf[5])));
+            } catch (IllegalArgumentException e) {
+                throw error(source, lineNo, e.getMessage());
+            }
+        }
+
+        if (columnOf == null) throw new IllegalArgumentException(source + ": missing header line");
+        if (rows.isEmpty()) throw new IllegalArgumentException(source + ": no rules");
+        return new DecisionTable(source, rows);
+    }
+
+    /** Header cells to their index per known column (-1 = absent). */
+    private static int[] header(String source, int lineNo, List<String> cells) {
+        int[] columnOf = new int[COLUMNS.size()];
+        Arrays.fill(columnOf, -1);
+        for (int c = 0; c < cells.size(); c++) {
+            String name = cells.get(c).strip().toLowerCase(Locale.ROOT);
+            int known = COLUMNS.indexOf(name);
+            if (known < 0) throw error(source, lineNo, "unknown column '" + cells.get(c) + "'");
+            if (columnOf[known] >= 0) throw error(source, lineNo, "duplicate column '" + cells.get(c) + "'");
+            columnOf[known] = c;
+        }
+        if (columnOf[4] < 0) throw error(source, lineNo, "missing 'decision' column");
+        return columnOf;
+    }
+
+    private static String cell(List<String> cells, int column) {
+        return column >= 0 && column < cells.size() ? cells.get(column).strip() : "";
+    }
+
+    private static Range range(String cell) {
+
+        if (cell.isEmpty() || cell.equals("*")) return Range.ANY;
+
+        double lo = Double.NEGATIVE_INFINITY;
+        double hi = Double.POSITIVE_INFINITY;
+
+        for (String bound : cell.split("\\s+")) {
+            if (bound.startsWith(">=")) lo = Math.max(lo, number(bound.substring(2)));
+            else if (bound.startsWith("<=")) hi = Math.min(hi, number(bound.substring(2)));
+            else if (bound.startsWith(">")) lo = Math.max(lo, Math.nextUp(number(bound.substring(1))));
+            else if (bound.startsWith("<")) hi = Math.min(hi, Math.nextDown(number(bound.substring(1))));
+            else if (bound.startsWith("=")) {
+                double value = number(bound.substring(1));
+                lo = Math.max(lo, value);
+                hi = Math.min(hi, value);
+            } else {
+                throw new IllegalArgumentException("bad condition '" + bound + "' (use <, <=, >, >=, =)");
+            }
+        }
+        if (lo > hi) throw new IllegalArgumentException("condition '" + cell + "' matches nothing");
+        return new Range(false, lo, hi);
+    }
+
+    private static double number(String text) {
+        try {
+            double value = Double.parseDouble(text.strip());
+            if (Double.isNaN(value)) throw new NumberFormatException();
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number '" + text + "'");
+        }
+    }
+
+    private static int signals(String cell) {
+
+        if (cell.isEmpty() || cell.equals("*")) return ALL_SIGNALS;
+
+        int mask = 0;
+        for (String name : cell.split("\\|")) {
+            try {
+                mask |= 1 << DumbMoneySignal.valueOf(name.strip().toUpperCase(Locale.ROOT)).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown signal '" + name.strip() + "'");
+            }
+        }
+        return mask;
+    }
+
+    private static String decision(String cell) {
+        if (cell.isEmpty()) throw new IllegalArgumentException("missing decision");
+        return cell.toUpperCase(Locale.ROOT);
+    }
+
+    /** Splits one CSV line; double quotes enclose commas, {@code ""} is a literal quote. */
+    private static List<String> splitCsv(String line) {
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quote");
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static IllegalArgumentException error(String source, int lineNo, String message) {
+        return new IllegalArgumentException(source + " line " + lineNo + ": " + message);
+    }
+
+    private record Range(boolean any, double lo, double hi) {
+        static final Range ANY = new Range(true, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    private record Row(Range confidence, Range pnl, Range volatility, int signals, String decision, String reason) {
+    }
+}
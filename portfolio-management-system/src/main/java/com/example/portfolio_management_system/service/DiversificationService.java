@@ -1,6 +1,7 @@
 package com.example.portfolio_management_system.service;
 
 import com.example.portfolio_management_system.dto.DiversificationRecommendation;
+import com.example.portfolio_management_system.dto.PortfolioCorrelation;
 import com.example.portfolio_management_system.model.Holding;
 import com.example.portfolio_management_system.repository.HoldingRepository;
 import org.springframework.stereotype.Service;
@@ -11,22 +12,38 @@ import java.util.*;
 public class DiversificationService {
 
     private final HoldingRepository holdingRepository;
+    private final MarketState marketState;
+    private final CovarianceService covarianceService;
 
-    public DiversificationService(HoldingRepository holdingRepository) {
+    public DiversificationService(HoldingRepository holdingRepository,
+                                  MarketState marketState,
+                                  CovarianceService covarianceService) {
         this.holdingRepository = holdingRepository;
+        this.marketState = marketState;
+        this.covarianceService = covarianceService;
     }
 
     public List<DiversificationRecommendation> analyzeDiversification(Long holderId) {
 
-        List<Holding> holdings = holdingRepository.findByHolderId(holderId);
+        List<Holding> holdings = holdingRepository.findWithStockByHolderId(holderId);
 
         Map<String, Double> sectorExposure = new HashMap<>();
         double totalValue = 0;
 
+        int[] symbols = new int[holdings.size()];
+        double[] values = new double[holdings.size()];
+        int positions = 0;
+
         for (Holding h : holdings) {
-            double value = h.getQuantity() * h.getStock().getCurrentPrice();
+            double value = h.getQuantity() * marketState.livePrice(h.getStock());
             totalValue += value;
 
+            int symbol = marketState.indexOf(h.getStock().getSymbol());
+            if (symbol >= 0) {
+                symbols[positions] = symbol;
+                values[positions++] = value;
+            }
+
             sectorExposure.merge(
                     h.getStock().getSector(),
                     value,
@@ -59,6 +76,26 @@ public class DiversificationService {
             }
         }
 
+        // ✅ Correlation check: positions that move together count as one bet, whatever their sector
+        PortfolioCorrelation correlation = covarianceService.analyze(holderId,
+                Arrays.copyOf(symbols, positions), Arrays.copyOf(values, positions));
+        Double effectiveBets = correlation.getEffectiveBets();
+
+        if (effectiveBets != null && correlation.getPositions() >= 4
+                && effectiveBets < correlation.getPositions() / 2.0) {
+            recommendations.add(
+                    DiversificationRecommendation.builder()
+                            .message(correlation.getPositions() + " holdings behave like "
+                                    + Math.round(effectiveBets * 10) / 10.0 + " independent bets")
+                            .severity(effectiveBets < 2 ? "HIGH" : "MEDIUM")
+                            .suggestedSector(correlation.getCorrelatedClusters().isEmpty()
+                                    ? "Spread value more evenly across holdings"
+                                    : "Add stocks with low correlation to "
+                                            + String.join(", ", correlation.getCorrelatedClusters().get(0)))
+                            .build()
+            );
+        }
+
         if (recommendations.isEmpty()) {
             recommendations.add(
                     DiversificationRecommendation.builder()
@@ -1,48 +1,180 @@
 package com.example.portfolio_management_system.service;
 
+import com.example.portfolio_management_system.dto.CompactHeatmap;
+import com.example.portfolio_management_system.dto.DumbMoneyStock;
+import com.example.portfolio_management_system.dto.HeatmapSnapshot;
 import com.example.portfolio_management_system.model.DumbMoneySignal;
 import com.example.portfolio_management_system.model.Stock;
-import com.example.portfolio_management_system.repository.StockRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
-public class DumbMoneyService {
+public class DumbMoneyService implements MarketTickListener {
 
-    private final StockRepository stockRepository;
+    private static final List<String> SIGNAL_NAMES =
+            Arrays.stream(DumbMoneySignal.values()).map(Enum::name).toList();
 
-    public DumbMoneyService(StockRepository stockRepository) {
-        this.stockRepository = stockRepository;
+    private final MarketState marketState;
+
+    // 🔥 Rebuilt once per tick, served as-is to every request
+    private volatile HeatmapSnapshot heatmap;
+    private volatile CompactHeatmap compactHeatmap;
+    private volatile boolean heatmapComplete;
+    private final ReentrantLock heatmapLock = new ReentrantLock();
+
+    public DumbMoneyService(MarketState marketState) {
+        this.marketState = marketState;
     }
 
     // 🔥 FIXED: returns ENUM
     public DumbMoneySignal evaluate(Stock stock) {
+        return evaluate(stock.getVolatility(), stock.getConfidenceScore());
+    }
 
-        double volatility = stock.getVolatility();
-        int confidence = stock.getConfidenceScore();
+    public DumbMoneySignal evaluate(MarketState state, int i) {
+        return evaluate(state.volatility(i), state.confidence(i));
+    }
 
-        if (volatility > 0.35 && confidence < 70) {
-            return DumbMoneySignal.DUMB_MONEY;
-        }
+    public DumbMoneySignal evaluate(double volatility, int confidence) {
+        return SignalThresholds.DEFAULT.evaluate(volatility, confidence);
+    }
+
+    // -----------------------------
+    // 🔥 Heatmap
+    // -----------------------------
+
+    @Override
+    public void onTick(MarketTick tick) {
+        rebuildHeatmap(tick.version(), tick.timestamp());
+    }
+
+    public HeatmapSnapshot generateHeatmap() {
+        ensureHeatmap();
+        return heatmap;
+    }
+
+    /** Heatmap restricted to one sector (empty if the sector is unknown). */
+    public HeatmapSnapshot generateHeatmap(String sector) {
+        HeatmapSnapshot snapshot = generateHeatmap();
+        List<DumbMoneyStock> cells = snapshot.getSectors().get(sector);
+
+        return HeatmapSnapshot.builder()
+                .version(snapshot.getVersion())
+                .timestamp(snapshot.getTimestamp())
+                .sectors(cells != null ? Map.of(sector, cells) : Map.of())
+                .build();
+    }
+
+    public CompactHeatmap generateCompactHeatmap(String sector) {
+        ensureHeatmap();
+        CompactHeatmap compact = compactHeatmap;
+        if (sector == null) return compact;
+
+        return CompactHeatmap.builder()
+                .version(compact.getVersion())
+                .timestamp(compact.getTimestamp())
+                .signals(compact.getSignals())
+                .sectors(compact.getSectors().stream()
+                        .filter(s -> s.getSector().equals(sector))
+                        .toList())
+                .build();
+    }
 
-        if (volatility < 0.25 && confidence > 85) {
-            return DumbMoneySignal.SMART_MONEY;
+    // Before the first tick there is no snapshot (or only one built before the market loaded)
+    private void ensureHeatmap() {
+        if (!heatmapComplete) {
+            heatmapLock.lock();
+            try {
+                if (!heatmapComplete) {
+                    buildHeatmap(marketState.version(), System.currentTimeMillis());
+                }
+            } finally {
+                heatmapLock.unlock();
+            }
         }
+    }
 
-        return DumbMoneySignal.NEUTRAL;
+    private void rebuildHeatmap(long version, long timestamp) {
+        heatmapLock.lock();
+        try {
+            buildHeatmap(version, timestamp);
+        } finally {
+            heatmapLock.unlock();
+        }
     }
 
-    // 🔥 Heatmap
-    public List<DumbMoneySignal> generateHeatmap() {
+    private void buildHeatmap(long version, long timestamp) {
+
+        boolean complete = marketState.isLoaded();
 
-        List<DumbMoneySignal> heatmap = new ArrayList<>();
+        int n = marketState.size();
+        int sectorCount = marketState.sectorCount();
 
-        for (Stock stock : stockRepository.findAll()) {
-            heatmap.add(evaluate(stock));
+        // Group row indices by sector
+        int[] perSector = new int[sectorCount];
+        for (int i = 0; i < n; i++) perSector[marketState.sectorId(i)]++;
+
+        int[][] members = new int[sectorCount][];
+        for (int s = 0; s < sectorCount; s++) members[s] = new int[perSector[s]];
+        int[] fill = new int[sectorCount];
+        for (int i = 0; i < n; i++) {
+            int s = marketState.sectorId(i);
+            members[s][fill[s]++] = i;
         }
 
-        return heatmap;
+        Map<String, List<DumbMoneyStock>> sectors = new LinkedHashMap<>();
+        List<CompactHeatmap.Sector> compactSectors = new ArrayList<>();
+
+        for (int s = 0; s < sectorCount; s++) {
+            if (members[s].length == 0) continue;
+
+            String sector = marketState.sectorName(s);
+            int size = members[s].length;
+
+            List<DumbMoneyStock> cells = new ArrayList<>(size);
+            String[] symbols = new String[size];
+            char[] codes = new char[size];
+            double[] volatility = new double[size];
+            int[] confidence = new int[size];
+
+            for (int k = 0; k < size; k++) {
+                int i = members[s][k];
+                // The signal the tick applied (a replayed feed may carry its own), as /api/stocks and the stream show it
+                DumbMoneySignal signal = marketState.signal(i);
+
+                cells.add(DumbMoneyStock.builder()
+                        .symbol(marketState.symbol(i))
+                        .sector(sector)
+                        .volatility(marketState.volatility(i))
+                        .confidenceScore(marketState.confidence(i))
+                        .label(signal.name().replace('_', ' '))
+                        .build());
+
+                symbols[k] = marketState.symbol(i);
+                codes[k] = (char) ('0' + signal.ordinal());
+                volatility[k] = marketState.volatility(i);
+                confidence[k] = marketState.confidence(i);
+            }
+
+            sectors.put(sector, Collections.unmodifiableList(cells));
+            compactSectors.add(new CompactHeatmap.Sector(sector, symbols, new String(codes), volatility, confidence));
+        }
+
+        compactHeatmap = CompactHeatmap.builder()
+                .version(version)
+                .timestamp(timestamp)
+                .signals(SIGNAL_NAMES)
+                .sectors(Collections.unmodifiableList(compactSectors))
+                .build();
+
+        heatmap = HeatmapSnapshot.builder()
+                .version(version)
+                .timestamp(timestamp)
+                .sectors(Collections.unmodifiableMap(sectors))
+                .build();
+
+        heatmapComplete = complete;
     }
 }
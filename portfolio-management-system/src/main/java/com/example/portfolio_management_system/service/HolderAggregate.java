@@ -0,0 +1,202 @@
+package com.example.portfolio_management_system.service;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running totals for one holder's portfolio.
+ * <p>
+ * Positions are kept in primitive columns. A market tick marks every position
+ * to the latest price and adds only the price delta to the totals; a new holding
+ * adds a position delta. Reading the totals is O(1).
+ * <p>
+ * Guarded by a {@link ReentrantLock} rather than a monitor, so request threads
+ * waiting on a tick never pin a virtual thread's carrier.
+ */
+public class HolderAggregate {
+
+    private final Long holderId;
+    private final String holderName;
+
+    // Position columns
+    private int count;
+    private int[] symbols = new int[8];
+    private int[] quantities = new int[8];
+    private double[] markPrices = new double[8];
+    private double[] avgPrices = new double[8];
+
+    // Running totals
+    private double totalInvested;
+    private double currentValue;
+    private double volatilitySum;
+    private double[] sectorValues = new double[8];
+    private int[] sectorPositions = new int[8];
+
+    private long version;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public HolderAggregate(Long holderId, String holderName) {
+        this.holderId = holderId;
+        this.holderName = holderName;
+    }
+
+    public Long getHolderId() {
+        return holderId;
+    }
+
+    public String getHolderName() {
+        return holderName;
+    }
+
+    /** Adds a holding of {@code quantity} units bought at {@code avgPrice}. */
+    public void addPosition(MarketState state, int symbol, int quantity, double avgPrice) {
+        lock.lock();
+        try {
+            appendPosition(state, symbol, quantity, avgPrice);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendPosition(MarketState state, int symbol, int quantity, double avgPrice) {
+
+        if (count == symbols.length) {
+            int capacity = count * 2;
+            symbols = Arrays.copyOf(symbols, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            markPrices = Arrays.copyOf(markPrices, capacity);
+            avgPrices = Arrays.copyOf(avgPrices, capacity);
+        }
+
+        double price = state.price(symbol);
+        int sector = state.sectorId(symbol);
+        ensureSector(sector);
+
+        symbols[count] = symbol;
+        quantities[count] = quantity;
+        markPrices[count] = price;
+        avgPrices[count] = avgPrice;
+        count++;
+
+        totalInvested += avgPrice * quantity;
+        currentValue += price * quantity;
+        volatilitySum += state.volatility(symbol) * 100;
+        sectorValues[sector] += price * quantity;
+        sectorPositions[sector]++;
+        version++;
+    }
+
+    /**
+     * Applies the price change of every position since it was last marked.
+     *
+     * @return true if any total changed
+     */
+    public boolean markToMarket(MarketState state) {
+        lock.lock();
+        try {
+            return mark(state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean mark(MarketState state) {
+
+        boolean changed = false;
+
+        for (int p = 0; p < count; p++) {
+            int symbol = symbols[p];
+            double price = state.price(symbol);
+            double mark = markPrices[p];
+
+            if (price != mark) {
+                double delta = (price - mark) * quantities[p];
+                currentValue += delta;
+                sectorValues[state.sectorId(symbol)] += delta;
+                markPrices[p] = price;
+                changed = true;
+            }
+        }
+
+        if (changed) version++;
+        return changed;
+    }
+
+    private void ensureSector(int sector) {
+        if (sector >= sectorValues.length) {
+            int capacity = Math.max(sector + 1, sectorValues.length * 2);
+            sectorValues = Arrays.copyOf(sectorValues, capacity);
+            sectorPositions = Arrays.copyOf(sectorPositions, capacity);
+        }
+    }
+
+    /** Consistent copy of the totals, taken under the aggregate's lock. */
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            return new Snapshot(
+                    holderId,
+                    holderName,
+                    count,
+                    totalInvested,
+                    currentValue,
+                    volatilitySum,
+                    Arrays.copyOf(sectorValues, sectorValues.length),
+                    Arrays.copyOf(sectorPositions, sectorPositions.length),
+                    version
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Consistent copy of the position columns (one entry per holding, symbols may repeat). */
+    public Positions positions() {
+        lock.lock();
+        try {
+            return new Positions(Arrays.copyOf(symbols, count), Arrays.copyOf(quantities, count));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Appends every position's decision-table inputs at live market values. */
+    public void appendScoringInputs(MarketState state, DecisionTable.Inputs inputs) {
+        lock.lock();
+        try {
+            for (int p = 0; p < count; p++) {
+                int symbol = symbols[p];
+                inputs.add(state.confidence(symbol),
+                        DecisionTable.pnlPercent(avgPrices[p], state.price(symbol)),
+                        state.volatility(symbol),
+                        state.signalCode(symbol));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long version() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record Snapshot(Long holderId,
+                           String holderName,
+                           int positions,
+                           double totalInvested,
+                           double currentValue,
+                           double volatilitySum,
+                           double[] sectorValues,
+                           int[] sectorPositions,
+                           long version) {
+    }
+
+    public record Positions(int[] symbols, int[] quantities) {
+    }
+}
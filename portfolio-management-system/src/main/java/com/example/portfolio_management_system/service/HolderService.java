@@ -1,9 +1,11 @@
 package com.example.portfolio_management_system.service;
 
+import com.example.portfolio_management_system.dto.HolderSummary;
 import com.example.portfolio_management_system.model.Holder;
 import com.example.portfolio_management_system.repository.HolderRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -17,8 +19,9 @@ public class HolderService {
         return holderRepository.save(holder);
     }
 
-    public List<Holder> getAllHolders() {
-        return holderRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<HolderSummary> getAllHolders() {
+        return holderRepository.findAllSummaries();
     }
 
     public Holder getHolderById(Long id) {
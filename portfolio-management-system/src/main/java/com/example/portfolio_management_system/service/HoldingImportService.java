@@ -0,0 +1,248 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.ImportReport;
+import com.example.portfolio_management_system.repository.HoldingJdbcRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a holdings file (CSV or JSON lines) into the database.
+ *
+ * Lines are parsed one at a time into reusable column buffers; symbols resolve
+ * against {@link MarketState} and holders against one upfront ID query, so the
+ * import issues no per-row lookups. Each chunk of {@code holdings.import.chunk-size}
+ * rows commits in its own transaction as JDBC batches of {@code holdings.import.batch-size}.
+ * A failed chunk is rolled back and reported; earlier chunks stay committed.
+ */
+@Service
+public class HoldingImportService {
+
+    public enum Format { CSV, JSON_LINES }
+
+    private final HoldingJdbcRepository holdingJdbcRepository;
+    private final MarketState marketState;
+    private final PortfolioAggregateService aggregateService;
+    private final ResultCacheService resultCacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final int batchSize;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public HoldingImportService(HoldingJdbcRepository holdingJdbcRepository,
+                                MarketState marketState,
+                                PortfolioAggregateService aggregateService,
+                                ResultCacheService resultCacheService,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${holdings.import.batch-size:1000}") int batchSize,
+                                @Value("${holdings.import.chunk-size:50000}") int chunkSize,
+                                @Value("${holdings.import.max-errors:1000}") int maxErrors) {
+        this.holdingJdbcRepository = holdingJdbcRepository;
+        this.marketState = marketState;
+        this.aggregateService = aggregateService;
+        this.resultCacheService = resultCacheService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.chunkSize = Math.max(this.batchSize, chunkSize);
+        this.maxErrors = maxErrors;
+    }
+
+    public ImportReport importHoldings(InputStream in, Format format) throws IOException {
+
+        long start = System.currentTimeMillis();
+        Run run = new Run(holdingJdbcRepository.findHolderNames());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+
+            String line;
+            long lineNo = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty()) continue;
+
+                // ✅ Optional CSV header row
+                if (lineNo == 1 && format == Format.CSV && !Character.isDigit(line.charAt(0))) continue;
+
+                run.rowsRead++;
+                try {
+                    if (format == Format.CSV) parseCsv(run, line);
+                    else parseJson(run, line);
+                } catch (IllegalArgumentException e) {
+                    run.reject(lineNo, e.getMessage());
+                    continue;
+                }
+                run.lines[run.count++] = lineNo;
+
+                if (run.count == chunkSize) flush(run);
+            }
+        }
+
+        flush(run);
+
+        for (Long holderId : run.touchedHolders) {
+            resultCacheService.invalidateHolder(holderId);
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("📥 Imported " + run.rowsInserted + "/" + run.rowsRead + " holdings in " + elapsed + " ms");
+
+        return ImportReport.builder()
+                .rowsRead(run.rowsRead)
+                .rowsInserted(run.rowsInserted)
+                .rowsRejected(run.rowsRejected)
+                .elapsedMs(elapsed)
+                .errors(run.errors)
+                .build();
+    }
+
+    private void parseCsv(Run run, String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Expected holderId,stockSymbol,quantity,price");
+        }
+        accept(run, fields[0].trim(), fields[1].trim(), fields[2].trim(), fields[3].trim());
+    }
+
+    private void parseJson(Run run, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        accept(run, node.path("holderId").asText(), node.path("stockSymbol").asText(),
+                node.path("quantity").asText(), node.path("price").asText());
+    }
+
+    /** Validates one row and appends it to the chunk buffers. */
+    private void accept(Run run, String holderText, String symbol, String quantityText, String priceText) {
+
+        long holderId;
+        int quantity;
+        double price;
+        try {
+            holderId = Long.parseLong(holderText);
+            quantity = Integer.parseInt(quantityText);
+            price = Double.parseDouble(priceText);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+
+        String holderName = run.holderNames.get(holderId);
+        if (holderName == null) {
+            throw new IllegalArgumentException("Holder not found with ID: " + holderId);
+        }
+
+        int index = marketState.indexOf(symbol);
+        if (index < 0) {
+            throw new IllegalArgumentException("Stock not found with Symbol: " + symbol);
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (!(price > 0) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+
+        int i = run.count;
+        run.holderIds[i] = holderId;
+        run.symbols[i] = marketState.symbol(index);
+        run.symbolIndices[i] = index;
+        run.quantities[i] = quantity;
+        run.prices[i] = price;
+    }
+
+    /** Commits the buffered chunk, then applies it to the running aggregates. */
+    private void flush(Run run) {
+
+        int count = run.count;
+        if (count == 0) return;
+
+        // Commit and apply under the aggregate service's writer lock, so a concurrent rebuild counts the chunk once
+        boolean committed = aggregateService.recording(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (int from = 0; from < count; from += batchSize) {
+                        holdingJdbcRepository.insertBatch(run.holderIds, run.symbols, run.quantities, run.prices,
+                                from, Math.min(count, from + batchSize));
+                    }
+                });
+            } catch (RuntimeException e) {
+                run.reject(run.lines[0], "Chunk of " + count + " rows (lines " + run.lines[0] + "-"
+                        + run.lines[count - 1] + ") rolled back: " + e.getMessage());
+                return false;
+            }
+
+            for (int i = 0; i < count; i++) {
+                Long holderId = run.holderIds[i];
+                aggregateService.applyPosition(holderId, run.holderNames.get(holderId),
+                        run.symbolIndices[i], run.quantities[i], run.prices[i]);
+            }
+            return true;
+        });
+
+        if (!committed) {
+            run.rowsRejected += count - 1;
+            run.count = 0;
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            run.touchedHolders.add(run.holderIds[i]);
+        }
+
+        run.rowsInserted += count;
+        run.count = 0;
+    }
+
+    /** Per-import state: column buffers sized to one chunk, reused across chunks. */
+    private class Run {
+
+        final Map<Long, String> holderNames;
+        final Set<Long> touchedHolders = new HashSet<>();
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        final long[] lines = new long[chunkSize];
+        final long[] holderIds = new long[chunkSize];
+        final String[] symbols = new String[chunkSize];
+        final int[] symbolIndices = new int[chunkSize];
+        final int[] quantities = new int[chunkSize];
+        final double[] prices = new double[chunkSize];
+
+        int count;
+        long rowsRead;
+        long rowsInserted;
+        long rowsRejected;
+
+        Run(Map<Long, String> holderNames) {
+            this.holderNames = holderNames;
+        }
+
+        void reject(long line, String message) {
+            rowsRejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.portfolio_management_system.service;
 
+import com.example.portfolio_management_system.dto.HoldingView;
 import com.example.portfolio_management_system.model.Holder;
 import com.example.portfolio_management_system.model.Holding;
 import com.example.portfolio_management_system.model.Stock;
@@ -8,6 +9,7 @@ import com.example.portfolio_management_system.repository.HoldingRepository;
 import com.example.portfolio_management_system.repository.StockRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -18,6 +20,9 @@ public class HoldingService {
     private final HoldingRepository holdingRepository;
     private final HolderRepository holderRepository;
     private final StockRepository stockRepository;
+    private final PortfolioAggregateService aggregateService;
+    private final ResultCacheService resultCacheService;
+    private final MarketState marketState;
 
     public Holding addHolding(Long holderId, String stockSymbol, Integer quantity, Double price) {
 
@@ -34,10 +39,20 @@ public class HoldingService {
         holding.setQuantity(quantity);
         holding.setAvgPrice(price);
 
-        return holdingRepository.save(holding);
+        // ✅ Commit, then the position delta for the running portfolio aggregates
+        Holding saved = aggregateService.recording(() -> {
+            Holding committed = holdingRepository.save(holding);
+            aggregateService.applyHolding(committed);
+            return committed;
+        });
+        resultCacheService.invalidateHolder(holderId);
+
+        return saved;
     }
 
-    public List<Holding> getHoldingsByHolder(Long holderId) {
-        return holdingRepository.findByHolderId(holderId);
+    @Transactional(readOnly = true)
+    public List<HoldingView> getHoldingsByHolder(Long holderId) {
+        // ✅ Live price, confidence and signal, as /api/stocks shows them
+        return holdingRepository.findViewsByHolderId(holderId).stream().map(marketState::live).toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.HolderSummary;
+import com.example.portfolio_management_system.dto.HoldingView;
+import com.example.portfolio_management_system.dto.KeysetPage;
+import com.example.portfolio_management_system.model.Stock;
+import com.example.portfolio_management_system.repository.HoldingJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bounded-memory variants of the list endpoints: keyset pages and streamed JSON.
+ * <p>
+ * Pages seek past the cursor's key ({@code WHERE id > ? ORDER BY id LIMIT n + 1}),
+ * so page N costs the same as page 1. Streams write each row to the response as
+ * it comes off a forward-only JDBC cursor (or the in-memory market state), so
+ * heap use stays flat however many rows there are. Rows have the same JSON shape
+ * and the same live market fields as the unpaginated endpoints.
+ */
+@Service
+public class ListingService {
+
+    private final HoldingJdbcRepository holdingJdbcRepository;
+    private final MarketState marketState;
+    private final ObjectMapper objectMapper;
+
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ListingService(HoldingJdbcRepository holdingJdbcRepository,
+                          MarketState marketState,
+                          ObjectMapper objectMapper,
+                          @Value("${api.page.default-limit:100}") int defaultLimit,
+                          @Value("${api.page.max-limit:1000}") int maxLimit) {
+        this.holdingJdbcRepository = holdingJdbcRepository;
+        this.marketState = marketState;
+        this.objectMapper = objectMapper;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // -----------------------------
+    // ✅ Keyset pages
+    // -----------------------------
+
+    /** @throws IllegalArgumentException for a foreign cursor or a limit outside 1..api.page.max-limit */
+    public KeysetPage<HolderSummary> holders(String cursor, Integer limit) {
+        int n = limit(limit);
+        List<HolderSummary> rows = new ArrayList<>(n + 1);
+        holdingJdbcRepository.forEachHolder(KeysetPage.after(cursor, 0), n + 1, rows::add);
+        return page(rows, n, rows.isEmpty() ? 0 : rows.get(Math.min(n, rows.size()) - 1).getId());
+    }
+
+    public KeysetPage<HoldingView> portfolio(Long holderId, String cursor, Integer limit) {
+        int n = limit(limit);
+        List<HoldingView> rows = new ArrayList<>(n + 1);
+        holdingJdbcRepository.forEachHolding(holderId, KeysetPage.after(cursor, 0), n + 1,
+                view -> rows.add(marketState.live(view)));
+        return page(rows, n, rows.isEmpty() ? 0 : rows.get(Math.min(n, rows.size()) - 1).getId());
+    }
+
+    /** Stocks in market-state order; rows are only ever appended there, so the row index is a stable key. */
+    public KeysetPage<Stock> stocks(String cursor, Integer limit) {
+        int n = limit(limit);
+        int from = (int) Math.min(marketState.size(), Math.max(0, KeysetPage.after(cursor, -1) + 1));
+        int to = (int) Math.min(marketState.size(), (long) from + n + 1);
+
+        List<Stock> rows = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            rows.add(marketState.toStock(i));
+        }
+        return page(rows, n, from + Math.min(n, rows.size()) - 1);
+    }
+
+    private int limit(Integer limit) {
+        int n = limit != null ? limit : defaultLimit;
+        if (n < 1 || n > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        return n;
+    }
+
+    /** {@code rows} holds up to {@code limit + 1} rows; the extra one only signals a next page. */
+    private static <T> KeysetPage<T> page(List<T> rows, int limit, long lastKey) {
+        boolean more = rows.size() > limit;
+        if (more) rows.remove(limit);
+        return KeysetPage.<T>builder()
+                .items(rows)
+                .limit(limit)
+                .nextCursor(more ? KeysetPage.cursor(lastKey) : null)
+                .build();
+    }
+
+    // -----------------------------
+    // ✅ Streamed JSON arrays
+    // -----------------------------
+
+    public void streamHolders(OutputStream out) throws IOException {
+        writeArray(out, row -> holdingJdbcRepository.forEachHolder(0, 0, row));
+    }
+
+    public void streamPortfolio(Long holderId, OutputStream out) throws IOException {
+        writeArray(out, row -> holdingJdbcRepository.forEachHolding(holderId, 0, 0,
+                view -> row.accept(marketState.live(view))));
+    }
+
+    public void streamStocks(OutputStream out) throws IOException {
+        writeArray(out, row -> {
+            for (int i = 0, n = marketState.size(); i < n; i++) {
+                row.accept(marketState.toStock(i));
+            }
+        });
+    }
+
+    /** Writes {@code [row, row, ...]}, serialising each row as the source produces it. */
+    private void writeArray(OutputStream out, Consumer<Consumer<Object>> source) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            try {
+                source.accept(row -> {
+                    try {
+                        generator.writeObject(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -1,79 +1,316 @@
 package com.example.portfolio_management_system.service;
 
-import com.example.portfolio_management_system.model.Stock;
-import com.example.portfolio_management_system.repository.StockRepository;
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Runs the market tick: one random-walk step for every symbol, then publishes
+ * the changed rows to the {@link MarketTickListener}s.
+ * <p>
+ * The universe is cut into fixed-size partitions ({@code market.tick.partition-size})
+ * simulated in parallel on a dedicated fork-join pool. Every tick splits a
+ * {@link SplittableRandom} off the run seed ({@code market.tick.seed}) and then
+ * one stream per partition, in partition order. Each partition's draws therefore
+ * depend only on the seed, the tick number and the partition, so a seed
+ * reproduces the same price paths on any number of cores.
+ * <p>
+ * A {@link PriceFeed} bean (e.g. {@code market.feed.type=replay}) replaces the
+ * random walk; the tick then applies whatever the feed delivered since the last one.
+ */
 @Service
 public class MarketSimulationService {
 
-    private final StockRepository stockRepository;
+    private final MarketState marketState;
     private final DumbMoneyService dumbMoneyService;
-    private final Random random = new Random();
+    private final List<MarketTickListener> listeners;
+    private final MarketTickMetrics metrics;
+    private final ReentrantLock tickLock = new ReentrantLock();
 
-    public MarketSimulationService(StockRepository stockRepository,
-                                   DumbMoneyService dumbMoneyService) {
-        this.stockRepository = stockRepository;
+    private final long seed;
+    private final SplittableRandom runRandom;
+    private final int partitionSize;
+    private final ForkJoinPool pool;
+    private final PriceFeed feed;
+
+    private int[] changed = new int[0];
+    private boolean feedStarted;
+
+    /** Runs the random walk. */
+    public MarketSimulationService(MarketState marketState,
+                                   DumbMoneyService dumbMoneyService,
+                                   List<MarketTickListener> listeners,
+                                   MarketTickMetrics metrics,
+                                   Long seed,
+                                   int parallelism,
+                                   int partitionSize) {
+        this(marketState, dumbMoneyService, listeners, metrics, null, seed, parallelism, partitionSize);
+    }
+
+    @Autowired
+    public MarketSimulationService(MarketState marketState,
+                                   DumbMoneyService dumbMoneyService,
+                                   List<MarketTickListener> listeners,
+                                   MarketTickMetrics metrics,
+                                   ObjectProvider<PriceFeed> feeds,
+                                   @Value("${market.tick.seed:#{null}}") Long seed,
+                                   @Value("${market.tick.parallelism:0}") int parallelism,
+                                   @Value("${market.tick.partition-size:4096}") int partitionSize) {
+        this.marketState = marketState;
         this.dumbMoneyService = dumbMoneyService;
+        this.listeners = listeners;
+        this.metrics = metrics;
+
+        this.seed = seed != null ? seed : System.nanoTime();
+        this.runRandom = new SplittableRandom(this.seed);
+        this.partitionSize = Math.max(1, partitionSize);
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("market-tick-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+
+        PriceFeed external = feeds != null ? feeds.getIfAvailable() : null;
+        this.feed = external != null ? external : new RandomWalk();
+        System.out.println("📡 Price feed: " + feed.name());
+
+        // ✅ Logged so a run can be replayed with market.tick.seed
+        System.out.println("🎲 Market simulation seed " + this.seed + " ("
+                + threads + " threads, partitions of " + this.partitionSize + ")");
     }
 
-    @Scheduled(fixedRate = 5000)
+    public long seed() {
+        return seed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        feed.stop();
+        pool.shutdownNow();
+    }
+
+    @Scheduled(fixedRateString = "${market.tick.interval-ms:5000}")
     public void updateStockPrices() {
 
-        List<Stock> stocks = stockRepository.findAll();
+        // Market state is loaded once the application is ready
+        if (!marketState.isLoaded()) return;
+
+        // The tick is the single writer of MarketState. A virtual-thread scheduler starts
+        // fixed-rate runs on new threads, so a slow tick must make the next one skip, not overlap
+        if (!tickLock.tryLock()) {
+            metrics.tickOverlapped();
+            return;
+        }
+        try {
+            tick();
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    private void tick() {
+
+        long start = metrics.tickStarted();
+
+        if (changed.length < marketState.size()) {
+            changed = new int[marketState.size()];
+        }
+
+        if (!feedStarted) {
+            feed.start(marketState);
+            feedStarted = true;
+        }
+        int changedCount = feed.advance(marketState, changed);
+
+        publish(new MarketTick(
+                marketState.version(),
+                System.currentTimeMillis(),
+                Arrays.copyOf(changed, changedCount)
+        ));
+
+        metrics.tickFinished(start, changedCount);
+
+        System.out.println("📊 Market + Confidence + Dumb Money updated");
+    }
+
+    private void publish(MarketTick tick) {
+        for (MarketTickListener listener : listeners) {
+            try {
+                listener.onTick(tick);
+            } catch (RuntimeException e) {
+                // One failing consumer must not stop the others or the next tick
+                System.out.println("⚠️ Tick listener " + listener.getClass().getSimpleName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /** The built-in feed: one random-walk step per symbol per tick. */
+    private final class RandomWalk implements PriceFeed {
+
+        @Override
+        public String name() {
+            return "random-walk";
+        }
 
-        for (Stock stock : stocks) {
+        @Override
+        public int advance(MarketState state, int[] changed) {
+            return simulateTick(state, runRandom.split(), changed);
+        }
+    }
 
-            double currentPrice =
-                    stock.getCurrentPrice() != null
-                            ? stock.getCurrentPrice()
-                            : stock.getBasePrice();
+    /**
+     * Advances every symbol by one random-walk step and publishes the new version.
+     * Partitions run in parallel; each reads and writes only its own rows' primitive
+     * columns, so the loop allocates nothing per symbol.
+     *
+     * @param tickRandom source of this tick's partition streams
+     * @param changed    receives the indices of rows whose live fields changed, in index
+     *                   order; must hold at least {@code state.size()} entries
+     * @return the number of changed rows
+     */
+    public int simulateTick(MarketState state, SplittableRandom tickRandom, int[] changed) {
 
-            double volatility = stock.getVolatility();
+        long tickVersion = state.version() + 1;
+        int n = Math.min(state.size(), changed.length);
+        int partitions = (n + partitionSize - 1) / partitionSize;
+
+        // Split in partition order on this thread: the streams never depend on scheduling
+        SplittableRandom[] randoms = new SplittableRandom[partitions];
+        for (int p = 0; p < partitions; p++) {
+            randoms[p] = tickRandom.split();
+        }
+
+        int[] counts = new int[partitions];
+        if (partitions == 1) {
+            counts[0] = simulatePartition(state, randoms[0], 0, n, tickVersion, changed);
+        } else if (partitions > 1) {
+            pool.invoke(new PartitionTask(state, randoms, counts, changed, n, tickVersion, 0, partitions));
+        }
+
+        // Each partition filled its own slice of changed; pack them in order
+        int changedCount = 0;
+        for (int p = 0; p < partitions; p++) {
+            System.arraycopy(changed, p * partitionSize, changed, changedCount, counts[p]);
+            changedCount += counts[p];
+        }
+
+        state.publish(tickVersion);
+        return changedCount;
+    }
+
+    /** Simulates rows {@code [from, to)}, writing changed indices to {@code changed[from..]}. */
+    private int simulatePartition(MarketState state, SplittableRandom random,
+                                  int from, int to, long tickVersion, int[] changed) {
+
+        int changedCount = 0;
+
+        for (int i = from; i < to; i++) {
+
+            double currentPrice = state.price(i);
+            double volatility = state.volatility(i);
 
             // 📈 Price movement
             double priceChangePercent =
                     (random.nextDouble() * 2 - 1) * volatility;
 
-            double newPrice =
-                    currentPrice * (1 + priceChangePercent);
+            double newPrice = nextPrice(currentPrice, state.basePrice(i), priceChangePercent);
 
-            newPrice = Math.max(newPrice, stock.getBasePrice() * 0.4);
+            // 🧠 Confidence logic
+            int confidence = nextConfidence(state.confidence(i), priceChangePercent, volatility);
 
-            // round price
-            newPrice = Math.round(newPrice * 100.0) / 100.0;
+            // 🔥 Dumb Money Evaluation (persisted later by PriceWriteBehindFlusher)
+            DumbMoneySignal signal = dumbMoneyService.evaluate(volatility, confidence);
 
-            // 🧠 Confidence logic
-            int confidence = stock.getConfidenceScore();
-
-            if (priceChangePercent > 0) {
-                if (priceChangePercent < 0.01) confidence += 1;
-                else if (priceChangePercent < 0.03) confidence += 2;
-                else confidence += 3;
-            } else {
-                if (priceChangePercent > -0.01) confidence -= 1;
-                else if (priceChangePercent > -0.03) confidence -= 2;
-                else confidence -= 4;
+            if (newPrice != currentPrice
+                    || confidence != state.confidence(i)
+                    || signal.ordinal() != state.signalCode(i)) {
+                state.set(i, newPrice, confidence, signal, tickVersion);
+                changed[from + changedCount++] = i;
             }
+        }
+
+        return changedCount;
+    }
+
+    /** Halves the partition range until one partition is left. */
+    private final class PartitionTask extends RecursiveAction {
 
-            if (volatility > 0.30) confidence -= 1;
+        private final MarketState state;
+        private final SplittableRandom[] randoms;
+        private final int[] counts;
+        private final int[] changed;
+        private final int n;
+        private final long tickVersion;
+        private final int lo;
+        private final int hi;
 
-            confidence = Math.max(0, Math.min(100, confidence));
+        PartitionTask(MarketState state, SplittableRandom[] randoms, int[] counts, int[] changed,
+                      int n, long tickVersion, int lo, int hi) {
+            this.state = state;
+            this.randoms = randoms;
+            this.counts = counts;
+            this.changed = changed;
+            this.n = n;
+            this.tickVersion = tickVersion;
+            this.lo = lo;
+            this.hi = hi;
+        }
 
-            // 🔥 Dumb Money Evaluation
-            stock.setCurrentPrice(newPrice);
-            stock.setConfidenceScore(confidence);
-            stock.setDumbMoneySignal(
-                    dumbMoneyService.evaluate(stock)
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                int from = lo * partitionSize;
+                counts[lo] = simulatePartition(state, randoms[lo], from, Math.min(n, from + partitionSize),
+                        tickVersion, changed);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new PartitionTask(state, randoms, counts, changed, n, tickVersion, lo, mid),
+                    new PartitionTask(state, randoms, counts, changed, n, tickVersion, mid, hi)
             );
+        }
+    }
 
-            stockRepository.save(stock);
+    public static double nextPrice(double currentPrice, double basePrice, double priceChangePercent) {
+
+        double newPrice =
+                currentPrice * (1 + priceChangePercent);
+
+        newPrice = Math.max(newPrice, basePrice * 0.4);
+
+        // round price
+        return Math.round(newPrice * 100.0) / 100.0;
+    }
+
+    public static int nextConfidence(int confidence, double priceChangePercent, double volatility) {
+
+        if (priceChangePercent > 0) {
+            if (priceChangePercent < 0.01) confidence += 1;
+            else if (priceChangePercent < 0.03) confidence += 2;
+            else confidence += 3;
+        } else {
+            if (priceChangePercent > -0.01) confidence -= 1;
+            else if (priceChangePercent > -0.03) confidence -= 2;
+            else confidence -= 4;
         }
 
-        System.out.println("📊 Market + Confidence + Dumb Money updated");
+        if (volatility > 0.30) confidence -= 1;
+
+        return Math.max(0, Math.min(100, confidence));
     }
 }
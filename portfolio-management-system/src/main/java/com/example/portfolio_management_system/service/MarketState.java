@@ -0,0 +1,260 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.HoldingView;
+import com.example.portfolio_management_system.dto.StockQuote;
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import com.example.portfolio_management_system.model.Stock;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dense, structure-of-arrays view of the market.
+ * <p>
+ * Every symbol gets a stable int index; its live fields sit in parallel
+ * primitive columns so the tick loop and the analytics read paths never
+ * box, unbox or allocate. The market tick is the only writer of the live
+ * columns; readers may observe a row mid-update, which is acceptable for
+ * display and analytics.
+ */
+@Component
+public class MarketState {
+
+    private static final DumbMoneySignal[] SIGNALS = DumbMoneySignal.values();
+    private static final int INITIAL_CAPACITY = 128;
+
+    private final Map<String, Integer> index = new ConcurrentHashMap<>();
+    private final Map<String, Integer> sectorIndex = new ConcurrentHashMap<>();
+    private final List<String> sectorNames = new ArrayList<>();
+
+    // Static columns
+    private String[] symbols = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] sectors = new int[INITIAL_CAPACITY];
+    private double[] basePrices = new double[INITIAL_CAPACITY];
+    private double[] volatilities = new double[INITIAL_CAPACITY];
+
+    // Live columns (written by the market tick)
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private int[] confidences = new int[INITIAL_CAPACITY];
+    private byte[] signals = new byte[INITIAL_CAPACITY];
+    private long[] changedAt = new long[INITIAL_CAPACITY];
+
+    private volatile int size;
+    private volatile long version;
+
+    // Versions restart at 0 with the process; the epoch tells clients which run a version belongs to
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36), 36);
+    private volatile boolean loaded;
+
+    // -----------------------------
+    // ✅ Registration
+    // -----------------------------
+
+    /**
+     * Adds a stock to the universe, or refreshes its row if the symbol is known.
+     *
+     * @return the symbol's index
+     */
+    public synchronized int add(Stock stock) {
+
+        Integer existing = index.get(stock.getSymbol());
+        int i = existing != null ? existing : size;
+
+        if (i == symbols.length) {
+            grow(symbols.length * 2);
+        }
+
+        double basePrice = stock.getBasePrice();
+
+        symbols[i] = stock.getSymbol();
+        names[i] = stock.getName();
+        sectors[i] = sectorId(stock.getSector());
+        basePrices[i] = basePrice;
+        volatilities[i] = stock.getVolatility();
+
+        prices[i] = stock.getCurrentPrice() != null ? stock.getCurrentPrice() : basePrice;
+        confidences[i] = stock.getConfidenceScore() != null ? stock.getConfidenceScore() : 0;
+        signals[i] = (byte) (stock.getDumbMoneySignal() != null
+                ? stock.getDumbMoneySignal()
+                : DumbMoneySignal.NEUTRAL).ordinal();
+        changedAt[i] = version;
+
+        if (existing == null) {
+            index.put(stock.getSymbol(), i);
+            size = i + 1;
+        }
+        return i;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private int sectorId(String sector) {
+        String key = sector != null ? sector : "Unknown";
+        return sectorIndex.computeIfAbsent(key, s -> {
+            sectorNames.add(s);
+            return sectorNames.size() - 1;
+        });
+    }
+
+    private void grow(int capacity) {
+        symbols = Arrays.copyOf(symbols, capacity);
+        names = Arrays.copyOf(names, capacity);
+        sectors = Arrays.copyOf(sectors, capacity);
+        basePrices = Arrays.copyOf(basePrices, capacity);
+        volatilities = Arrays.copyOf(volatilities, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        confidences = Arrays.copyOf(confidences, capacity);
+        signals = Arrays.copyOf(signals, capacity);
+        changedAt = Arrays.copyOf(changedAt, capacity);
+    }
+
+    // -----------------------------
+    // ✅ Tick versioning
+    // -----------------------------
+
+    /** Version of the last completed tick. */
+    public long version() {
+        return version;
+    }
+
+    /** Identifies this process's run of versions. */
+    public String epoch() {
+        return epoch;
+    }
+
+    /** Version token handed to clients: {@code <epoch>.<version>}. */
+    public String versionToken(long version) {
+        return epoch + "." + version;
+    }
+
+    /**
+     * Reads a token from {@link #versionToken}.
+     *
+     * @return the version, or -1 if the token is malformed, from another run or ahead of this one
+     */
+    public long parseVersionToken(String token) {
+        if (token == null || !token.startsWith(epoch + ".")) return -1;
+        try {
+            long v = Long.parseLong(token.substring(epoch.length() + 1));
+            return v >= 0 && v <= version ? v : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Makes all rows written with {@code tickVersion} visible as the current version. */
+    public void publish(long tickVersion) {
+        version = tickVersion;
+    }
+
+    // -----------------------------
+    // ✅ Column access
+    // -----------------------------
+
+    public int size() {
+        return size;
+    }
+
+    /** @return the symbol's index, or -1 if it is not part of the universe */
+    public int indexOf(String symbol) {
+        Integer i = index.get(symbol);
+        return i != null ? i : -1;
+    }
+
+    public String symbol(int i) { return symbols[i]; }
+    public String name(int i) { return names[i]; }
+    public int sectorId(int i) { return sectors[i]; }
+    public String sector(int i) { return sectorNames.get(sectors[i]); }
+    public String sectorName(int sectorId) { return sectorNames.get(sectorId); }
+    public int sectorCount() { return sectorNames.size(); }
+    public double basePrice(int i) { return basePrices[i]; }
+    public double volatility(int i) { return volatilities[i]; }
+    public double price(int i) { return prices[i]; }
+    public int confidence(int i) { return confidences[i]; }
+    public byte signalCode(int i) { return signals[i]; }
+    public DumbMoneySignal signal(int i) { return SIGNALS[signals[i]]; }
+    public long changedAt(int i) { return changedAt[i]; }
+
+    /** Writes a row's live fields as part of tick {@code tickVersion}. */
+    public void set(int i, double price, int confidence, DumbMoneySignal signal, long tickVersion) {
+        prices[i] = price;
+        confidences[i] = confidence;
+        signals[i] = (byte) signal.ordinal();
+        changedAt[i] = tickVersion;
+    }
+
+    // -----------------------------
+    // ✅ Entity fallbacks for rows loaded through JPA
+    // -----------------------------
+
+    public double livePrice(Stock stock) {
+        int i = indexOf(stock.getSymbol());
+        return i >= 0 ? prices[i] : stock.getCurrentPrice();
+    }
+
+    public int liveConfidence(Stock stock) {
+        int i = indexOf(stock.getSymbol());
+        return i >= 0 ? confidences[i] : stock.getConfidenceScore();
+    }
+
+    /**
+     * The view with its stock's price, confidence and signal taken from the market state,
+     * as /api/stocks shows them; the stocks table is only flushed every few seconds.
+     */
+    public HoldingView live(HoldingView view) {
+        StockQuote stock = view.getStock();
+        int i = stock != null ? indexOf(stock.getSymbol()) : -1;
+        if (i < 0) return view;
+        return new HoldingView(view.getId(), view.getQuantity(), view.getAvgPrice(),
+                new StockQuote(stock.getSymbol(), stock.getName(), stock.getSector(),
+                        stock.getBasePrice(), stock.getVolatility(), confidences[i], prices[i], signal(i)));
+    }
+
+    /** Builds a detached {@link Stock} from row {@code i} for API responses. */
+    public Stock toStock(int i) {
+        return Stock.builder()
+                .symbol(symbols[i])
+                .name(names[i])
+                .sector(sector(i))
+                .basePrice(basePrices[i])
+                .volatility(volatilities[i])
+                .confidenceScore(confidences[i])
+                .currentPrice(prices[i])
+                .dumbMoneySignal(signal(i))
+                .build();
+    }
+
+    public List<Stock> toStocks() {
+        int n = size;
+        List<Stock> stocks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            stocks.add(toStock(i));
+        }
+        return stocks;
+    }
+
+    /** Rows whose live fields changed after {@code version}. */
+    public List<Stock> toStocksChangedSince(long version) {
+        int n = size;
+        List<Stock> stocks = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (changedAt[i] > version) {
+                stocks.add(toStock(i));
+            }
+        }
+        return stocks;
+    }
+}
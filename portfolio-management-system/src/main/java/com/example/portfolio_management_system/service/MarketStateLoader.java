@@ -0,0 +1,34 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.Stock;
+import com.example.portfolio_management_system.repository.StockRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@link MarketState} from the stocks table once the application is ready,
+ * i.e. after DataSeeder has run.
+ */
+@Component
+public class MarketStateLoader {
+
+    private final StockRepository stockRepository;
+    private final MarketState marketState;
+
+    public MarketStateLoader(StockRepository stockRepository, MarketState marketState) {
+        this.stockRepository = stockRepository;
+        this.marketState = marketState;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void load() {
+        for (Stock stock : stockRepository.findAll()) {
+            marketState.add(stock);
+        }
+        marketState.markLoaded();
+        System.out.println("📒 Market state loaded with " + marketState.size() + " stocks");
+    }
+}
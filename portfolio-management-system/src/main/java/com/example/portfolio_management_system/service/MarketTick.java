@@ -0,0 +1,15 @@
+package com.example.portfolio_management_system.service;
+
+/**
+ * One completed market tick.
+ *
+ * @param version   the {@link MarketState} version the tick published
+ * @param timestamp wall-clock time of the tick in epoch millis
+ * @param changed   indices of the symbols whose live fields changed
+ */
+public record MarketTick(long version, long timestamp, int[] changed) {
+
+    public int changedCount() {
+        return changed.length;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.portfolio_management_system.service;
+
+/**
+ * Receives every published market tick on the simulation thread.
+ * Implementations should return quickly and hand slow work to their own executor.
+ */
+public interface MarketTickListener {
+
+    void onTick(MarketTick tick);
+}
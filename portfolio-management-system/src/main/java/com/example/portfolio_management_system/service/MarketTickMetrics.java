@@ -0,0 +1,85 @@
+package com.example.portfolio_management_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instruments for the scheduled market tick: duration, stocks updated,
+ * and ticks that overran, overlapped or were skipped by the scheduler.
+ */
+@Component
+public class MarketTickMetrics {
+
+    private final long intervalNanos;
+
+    private final Timer duration;
+    private final DistributionSummary stocksUpdated;
+    private final Counter overruns;
+    private final Counter overlapping;
+    private final Counter missed;
+
+    private volatile long lastStart;
+
+    public MarketTickMetrics(MeterRegistry registry,
+                             @Value("${market.tick.interval-ms:5000}") long intervalMs) {
+
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+
+        this.duration = Timer.builder("market.tick.duration")
+                .description("Wall time of one market tick including listeners")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.stocksUpdated = DistributionSummary.builder("market.tick.stocks.updated")
+                .description("Symbols whose live fields changed in a tick")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.overruns = Counter.builder("market.tick.overruns")
+                .description("Ticks that took longer than the tick interval")
+                .register(registry);
+        this.overlapping = Counter.builder("market.tick.overlapping")
+                .description("Ticks skipped because the previous tick was still running")
+                .register(registry);
+        this.missed = Counter.builder("market.tick.missed")
+                .description("Tick slots skipped because the scheduler fell behind")
+                .register(registry);
+    }
+
+    /** @return the start timestamp to pass to {@link #tickFinished} */
+    public long tickStarted() {
+
+        long now = System.nanoTime();
+
+        long previous = lastStart;
+        if (previous != 0) {
+            long gap = now - previous;
+            // Half an interval of scheduler jitter is tolerated
+            if (gap > intervalNanos + intervalNanos / 2) {
+                missed.increment(Math.max(1, Math.round((double) gap / intervalNanos) - 1));
+            }
+        }
+        lastStart = now;
+
+        return now;
+    }
+
+    public void tickFinished(long start, int changedCount) {
+
+        long elapsed = System.nanoTime() - start;
+
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        stocksUpdated.record(changedCount);
+        if (elapsed > intervalNanos) {
+            overruns.increment();
+        }
+    }
+
+    public void tickOverlapped() {
+        overlapping.increment();
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.Holder;
+import com.example.portfolio_management_system.model.Holding;
+import com.example.portfolio_management_system.model.Stock;
+import com.example.portfolio_management_system.repository.HoldingJdbcRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link HolderAggregate} per holder current with every market tick
+ * and every new holding, so portfolio analytics never rescan holdings.
+ * <p>
+ * A {@link SymbolHolderIndex} maps each symbol to its holders, so a sparse tick
+ * only marks the holders of the symbols it moved; later tick listeners can ask
+ * {@link #isAffected} instead of recomputing every holder.
+ * <p>
+ * {@link #rebuild} scans into a fresh generation (aggregates plus index) and swaps
+ * it in when done; readers keep the previous one meanwhile. Writers commit and apply
+ * a holding inside {@link #recording}, so the scan's ID high-water mark splits
+ * holdings cleanly: those at or below it come from the scan, later ones are queued
+ * during the rebuild and replayed onto the new generation before the swap.
+ */
+@Service
+@Order(100)
+public class PortfolioAggregateService implements MarketTickListener {
+
+    private final HoldingJdbcRepository holdingJdbcRepository;
+    private final MarketState marketState;
+
+    /** Aggregates and their index, replaced as a whole by a rebuild. */
+    private static final class Generation {
+        final Map<Long, HolderAggregate> aggregates = new ConcurrentHashMap<>();
+        final SymbolHolderIndex index = new SymbolHolderIndex();
+    }
+
+    private record Delta(Long holderId, String holderName, int symbol, int quantity, double avgPrice) {
+    }
+
+    private volatile Generation current = new Generation();
+    private volatile boolean ready;
+
+    // Writers hold the read side around commit + apply; a rebuild takes the write side to fix its high-water mark
+    private final ReentrantReadWriteLock writers = new ReentrantReadWriteLock();
+    // Orders applies against the generation swap
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private List<Delta> pending;
+
+    // Holders the last tick moved (tick thread; reset by a rebuild)
+    private volatile long affectedVersion = -1;
+    private boolean allAffected;
+
+    public PortfolioAggregateService(HoldingJdbcRepository holdingJdbcRepository,
+                                     MarketState marketState) {
+        this.holdingJdbcRepository = holdingJdbcRepository;
+        this.marketState = marketState;
+    }
+
+    // ✅ Runs after MarketStateLoader so every symbol already has an index
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildGeneration();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildGeneration() {
+
+        Generation next = new Generation();
+        Map<Long, String> holderNames;
+        long highWater;
+
+        // No writer is between commit and apply here: every holding up to the mark is already
+        // committed, and every later one is applied after pending exists
+        writers.writeLock().lock();
+        try {
+            highWater = holdingJdbcRepository.maxHoldingId();
+            holderNames = holdingJdbcRepository.findHolderNames();
+            applyLock.lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                applyLock.unlock();
+            }
+        } finally {
+            writers.writeLock().unlock();
+        }
+
+        holderNames.forEach((id, name) -> next.aggregates.put(id, new HolderAggregate(id, name)));
+
+        // Streamed over plain JDBC: millions of holdings never exist as entities at once
+        long[] skipped = new long[1];
+        holdingJdbcRepository.forEachPosition(highWater, (holderId, symbol, quantity, avgPrice) -> {
+            int index = marketState.indexOf(symbol);
+            if (index < 0) {
+                skipped[0]++;
+                return;
+            }
+            apply(next, holderId, holderNames.get(holderId), index, quantity, avgPrice);
+        });
+
+        if (skipped[0] > 0) {
+            System.out.println("⚠️ " + skipped[0] + " holdings reference unknown stocks");
+        }
+
+        int replayed;
+        applyLock.lock();
+        try {
+            for (Delta d : pending) {
+                apply(next, d.holderId(), d.holderName(), d.symbol(), d.quantity(), d.avgPrice());
+            }
+            replayed = pending.size();
+            pending = null;
+            current = next;
+            affectedVersion = -1;
+            ready = true;
+        } finally {
+            applyLock.unlock();
+        }
+
+        System.out.println("🧮 Portfolio aggregates built for " + next.aggregates.size() + " holders ("
+                + next.index.postingCount() + " symbol postings, " + replayed + " replayed)");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Runs {@code commitAndApply}, which commits holdings and then applies them with
+     * {@link #applyHolding} or {@link #applyPosition}, so a concurrent rebuild counts
+     * each of them exactly once.
+     */
+    public <T> T recording(Supplier<T> commitAndApply) {
+        writers.readLock().lock();
+        try {
+            return commitAndApply.get();
+        } finally {
+            writers.readLock().unlock();
+        }
+    }
+
+    /** Applies the position delta of a newly saved holding. */
+    public void applyHolding(Holding holding) {
+
+        Holder holder = holding.getHolder();
+        Stock stock = holding.getStock();
+
+        int symbol = marketState.indexOf(stock.getSymbol());
+        if (symbol < 0) {
+            symbol = marketState.add(stock);
+        }
+
+        applyPosition(holder.getId(), holder.getName(), symbol, holding.getQuantity(), holding.getAvgPrice());
+    }
+
+    /** Applies a position already resolved to a {@link MarketState} index (bulk import path). */
+    public void applyPosition(Long holderId, String holderName, int symbol, int quantity, double avgPrice) {
+        applyLock.lock();
+        try {
+            // The generation being rebuilt gets it on replay; the live one keeps serving meanwhile
+            if (pending != null) {
+                pending.add(new Delta(holderId, holderName, symbol, quantity, avgPrice));
+            }
+            apply(current, holderId, holderName, symbol, quantity, avgPrice);
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    private void apply(Generation generation, Long holderId, String holderName,
+                       int symbol, int quantity, double avgPrice) {
+        HolderAggregate aggregate = generation.aggregates.computeIfAbsent(holderId, id -> new HolderAggregate(id, holderName));
+        aggregate.addPosition(marketState, symbol, quantity, avgPrice);
+        generation.index.add(aggregate, symbol, quantity);
+    }
+
+    @Override
+    public void onTick(MarketTick tick) {
+        if (!ready) return;
+
+        Generation generation = current;
+        Map<Long, HolderAggregate> aggregates = generation.aggregates;
+        SymbolHolderIndex index = generation.index;
+
+        // Once the postings touched reach a quarter of the holders, most holders move anyway and a plain pass is cheaper
+        allAffected = index.postings(tick.changed()) * 4 >= aggregates.size();
+        affectedVersion = tick.version();
+
+        if (allAffected) {
+            for (HolderAggregate aggregate : aggregates.values()) {
+                aggregate.markToMarket(marketState);
+            }
+            return;
+        }
+
+        int affected = index.collect(tick.changed());
+        for (int k = 0; k < affected; k++) {
+            index.affected(k).markToMarket(marketState);
+        }
+    }
+
+    /**
+     * Whether {@code tick} moved any symbol the holder holds. Meant for tick listeners
+     * ordered after this one; any other tick, or an untracked holder, counts as affected.
+     */
+    public boolean isAffected(MarketTick tick, Long holderId) {
+        if (!ready || tick.version() != affectedVersion || allAffected) return true;
+        return current.index.wasCollected(holderId);
+    }
+
+    /** Symbol-to-holders postings of the tracked aggregates. */
+    public SymbolHolderIndex index() {
+        return current.index;
+    }
+
+    /** @return the holder's aggregate, or null if it is not tracked (yet) */
+    public HolderAggregate get(Long holderId) {
+        return ready ? current.aggregates.get(holderId) : null;
+    }
+
+    public Collection<HolderAggregate> all() {
+        return current.aggregates.values();
+    }
+}
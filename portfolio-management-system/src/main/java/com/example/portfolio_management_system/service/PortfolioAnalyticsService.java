@@ -1,10 +1,13 @@
 package com.example.portfolio_management_system.service;
 
+import com.example.portfolio_management_system.dto.AnalyticsDrift;
 import com.example.portfolio_management_system.dto.PortfolioAnalyticsResponse;
+import com.example.portfolio_management_system.model.Holder;
 import com.example.portfolio_management_system.model.Holding;
 import com.example.portfolio_management_system.model.Stock;
 import com.example.portfolio_management_system.repository.HoldingRepository;
 import com.example.portfolio_management_system.repository.HolderRepository;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -12,23 +15,125 @@ import java.util.*;
 @Service
 public class PortfolioAnalyticsService {
 
+    private static final double DRIFT_TOLERANCE = 1e-6;
+
+    // Upper bound for one holder_id IN (...) list
+    private static final int BATCH_CHUNK = 1000;
+
     private final HoldingRepository holdingRepository;
     private final HolderRepository holderRepository;
+    private final MarketState marketState;
+    private final PortfolioAggregateService aggregateService;
 
     public PortfolioAnalyticsService(HoldingRepository holdingRepository,
-                                     HolderRepository holderRepository) {
+                                     HolderRepository holderRepository,
+                                     MarketState marketState,
+                                     PortfolioAggregateService aggregateService) {
         this.holdingRepository = holdingRepository;
         this.holderRepository = holderRepository;
+        this.marketState = marketState;
+        this.aggregateService = aggregateService;
     }
 
     public PortfolioAnalyticsResponse getAnalytics(Long holderId) {
 
+        // ✅ O(1): served from the running aggregate when the holder is tracked
+        HolderAggregate aggregate = aggregateService.get(holderId);
+        if (aggregate != null) {
+            return fromSnapshot(aggregate.snapshot());
+        }
+
+        return recompute(holderId);
+    }
+
+    /** Full recomputation from the holder's holdings, bypassing the aggregates. */
+    public PortfolioAnalyticsResponse recompute(Long holderId) {
+
         // ✅ Holder Name
         String holderName = holderRepository.findById(holderId)
                 .orElseThrow()
                 .getName();
 
-        List<Holding> holdings = holdingRepository.findByHolderId(holderId);
+        return computeFromHoldings(holderName, holdingRepository.findWithStockByHolderId(holderId));
+    }
+
+    /**
+     * Analytics for many holders at once. Tracked holders are read from their
+     * aggregates; all others are recomputed with one holder_id IN (...) query per
+     * chunk of {@value #BATCH_CHUNK} IDs. Unknown holder IDs are left out.
+     */
+    public Map<Long, PortfolioAnalyticsResponse> getAnalytics(Collection<Long> holderIds) {
+
+        Map<Long, PortfolioAnalyticsResponse> result = new LinkedHashMap<>();
+        List<Long> untracked = new ArrayList<>();
+
+        for (Long holderId : new LinkedHashSet<>(holderIds)) {
+            HolderAggregate aggregate = aggregateService.get(holderId);
+            if (aggregate != null) {
+                result.put(holderId, fromSnapshot(aggregate.snapshot()));
+            } else {
+                untracked.add(holderId);
+            }
+        }
+
+        result.putAll(recompute(untracked));
+        return result;
+    }
+
+    /** Batch form of {@link #recompute(Long)}: two queries per chunk, regardless of holder count. */
+    public Map<Long, PortfolioAnalyticsResponse> recompute(Collection<Long> holderIds) {
+
+        Map<Long, PortfolioAnalyticsResponse> result = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(holderIds));
+
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK) {
+
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_CHUNK));
+
+            Map<Long, List<Holding>> holdingsByHolder = new HashMap<>();
+            for (Holding h : holdingRepository.findWithStockByHolderIdIn(chunk)) {
+                holdingsByHolder.computeIfAbsent(h.getHolder().getId(), id -> new ArrayList<>()).add(h);
+            }
+
+            for (Holder holder : holderRepository.findAllById(chunk)) {
+                result.put(holder.getId(), computeFromHoldings(
+                        holder.getName(),
+                        holdingsByHolder.getOrDefault(holder.getId(), List.of())
+                ));
+            }
+        }
+
+        return result;
+    }
+
+    private PortfolioAnalyticsResponse fromSnapshot(HolderAggregate.Snapshot snapshot) {
+
+        double currentValue = snapshot.currentValue();
+        double[] sectorValues = snapshot.sectorValues();
+        int[] sectorPositions = snapshot.sectorPositions();
+
+        Map<String, Double> sectorAllocation = new HashMap<>();
+
+        for (int sector = 0; sector < sectorPositions.length; sector++) {
+            if (sectorPositions[sector] == 0) continue;
+
+            double percent = (sectorValues[sector] / currentValue) * 100;
+
+            sectorAllocation.put(marketState.sectorName(sector), Math.round(percent * 100.0) / 100.0);
+        }
+
+        return PortfolioAnalyticsResponse.builder()
+                .holderName(snapshot.holderName())
+                .totalInvested(snapshot.totalInvested())
+                .currentValue(currentValue)
+                .profitLoss(currentValue - snapshot.totalInvested())
+                .diversificationScore(diversificationScore(sectorAllocation.size()))
+                .riskScore(riskScore(snapshot.volatilitySum(), snapshot.positions()))
+                .sectorAllocation(sectorAllocation)
+                .build();
+    }
+
+    private PortfolioAnalyticsResponse computeFromHoldings(String holderName, List<Holding> holdings) {
 
         double totalInvested = 0;
         double currentValue = 0;
@@ -44,7 +149,7 @@ public class PortfolioAnalyticsService {
             Stock stock = h.getStock();
 
             double invested = h.getAvgPrice() * h.getQuantity();
-            double current = stock.getCurrentPrice() * h.getQuantity();
+            double current = marketState.livePrice(stock) * h.getQuantity();
 
             totalInvested += invested;
             currentValue += current;
@@ -73,16 +178,6 @@ public class PortfolioAnalyticsService {
             sectorAllocation.put(sector, Math.round(percent * 100.0) / 100.0);
         }
 
-        // -----------------------------
-        // ✅ Diversification Score
-        // -----------------------------
-        int sectorCount = sectorAllocation.size();
-
-        int diversificationScore = Math.min(100, sectorCount * 20);
-        // Example:
-        // 1 sector → 20
-        // 5 sectors → 100
-
         // -----------------------------
         // ✅ Risk Score
         // -----------------------------
@@ -92,8 +187,6 @@ public class PortfolioAnalyticsService {
             riskSum += h.getStock().getVolatility() * 100;
         }
 
-        int riskScore = (int) Math.min(100, riskSum / holdings.size());
-
         // -----------------------------
         // ✅ Return DTO
         // -----------------------------
@@ -102,9 +195,136 @@ public class PortfolioAnalyticsService {
                 .totalInvested(totalInvested)
                 .currentValue(currentValue)
                 .profitLoss(profitLoss)
-                .diversificationScore(diversificationScore)
-                .riskScore(riskScore)
+                .diversificationScore(diversificationScore(sectorAllocation.size()))
+                .riskScore(riskScore(riskSum, holdings.size()))
                 .sectorAllocation(sectorAllocation)
                 .build();
     }
+
+    // -----------------------------
+    // ✅ Diversification Score
+    // -----------------------------
+    private static int diversificationScore(int sectorCount) {
+        // Example:
+        // 1 sector → 20
+        // 5 sectors → 100
+        return Math.min(100, sectorCount * 20);
+    }
+
+    private static int riskScore(double riskSum, int holdingCount) {
+        if (holdingCount == 0) return 0;
+        return (int) Math.min(100, riskSum / holdingCount);
+    }
+
+    // -----------------------------
+    // ✅ Consistency Check
+    // -----------------------------
+
+    /** Compares the incremental aggregate with a full recomputation. */
+    public AnalyticsDrift checkConsistency(Long holderId) {
+
+        HolderAggregate aggregate = aggregateService.get(holderId);
+        PortfolioAnalyticsResponse expected = recompute(holderId);
+
+        if (aggregate == null) {
+            // Untracked holders are always served by recomputation
+            return AnalyticsDrift.builder()
+                    .holderId(holderId)
+                    .consistent(true)
+                    .totalInvestedDrift(0.0)
+                    .currentValueDrift(0.0)
+                    .maxSectorAllocationDrift(0.0)
+                    .riskScoreDrift(0)
+                    .diversificationScoreDrift(0)
+                    .build();
+        }
+
+        return drift(holderId, fromSnapshot(aggregate.snapshot()), expected);
+    }
+
+    /** Batch form of {@link #checkConsistency(Long)} for tracked holders. */
+    public List<AnalyticsDrift> checkConsistency(Collection<Long> holderIds) {
+
+        // Snapshot the aggregates first: a tick between snapshot and recompute shows up as drift
+        Map<Long, PortfolioAnalyticsResponse> actual = new LinkedHashMap<>();
+        for (Long holderId : holderIds) {
+            HolderAggregate aggregate = aggregateService.get(holderId);
+            if (aggregate != null) {
+                actual.put(holderId, fromSnapshot(aggregate.snapshot()));
+            }
+        }
+
+        Map<Long, PortfolioAnalyticsResponse> expected = recompute(actual.keySet());
+
+        List<AnalyticsDrift> drifts = new ArrayList<>();
+        for (Map.Entry<Long, PortfolioAnalyticsResponse> entry : actual.entrySet()) {
+            PortfolioAnalyticsResponse recomputed = expected.get(entry.getKey());
+            if (recomputed != null) {
+                drifts.add(drift(entry.getKey(), entry.getValue(), recomputed));
+            }
+        }
+        return drifts;
+    }
+
+    private static AnalyticsDrift drift(Long holderId,
+                                        PortfolioAnalyticsResponse actual,
+                                        PortfolioAnalyticsResponse expected) {
+
+        double investedDrift = actual.getTotalInvested() - expected.getTotalInvested();
+        double valueDrift = actual.getCurrentValue() - expected.getCurrentValue();
+
+        Set<String> sectors = new HashSet<>(actual.getSectorAllocation().keySet());
+        sectors.addAll(expected.getSectorAllocation().keySet());
+
+        double maxSectorDrift = 0;
+        for (String sector : sectors) {
+            double d = actual.getSectorAllocation().getOrDefault(sector, 0.0)
+                    - expected.getSectorAllocation().getOrDefault(sector, 0.0);
+            if (Math.abs(d) > Math.abs(maxSectorDrift)) maxSectorDrift = d;
+        }
+
+        int riskDrift = actual.getRiskScore() - expected.getRiskScore();
+        int diversificationDrift = actual.getDiversificationScore() - expected.getDiversificationScore();
+
+        boolean consistent = withinTolerance(investedDrift, expected.getTotalInvested())
+                && withinTolerance(valueDrift, expected.getCurrentValue())
+                // allocations are rounded to 2 dp, so allow one rounding step
+                && Math.abs(maxSectorDrift) <= 0.01 + DRIFT_TOLERANCE
+                && riskDrift == 0
+                && diversificationDrift == 0;
+
+        return AnalyticsDrift.builder()
+                .holderId(holderId)
+                .consistent(consistent)
+                .totalInvestedDrift(investedDrift)
+                .currentValueDrift(valueDrift)
+                .maxSectorAllocationDrift(maxSectorDrift)
+                .riskScoreDrift(riskDrift)
+                .diversificationScoreDrift(diversificationDrift)
+                .build();
+    }
+
+    private static boolean withinTolerance(double drift, double reference) {
+        return Math.abs(drift) <= DRIFT_TOLERANCE * Math.max(1.0, Math.abs(reference));
+    }
+
+    // ✅ Periodic audit of every tracked aggregate; only drift is reported
+    @Scheduled(fixedDelayString = "${analytics.consistency-check.interval-ms:600000}",
+            initialDelayString = "${analytics.consistency-check.interval-ms:600000}")
+    public void auditAggregates() {
+        if (!aggregateService.isReady()) return;
+
+        List<Long> holderIds = new ArrayList<>();
+        for (HolderAggregate aggregate : aggregateService.all()) {
+            holderIds.add(aggregate.getHolderId());
+        }
+
+        for (AnalyticsDrift drift : checkConsistency(holderIds)) {
+            if (!drift.getConsistent()) {
+                System.out.println("⚠️ Analytics drift for holder " + drift.getHolderId()
+                        + ": currentValue " + drift.getCurrentValueDrift()
+                        + ", invested " + drift.getTotalInvestedDrift());
+            }
+        }
+    }
 }
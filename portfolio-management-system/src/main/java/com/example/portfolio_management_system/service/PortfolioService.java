@@ -16,7 +16,7 @@ public class PortfolioService {
 
     public List<PortfolioItemDTO> getPortfolioByHolder(Long holderId) {
 
-        List<Holding> holdings = holdingRepository.findByHolderId(holderId);
+        List<Holding> holdings = holdingRepository.findWithStockByHolderId(holderId);
 
         return holdings.stream().map(h ->
                 new PortfolioItemDTO(
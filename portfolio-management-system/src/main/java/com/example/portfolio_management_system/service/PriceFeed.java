@@ -0,0 +1,30 @@
+package com.example.portfolio_management_system.service;
+
+/**
+ * Source of market updates for the tick. {@link MarketSimulationService} calls
+ * {@link #advance} once per tick on the tick thread, the only writer of
+ * {@link MarketState}, then publishes the changed rows to the tick listeners.
+ * <p>
+ * Without a {@code PriceFeed} bean the tick runs its own random walk; defining
+ * one (e.g. {@code market.feed.type=replay}) replaces it.
+ */
+public interface PriceFeed {
+
+    String name();
+
+    /** Called on the first tick, once the market state is loaded. */
+    default void start(MarketState state) {
+    }
+
+    /**
+     * Applies this tick's updates to {@code state} and publishes its next version.
+     *
+     * @param changed receives the indices of the rows whose live fields changed;
+     *                holds at least {@code state.size()} entries
+     * @return the number of changed rows
+     */
+    int advance(MarketState state, int[] changed);
+
+    default void stop() {
+    }
+}
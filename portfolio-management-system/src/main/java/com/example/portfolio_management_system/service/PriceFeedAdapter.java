@@ -0,0 +1,202 @@
+package com.example.portfolio_management_system.service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded hand-off between a feed thread producing updates and the tick thread
+ * applying them.
+ * <p>
+ * At most {@code capacity} updates are handed to one tick: once that many have
+ * been offered since the last drain, {@link #offer} blocks until the tick drains
+ * them, so the feed slows to the rate the pipeline sustains rather than growing a
+ * backlog. Updates within one tick are merged per symbol: a newer update of a
+ * symbol still waiting replaces the older one, and the tick applies only the
+ * latest value of each symbol it moved.
+ * <p>
+ * Two batches are swapped on every drain, so steady-state hand-off allocates nothing.
+ */
+public class PriceFeedAdapter {
+
+    /** Confidence or signal value meaning "not in the update, keep the current one". */
+    public static final int UNCHANGED = -1;
+
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    private Batch pending;
+    private Batch draining;
+    // Updates offered since the last drain, merged ones included
+    private int pendingUpdates;
+
+    // Symbol index -> slot in pending + 1 (0 = not pending)
+    private int[] slotOf = new int[0];
+
+    private long offered;
+    private long conflated;
+    private long blockedNanos;
+    private boolean closed;
+
+    public PriceFeedAdapter(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.pending = new Batch(Math.min(this.capacity, 1024));
+        this.draining = new Batch(Math.min(this.capacity, 1024));
+    }
+
+    /**
+     * Queues one update, merging it into a pending update of the same symbol;
+     * blocks while {@code capacity} updates are waiting for the tick.
+     *
+     * @return false if the adapter was closed while waiting for room
+     */
+    public boolean offer(int symbol, double price, int confidence, int signal) throws InterruptedException {
+        lock.lock();
+        try {
+            offered++;
+            if (symbol >= slotOf.length) {
+                slotOf = Arrays.copyOf(slotOf, Math.max(symbol + 1, slotOf.length * 2));
+            }
+
+            long waitStart = 0;
+            while (pendingUpdates >= capacity) {
+                if (closed) return false;
+                if (waitStart == 0) waitStart = System.nanoTime();
+                notFull.await(100, TimeUnit.MILLISECONDS);
+            }
+            if (waitStart != 0) blockedNanos += System.nanoTime() - waitStart;
+
+            pendingUpdates++;
+            int slot = slotOf[symbol] - 1;
+            if (slot >= 0) {
+                // Fields the newer update leaves out keep the older update's values
+                pending.set(slot, symbol, price,
+                        confidence != UNCHANGED ? confidence : pending.confidences[slot],
+                        signal != UNCHANGED ? signal : pending.signals[slot]);
+                conflated++;
+            } else {
+                slotOf[symbol] = pending.add(symbol, price, confidence, signal) + 1;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes every pending update. The returned batch stays valid until the next
+     * call; tick thread only.
+     */
+    public Batch drain() {
+        lock.lock();
+        try {
+            Batch batch = pending;
+            pending = draining;
+            draining = batch;
+            pending.size = 0;
+            pendingUpdates = 0;
+
+            for (int k = 0; k < batch.size; k++) {
+                slotOf[batch.symbols[k]] = 0;
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Wakes a blocked producer and makes further offers fail. */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Distinct symbols waiting for the tick. */
+    public int pending() {
+        lock.lock();
+        try {
+            return pending.size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long offered() {
+        lock.lock();
+        try {
+            return offered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long conflated() {
+        lock.lock();
+        try {
+            return conflated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total time producers spent blocked on a full buffer. */
+    public long blockedNanos() {
+        lock.lock();
+        try {
+            return blockedNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Columns of conflated updates, one row per symbol. */
+    public static final class Batch {
+
+        private int[] symbols;
+        private double[] prices;
+        private int[] confidences;
+        private int[] signals;
+        private int size;
+
+        Batch(int capacity) {
+            symbols = new int[capacity];
+            prices = new double[capacity];
+            confidences = new int[capacity];
+            signals = new int[capacity];
+        }
+
+        private int add(int symbol, double price, int confidence, int signal) {
+            if (size == symbols.length) {
+                int capacity = size * 2;
+                symbols = Arrays.copyOf(symbols, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                confidences = Arrays.copyOf(confidences, capacity);
+                signals = Arrays.copyOf(signals, capacity);
+            }
+            set(size, symbol, price, confidence, signal);
+            return size++;
+        }
+
+        private void set(int slot, int symbol, double price, int confidence, int signal) {
+            symbols[slot] = symbol;
+            prices[slot] = price;
+            confidences[slot] = confidence;
+            signals[slot] = signal;
+        }
+
+        public int size() { return size; }
+        public int symbol(int k) { return symbols[k]; }
+        public double price(int k) { return prices[k]; }
+        public int confidence(int k) { return confidences[k]; }
+        public int signal(int k) { return signals[k]; }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.portfolio_management_system.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends every tick's changed rows to {@code market.feed.record.file} in the
+ * format {@link ReplayPriceFeed} reads, so a session can be replayed later.
+ * Refuses to record into the file being replayed, which would feed back into itself.
+ */
+@Component
+@ConditionalOnProperty(name = "market.feed.record.file")
+public class PriceFeedRecorder implements MarketTickListener {
+
+    private final MarketState marketState;
+    private final BufferedWriter out;
+
+    public PriceFeedRecorder(MarketState marketState,
+                             @Value("${market.feed.record.file}") String file,
+                             @Value("${market.feed.type:}") String feedType,
+                             @Value("${market.feed.replay.file:data/ticks.csv}") String replayFile) throws IOException {
+        this.marketState = marketState;
+
+        Path path = Path.of(file);
+        if ("replay".equals(feedType) && sameFile(path, Path.of(replayFile))) {
+            throw new IllegalStateException("market.feed.record.file must differ from market.feed.replay.file ("
+                    + replayFile + ")");
+        }
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        this.out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        System.out.println("⏺️ Recording ticks to " + path);
+    }
+
+    private static boolean sameFile(Path a, Path b) throws IOException {
+        if (Files.exists(a) && Files.exists(b)) return Files.isSameFile(a, b);
+        return a.toAbsolutePath().normalize().equals(b.toAbsolutePath().normalize());
+    }
+
+    @Override
+    public void onTick(MarketTick tick) {
+        try {
+            StringBuilder line = new StringBuilder(64);
+            for (int i : tick.changed()) {
+                line.setLength(0);
+                line.append(tick.timestamp()).append(',')
+                        .append(marketState.symbol(i)).append(',')
+                        .append(marketState.price(i)).append(',')
+                        .append(marketState.confidence(i)).append(',')
+                        .append(marketState.signal(i).name()).append('\n');
+                out.append(line);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        out.close();
+    }
+}
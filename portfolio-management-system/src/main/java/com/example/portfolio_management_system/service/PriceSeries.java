@@ -0,0 +1,176 @@
+package com.example.portfolio_management_system.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A price and confidence path for a fixed set of symbols, held tick-major in
+ * primitive columns ({@code price(t, s)} is {@code prices[t * symbols + s]}) so a
+ * backtest walks it sequentially. Confidences are held as bytes, clamped to 0-100.
+ * Immutable once built.
+ */
+public final class PriceSeries {
+
+    private final String[] symbols;
+    private final double[] volatilities;
+    private final int ticks;
+    private final double[] prices;
+    private final byte[] confidences;
+
+    private PriceSeries(String[] symbols, double[] volatilities, int ticks, double[] prices, byte[] confidences) {
+        this.symbols = symbols;
+        this.volatilities = volatilities;
+        this.ticks = ticks;
+        this.prices = prices;
+        this.confidences = confidences;
+    }
+
+    public int symbols() { return symbols.length; }
+    public int ticks() { return ticks; }
+    public String symbol(int s) { return symbols[s]; }
+    public double volatility(int s) { return volatilities[s]; }
+    public double price(int t, int s) { return prices[t * symbols.length + s]; }
+    public int confidence(int t, int s) { return confidences[t * symbols.length + s]; }
+
+    /** Tick-major price column; read-only. */
+    double[] prices() { return prices; }
+
+    /** Tick-major confidence column; read-only. */
+    byte[] confidences() { return confidences; }
+
+    /**
+     * Runs the market's random walk over the first {@code count} symbols, starting from
+     * their live price and confidence. Each symbol draws from its own stream split off
+     * {@code seed} in symbol order, so a seed always gives the same series.
+     */
+    public static PriceSeries generate(MarketState state, int count, int ticks, long seed) {
+
+        int n = Math.min(count, state.size());
+        String[] symbols = new String[n];
+        double[] volatilities = new double[n];
+        double[] prices = new double[n * ticks];
+        byte[] confidences = new byte[n * ticks];
+
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int s = 0; s < n; s++) {
+            SplittableRandom random = root.split();
+            symbols[s] = state.symbol(s);
+            double volatility = volatilities[s] = state.volatility(s);
+            double basePrice = state.basePrice(s);
+
+            double price = state.price(s);
+            int confidence = state.confidence(s);
+            prices[s] = price;
+            confidences[s] = confidence(confidence);
+
+            for (int t = 1; t < ticks; t++) {
+                double change = (random.nextDouble() * 2 - 1) * volatility;
+                price = MarketSimulationService.nextPrice(price, basePrice, change);
+                confidence = MarketSimulationService.nextConfidence(confidence, change, volatility);
+                prices[t * n + s] = price;
+                confidences[t * n + s] = confidence(confidence);
+            }
+        }
+        return new PriceSeries(symbols, volatilities, ticks, prices, confidences);
+    }
+
+    /**
+     * Loads a feed recorded by {@link PriceFeedRecorder}. Lines sharing a timestamp form
+     * one tick; a symbol missing from a tick keeps its last value, and before its first
+     * update takes that update's value. Symbols unknown to {@code state} are skipped, as
+     * they have no volatility.
+     *
+     * @throws IllegalArgumentException if the series would exceed {@code maxCells} entries
+     */
+    public static PriceSeries load(Path file, MarketState state, long maxCells) throws IOException {
+
+        // Pass 1: columns, first values and tick count
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> symbols = new ArrayList<>();
+        List<double[]> first = new ArrayList<>();
+        int ticks = 0;
+        long lastTimestamp = Long.MIN_VALUE;
+
+        try (BufferedReader in = ReplayPriceFeed.open(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                ReplayPriceFeed.Update update = parse(line);
+                if (update == null || state.indexOf(update.symbol()) < 0) continue;
+
+                if (update.timestamp() != lastTimestamp) {
+                    lastTimestamp = update.timestamp();
+                    ticks++;
+                }
+                if (!columns.containsKey(update.symbol())) {
+                    columns.put(update.symbol(), symbols.size());
+                    symbols.add(update.symbol());
+                    int i = state.indexOf(update.symbol());
+                    first.add(new double[]{update.price(),
+                            update.confidence() != PriceFeedAdapter.UNCHANGED ? update.confidence() : state.confidence(i)});
+                }
+            }
+        }
+
+        int n = symbols.size();
+        if ((long) n * ticks > maxCells) {
+            throw new IllegalArgumentException("Recorded series has " + n + " symbols x " + ticks
+                    + " ticks, above backtest.max-cells");
+        }
+
+        double[] volatilities = new double[n];
+        double[] prices = new double[n * ticks];
+        byte[] confidences = new byte[n * ticks];
+        for (int s = 0; s < n; s++) {
+            volatilities[s] = state.volatility(state.indexOf(symbols.get(s)));
+            prices[s] = first.get(s)[0];
+            confidences[s] = confidence((int) first.get(s)[1]);
+        }
+
+        // Pass 2: fill ticks, carrying each row forward before applying the tick's updates.
+        // A feed still being recorded may have grown since pass 1: stop at the ticks it counted
+        int t = -1;
+        lastTimestamp = Long.MIN_VALUE;
+        try (BufferedReader in = ReplayPriceFeed.open(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                ReplayPriceFeed.Update update = parse(line);
+                if (update == null) continue;
+                Integer s = columns.get(update.symbol());
+                if (s == null) continue;
+
+                if (update.timestamp() != lastTimestamp) {
+                    if (t + 1 == ticks) break;
+                    lastTimestamp = update.timestamp();
+                    if (++t > 0) {
+                        System.arraycopy(prices, (t - 1) * n, prices, t * n, n);
+                        System.arraycopy(confidences, (t - 1) * n, confidences, t * n, n);
+                    }
+                }
+                prices[t * n + s] = update.price();
+                if (update.confidence() != PriceFeedAdapter.UNCHANGED) {
+                    confidences[t * n + s] = confidence(update.confidence());
+                }
+            }
+        }
+
+        return new PriceSeries(symbols.toArray(String[]::new), volatilities, ticks, prices, confidences);
+    }
+
+    private static byte confidence(int value) {
+        return (byte) Math.max(0, Math.min(100, value));
+    }
+
+    private static ReplayPriceFeed.Update parse(String line) {
+        try {
+            return ReplayPriceFeed.parseLine(line);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.PriceQuote;
+import com.example.portfolio_management_system.dto.PriceUpdate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes market ticks to Server-Sent Events subscribers.
+ * <p>
+ * Each tick is serialised once into a shared frame, which is then queued for
+ * every subscriber. Delivery runs on a small fan-out pool (one virtual thread per
+ * drain when virtual threads are enabled), so a slow client never blocks the
+ * tick. A client whose queue is full is evicted; the browser's EventSource
+ * reconnects and starts again from a fresh snapshot.
+ */
+@Service
+public class PriceStreamService implements MarketTickListener {
+
+    private static final Frame HEARTBEAT = new Frame(null, null, null);
+
+    private final MarketState marketState;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int maxPendingFrames;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Executor fanout;
+
+    public PriceStreamService(MarketState marketState,
+                              ObjectMapper objectMapper,
+                              @Value("${stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${stream.max-pending-frames:8}") int maxPendingFrames,
+                              @Value("${stream.fanout-threads:4}") int fanoutThreads,
+                              Environment environment) {
+        this.marketState = marketState;
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.maxPendingFrames = maxPendingFrames;
+
+        this.fanout = Threading.VIRTUAL.isActive(environment)
+                ? virtualFanout()
+                : platformFanout(fanoutThreads);
+    }
+
+    // A blocking send parks only its own virtual thread, so no pool size to tune
+    private static Executor virtualFanout() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("price-stream-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    private static Executor platformFanout(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "price-stream-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // -----------------------------
+    // ✅ Subscription
+    // -----------------------------
+
+    public SseEmitter subscribe() {
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscribers.add(subscriber);
+
+        // New clients start from a full snapshot, then receive deltas
+        subscriber.enqueue(frame("snapshot", marketState.version(), allSymbols()));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // -----------------------------
+    // ✅ Publishing
+    // -----------------------------
+
+    @Override
+    public void onTick(MarketTick tick) {
+        if (subscribers.isEmpty() || tick.changedCount() == 0) return;
+
+        Frame frame = frame("prices", tick.version(), tick.changed());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(frame);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        if (fanout instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+    }
+
+    private int[] allSymbols() {
+        int n = marketState.size();
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++) all[i] = i;
+        return all;
+    }
+
+    private Frame frame(String event, long version, int[] indices) {
+
+        List<PriceQuote> quotes = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            quotes.add(PriceQuote.builder()
+                    .symbol(marketState.symbol(i))
+                    .currentPrice(marketState.price(i))
+                    .confidenceScore(marketState.confidence(i))
+                    .dumbMoneySignal(marketState.signal(i).name())
+                    .build());
+        }
+
+        PriceUpdate update = PriceUpdate.builder()
+                .version(version)
+                .timestamp(System.currentTimeMillis())
+                .quotes(quotes)
+                .build();
+
+        try {
+            return new Frame(String.valueOf(version), event, objectMapper.writeValueAsString(update));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise price update", e);
+        }
+    }
+
+    // -----------------------------
+    // ✅ Per-subscriber delivery
+    // -----------------------------
+
+    private record Frame(String id, String event, String json) {
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> pending = new ArrayBlockingQueue<>(maxPendingFrames);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Frame frame) {
+            if (!pending.offer(frame)) {
+                evict(new IllegalStateException("Slow consumer: " + maxPendingFrames + " frames pending"));
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                fanout.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Frame frame;
+                while ((frame = pending.poll()) != null) {
+                    if (frame == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().id(frame.id()).name(frame.event()).data(frame.json()));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                evict(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+
+            // A frame may have arrived after the last poll but before draining was cleared
+            if (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+                fanout.execute(this);
+            }
+        }
+
+        private void evict(Exception reason) {
+            if (subscribers.remove(this)) {
+                pending.clear();
+                emitter.completeWithError(reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.portfolio_management_system.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Holds the compiled recommendation {@link DecisionTable} and swaps in a new one
+ * when the rules file changes, so rule edits need no redeploy.
+ * <p>
+ * {@code recommendations.rules.location} takes a Spring resource location; point it
+ * at a file ({@code file:/etc/portfolio/recommendations.csv}) to edit rules live.
+ * A file that fails to parse is reported and the previous table stays in force.
+ */
+@Component
+public class RecommendationRules {
+
+    private final Resource resource;
+
+    private volatile DecisionTable table;
+    private volatile long lastModified;
+    // Last-modified time of the last file that failed to parse, reported once
+    private volatile long failedModified = -1;
+
+    public RecommendationRules(ResourceLoader resourceLoader,
+                               @Value("${recommendations.rules.location:classpath:rules/recommendations.csv}") String location) {
+        this.resource = resourceLoader.getResource(location);
+        this.lastModified = modified();
+        try {
+            this.table = load();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load recommendation rules from " + location, e);
+        }
+        System.out.println("📐 Recommendation rules loaded: " + table.rows() + " rows from " + location);
+    }
+
+    public DecisionTable current() {
+        return table;
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.rules.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+
+        long modified = modified();
+        if (modified == lastModified) return;
+
+        // A broken file is retried every run, so a fix saved within the same timestamp still loads
+        try {
+            table = load();
+            lastModified = modified;
+            System.out.println("📐 Recommendation rules reloaded: " + table.rows() + " rows");
+        } catch (IOException | IllegalArgumentException e) {
+            if (modified != failedModified) {
+                failedModified = modified;
+                System.out.println("⚠️ Recommendation rules not reloaded, keeping previous table: " + e.getMessage());
+            }
+        }
+    }
+
+    private DecisionTable load() throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            return DecisionTable.parse(resource.getDescription(), lines);
+        }
+    }
+
+    /** Last-modified time, or 0 where the resource cannot tell (e.g. inside a jar). */
+    private long modified() {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
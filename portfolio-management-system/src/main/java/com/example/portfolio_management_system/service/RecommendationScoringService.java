@@ -0,0 +1,105 @@
+package com.example.portfolio_management_system.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scores every position of every holder against the recommendation rules once
+ * per tick, after the aggregates have been marked to market, and publishes the
+ * number of positions per decision as {@code recommendations.positions}.
+ * <p>
+ * Positions are gathered from the aggregates into reused input columns and
+ * matched in blocks of {@code recommendations.scoring.block-size}, so a pass
+ * allocates nothing once the columns have grown. Off unless
+ * {@code recommendations.scoring.on-tick=true}.
+ */
+@Service
+@Order(200)
+public class RecommendationScoringService implements MarketTickListener {
+
+    private final PortfolioAggregateService aggregateService;
+    private final MarketState marketState;
+    private final RecommendationRules rules;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean onTick;
+    private final int blockSize;
+
+    // Tick thread only
+    private final DecisionTable.Inputs inputs;
+    private long[] counts = new long[0];
+
+    private final Map<String, AtomicLong> positions = new ConcurrentHashMap<>();
+
+    public RecommendationScoringService(PortfolioAggregateService aggregateService,
+                                        MarketState marketState,
+                                        RecommendationRules rules,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${recommendations.scoring.on-tick:false}") boolean onTick,
+                                        @Value("${recommendations.scoring.block-size:65536}") int blockSize) {
+        this.aggregateService = aggregateService;
+        this.marketState = marketState;
+        this.rules = rules;
+        this.meterRegistry = meterRegistry;
+        this.onTick = onTick;
+        this.blockSize = Math.max(1, blockSize);
+        this.inputs = new DecisionTable.Inputs(onTick ? this.blockSize : 0);
+    }
+
+    @Override
+    public void onTick(MarketTick tick) {
+        if (!onTick || !aggregateService.isReady()) return;
+        score();
+    }
+
+    /** One pass over all positions; returns the positions counted per decision code. */
+    public long[] score() {
+
+        DecisionTable table = rules.current();
+        List<String> decisions = table.decisions();
+        if (counts.length != decisions.size()) {
+            counts = new long[decisions.size()];
+        }
+        Arrays.fill(counts, 0);
+
+        inputs.clear();
+        for (HolderAggregate aggregate : aggregateService.all()) {
+            aggregate.appendScoringInputs(marketState, inputs);
+            if (inputs.size() >= blockSize) {
+                table.countDecisions(inputs, counts);
+                inputs.clear();
+            }
+        }
+        table.countDecisions(inputs, counts);
+        inputs.clear();
+
+        // Decisions dropped by a rules reload read zero
+        positions.forEach((decision, value) -> {
+            if (!decisions.contains(decision)) value.set(0);
+        });
+        for (int d = 0; d < counts.length; d++) {
+            gauge(decisions.get(d)).set(counts[d]);
+        }
+        return counts.clone();
+    }
+
+    private AtomicLong gauge(String decision) {
+        return positions.computeIfAbsent(decision, d -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("recommendations.positions", value, AtomicLong::get)
+                    .description("Positions per recommendation at the last scoring pass")
+                    .tag("decision", d)
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+}
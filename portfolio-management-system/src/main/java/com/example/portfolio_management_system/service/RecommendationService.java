@@ -1,10 +1,12 @@
 package com.example.portfolio_management_system.service;
 
+import com.example.portfolio_management_system.dto.HoldingView;
+import com.example.portfolio_management_system.dto.StockQuote;
 import com.example.portfolio_management_system.dto.StockRecommendation;
-import com.example.portfolio_management_system.model.Holding;
-import com.example.portfolio_management_system.model.Stock;
+import com.example.portfolio_management_system.model.DumbMoneySignal;
 import com.example.portfolio_management_system.repository.HoldingRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,52 +15,51 @@ import java.util.List;
 public class RecommendationService {
 
     private final HoldingRepository holdingRepository;
+    private final MarketState marketState;
+    private final RecommendationRules rules;
 
-    public RecommendationService(HoldingRepository holdingRepository) {
+    public RecommendationService(HoldingRepository holdingRepository,
+                                 MarketState marketState,
+                                 RecommendationRules rules) {
         this.holdingRepository = holdingRepository;
+        this.marketState = marketState;
+        this.rules = rules;
     }
 
+    @Transactional(readOnly = true)
     public List<StockRecommendation> getRecommendations(Long holderId) {
 
-        List<Holding> holdings = holdingRepository.findByHolderId(holderId);
+        List<HoldingView> holdings = holdingRepository.findViewsByHolderId(holderId);
         List<StockRecommendation> recommendations = new ArrayList<>();
+        DecisionTable table = rules.current();
 
-        for (Holding holding : holdings) {
+        for (HoldingView holding : holdings) {
 
-            Stock stock = holding.getStock();
+            StockQuote stock = holding.getStock();
+            // A holding whose stock row is gone has nothing to evaluate
+            if (stock == null) continue;
 
-            double buyPrice = holding.getAvgPrice();
-            double currentPrice = stock.getCurrentPrice();
+            // ✅ One symbol lookup for all live fields
+            int i = marketState.indexOf(stock.getSymbol());
 
-            double pnlPercent =
-                    ((currentPrice - buyPrice) / buyPrice) * 100;
+            double buyPrice = holding.getAvgPrice();
+            double currentPrice = i >= 0 ? marketState.price(i) : stock.getCurrentPrice();
 
-            String decision;
-            String reason;
+            double pnlPercent = DecisionTable.pnlPercent(buyPrice, currentPrice);
 
-            int confidence = stock.getConfidenceScore();
+            int confidence = i >= 0 ? marketState.confidence(i) : stock.getConfidenceScore();
             double volatility = stock.getVolatility();
 
+            int signalCode = i >= 0 ? marketState.signalCode(i)
+                    : (stock.getDumbMoneySignal() != null ? stock.getDumbMoneySignal() : DumbMoneySignal.NEUTRAL).ordinal();
+
             // ----------------------------
-            // AI RULE ENGINE
+            // AI RULE ENGINE (rules/recommendations.csv)
             // ----------------------------
 
-            if (confidence >= 75 && pnlPercent < 5 && volatility < 0.30) {
-                decision = "BUY";
-                reason = "High confidence, low volatility, growth potential";
-            }
-            else if (confidence >= 60 && pnlPercent >= 5) {
-                decision = "HOLD";
-                reason = "Good performance, stable confidence";
-            }
-            else if (confidence < 50 || pnlPercent < -8) {
-                decision = "SELL";
-                reason = "Low confidence or rising downside risk";
-            }
-            else {
-                decision = "HOLD";
-                reason = "Neutral signals, wait for clarity";
-            }
+            int rule = table.match(confidence, pnlPercent, volatility, signalCode);
+            String decision = rule >= 0 ? table.decision(rule) : "HOLD";
+            String reason = rule >= 0 ? table.reason(rule) : "No rule matched";
 
             recommendations.add(
                     StockRecommendation.builder()
@@ -77,4 +78,4 @@ public class RecommendationService {
 
         return recommendations;
     }
-}
\ No newline at end of file
+}
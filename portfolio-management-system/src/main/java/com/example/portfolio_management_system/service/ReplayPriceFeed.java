@@ -0,0 +1,262 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays recorded ticks from a local file in place of the random walk
+ * ({@code market.feed.type=replay}).
+ * <p>
+ * The file holds one update per line, oldest first:
+ * {@code timestamp,symbol,price[,confidence[,signal]]} with epoch-millis timestamps,
+ * as written by {@link PriceFeedRecorder}; a {@code .gz} file is read compressed.
+ * Missing confidence keeps the current one; a missing signal is re-evaluated.
+ * <p>
+ * A reader thread paces the updates at {@code market.feed.replay.speed} times the
+ * recorded rate ({@code 0}: as fast as the pipeline takes them) and hands them to
+ * the tick through a {@link PriceFeedAdapter}, which blocks the reader once
+ * {@code market.feed.buffer-size} updates wait for the tick. Updates within one
+ * tick are merged per symbol, so the tick applies each symbol's latest value.
+ */
+@Component
+@ConditionalOnProperty(name = "market.feed.type", havingValue = "replay")
+public class ReplayPriceFeed implements PriceFeed {
+
+    private static final DumbMoneySignal[] SIGNALS = DumbMoneySignal.values();
+
+    private final DumbMoneyService dumbMoneyService;
+    private final Path file;
+    private final double speed;
+    private final boolean loop;
+    private final PriceFeedAdapter adapter;
+
+    private final AtomicLong unknownSymbols = new AtomicLong();
+    private final AtomicLong malformedLines = new AtomicLong();
+    private volatile long lagMillis;
+    private volatile boolean finished;
+
+    private Thread reader;
+
+    public ReplayPriceFeed(DumbMoneyService dumbMoneyService,
+                           MeterRegistry meterRegistry,
+                           @Value("${market.feed.replay.file:data/ticks.csv}") String file,
+                           @Value("${market.feed.replay.speed:1}") double speed,
+                           @Value("${market.feed.replay.loop:false}") boolean loop,
+                           @Value("${market.feed.buffer-size:100000}") int bufferSize) {
+        this.dumbMoneyService = dumbMoneyService;
+        this.file = Path.of(file);
+        this.speed = speed;
+        this.loop = loop;
+        this.adapter = new PriceFeedAdapter(bufferSize);
+
+        if (speed < 0 || speed > 1000) {
+            throw new IllegalArgumentException("market.feed.replay.speed must be 0 (unpaced) or up to 1000");
+        }
+        if (!Files.isReadable(this.file)) {
+            throw new IllegalArgumentException("market.feed.replay.file not readable: " + this.file.toAbsolutePath());
+        }
+
+        FunctionCounter.builder("market.feed.updates", adapter, PriceFeedAdapter::offered)
+                .description("Updates read from the feed").register(meterRegistry);
+        FunctionCounter.builder("market.feed.conflated", adapter, PriceFeedAdapter::conflated)
+                .description("Updates replaced by a newer one of the same symbol before a tick").register(meterRegistry);
+        FunctionCounter.builder("market.feed.backpressure", adapter, a -> a.blockedNanos() / 1e9)
+                .description("Seconds the feed waited for the tick to drain a full buffer")
+                .baseUnit("seconds").register(meterRegistry);
+        FunctionCounter.builder("market.feed.unknown-symbols", unknownSymbols, AtomicLong::get)
+                .description("Updates of symbols missing from the market state").register(meterRegistry);
+        Gauge.builder("market.feed.pending", adapter, PriceFeedAdapter::pending)
+                .description("Symbols waiting for the next tick").register(meterRegistry);
+        Gauge.builder("market.feed.lag", this, f -> f.lagMillis)
+                .description("How far the replay runs behind its schedule").baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "replay";
+    }
+
+    @Override
+    public void start(MarketState state) {
+        System.out.println("📼 Replaying " + file + " at " + (speed > 0 ? speed + "x" : "full speed")
+                + (loop ? ", looping" : ""));
+        reader = new Thread(() -> replay(state), "price-feed-replay");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public void stop() {
+        adapter.close();
+        if (reader != null) reader.interrupt();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // -----------------------------
+    // Reader thread
+    // -----------------------------
+
+    private void replay(MarketState state) {
+        try {
+            do {
+                if (!replayOnce(state)) return;
+            } while (loop);
+            System.out.println("📼 Replay of " + file + " finished");
+        } catch (IOException e) {
+            System.out.println("⚠️ Replay of " + file + " failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finished = true;
+        }
+    }
+
+    /** @return false if the adapter was closed */
+    private boolean replayOnce(MarketState state) throws IOException, InterruptedException {
+
+        long firstTimestamp = Long.MIN_VALUE;
+        long startNanos = System.nanoTime();
+
+        try (BufferedReader in = open()) {
+            String line;
+            while ((line = in.readLine()) != null) {
+
+                Update update = parse(line);
+                if (update == null) continue;
+
+                int symbol = state.indexOf(update.symbol);
+                if (symbol < 0) {
+                    unknownSymbols.incrementAndGet();
+                    continue;
+                }
+
+                if (speed > 0) {
+                    if (firstTimestamp == Long.MIN_VALUE) firstTimestamp = update.timestamp;
+                    long due = startNanos + (long) ((update.timestamp - firstTimestamp) * 1_000_000 / speed);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                        if (Thread.interrupted()) throw new InterruptedException();
+                        lagMillis = 0;
+                    } else {
+                        lagMillis = -wait / 1_000_000;
+                    }
+                }
+
+                if (!adapter.offer(symbol, update.price, update.confidence, update.signal)) return false;
+            }
+        }
+        return true;
+    }
+
+    private BufferedReader open() throws IOException {
+        return open(file);
+    }
+
+    /** Opens a recorded feed, decompressing {@code .gz} files. */
+    static BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /** One line of a recorded feed; confidence and signal may be {@link PriceFeedAdapter#UNCHANGED}. */
+    record Update(long timestamp, String symbol, double price, int confidence, int signal) {
+    }
+
+    private Update parse(String line) {
+        try {
+            return parseLine(line);
+        } catch (IllegalArgumentException e) {
+            malformedLines.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * @return the update, or null for blank, comment and header lines
+     * @throws IllegalArgumentException for a malformed line, including a price that is
+     *                                  not a positive finite number or a confidence outside 0-100
+     */
+    static Update parseLine(String line) {
+
+        if (line.isBlank() || line.startsWith("#")) return null;
+        String[] cells = line.split(",", -1);
+        if (cells.length < 3 || cells[0].isEmpty() || !Character.isDigit(cells[0].charAt(0))) return null;
+
+        double price = Double.parseDouble(cells[2].strip());
+        if (!(price > 0) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException("Price must be a positive finite number: " + cells[2]);
+        }
+        int confidence = PriceFeedAdapter.UNCHANGED;
+        if (cells.length > 3 && !cells[3].isBlank()) {
+            confidence = Integer.parseInt(cells[3].strip());
+            if (confidence < 0 || confidence > 100) {
+                throw new IllegalArgumentException("Confidence must be between 0 and 100: " + cells[3]);
+            }
+        }
+        int signal = cells.length > 4 && !cells[4].isBlank()
+                ? DumbMoneySignal.valueOf(cells[4].strip()).ordinal() : PriceFeedAdapter.UNCHANGED;
+        return new Update(Long.parseLong(cells[0].strip()), cells[1].strip(), price, confidence, signal);
+    }
+
+    // -----------------------------
+    // Tick thread
+    // -----------------------------
+
+    @Override
+    public int advance(MarketState state, int[] changed) {
+
+        PriceFeedAdapter.Batch batch = adapter.drain();
+        long tickVersion = state.version() + 1;
+        int n = 0;
+
+        for (int k = 0; k < batch.size(); k++) {
+            int i = batch.symbol(k);
+            if (i >= state.size()) continue;
+
+            double price = batch.price(k);
+            int confidence = batch.confidence(k) != PriceFeedAdapter.UNCHANGED
+                    ? batch.confidence(k) : state.confidence(i);
+            DumbMoneySignal signal = batch.signal(k) != PriceFeedAdapter.UNCHANGED
+                    ? SIGNALS[batch.signal(k)] : dumbMoneyService.evaluate(state.volatility(i), confidence);
+
+            if (price != state.price(i) || confidence != state.confidence(i) || signal.ordinal() != state.signalCode(i)) {
+                state.set(i, price, confidence, signal, tickVersion);
+                changed[n++] = i;
+            }
+        }
+
+        // Listeners see changed rows in index order, as from the random walk
+        Arrays.sort(changed, 0, n);
+        state.publish(tickVersion);
+        return n;
+    }
+
+    public long malformedLines() {
+        return malformedLines.get();
+    }
+}
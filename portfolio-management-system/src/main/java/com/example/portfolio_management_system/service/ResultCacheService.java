@@ -0,0 +1,96 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.CacheStats;
+import com.example.portfolio_management_system.dto.DiversificationRecommendation;
+import com.example.portfolio_management_system.dto.PortfolioAnalyticsResponse;
+import com.example.portfolio_management_system.dto.StockRecommendation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches per-holder analytics, diversification and recommendation results
+ * until the next market tick or the next holding change for that holder.
+ * <p>
+ * Entries are keyed by the cache's own tick version, which only advances once
+ * every earlier listener (notably the portfolio aggregates) has applied the
+ * tick, so no result computed from half-updated state is cached as current.
+ * <p>
+ * Analytics and recommendations of holders the tick did not move are carried
+ * over to the new version rather than recomputed; diversification reads the
+ * market-wide covariance, which every tick changes, so it is always dropped.
+ */
+@Service
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ResultCacheService implements MarketTickListener {
+
+    private volatile long version;
+
+    private final PortfolioAggregateService aggregateService;
+    private final RecommendationRules rules;
+    private DecisionTable cachedRules;
+
+    private final TickAwareCache<PortfolioAnalyticsResponse> analytics;
+    private final TickAwareCache<List<DiversificationRecommendation>> diversification;
+    private final TickAwareCache<List<StockRecommendation>> recommendations;
+
+    public ResultCacheService(MeterRegistry meterRegistry,
+                              PortfolioAggregateService aggregateService,
+                              RecommendationRules rules,
+                              @Value("${cache.results.max-entries:10000}") int maxEntries) {
+        this.aggregateService = aggregateService;
+        this.rules = rules;
+        this.cachedRules = rules.current();
+        this.analytics = new TickAwareCache<>("analytics", maxEntries, meterRegistry);
+        this.diversification = new TickAwareCache<>("diversification", maxEntries, meterRegistry);
+        this.recommendations = new TickAwareCache<>("recommendations", maxEntries, meterRegistry);
+    }
+
+    public PortfolioAnalyticsResponse analytics(Long holderId, Supplier<PortfolioAnalyticsResponse> loader) {
+        return analytics.get(holderId, version, loader);
+    }
+
+    public List<DiversificationRecommendation> diversification(Long holderId,
+                                                               Supplier<List<DiversificationRecommendation>> loader) {
+        return diversification.get(holderId, version, loader);
+    }
+
+    public List<StockRecommendation> recommendations(Long holderId, Supplier<List<StockRecommendation>> loader) {
+        return recommendations.get(holderId, version, loader);
+    }
+
+    // ✅ A holding change only affects that holder's results
+    public void invalidateHolder(Long holderId) {
+        analytics.invalidate(holderId);
+        diversification.invalidate(holderId);
+        recommendations.invalidate(holderId);
+    }
+
+    @Override
+    public void onTick(MarketTick tick) {
+        version = tick.version();
+
+        LongPredicate moved = holderId -> aggregateService.isAffected(tick, holderId);
+        analytics.advance(tick.version(), moved);
+        diversification.evictOlderThan(tick.version());
+
+        // Reloaded rules change every holder's recommendations
+        DecisionTable current = rules.current();
+        if (current != cachedRules) {
+            cachedRules = current;
+            recommendations.evictOlderThan(tick.version());
+        } else {
+            recommendations.advance(tick.version(), moved);
+        }
+    }
+
+    public List<CacheStats> stats() {
+        return List.of(analytics.stats(), diversification.stats(), recommendations.stats());
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.RiskReport;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo Value-at-Risk and expected shortfall (CVaR) of holder portfolios.
+ * <p>
+ * Each stock's {@code volatility} is read as an annualised log-return volatility and
+ * scaled to the horizon ({@code sqrt(days / 252)}). Returns are correlated through a
+ * one-factor-per-level model: every path draws a market factor and one factor per
+ * sector, and a stock's shock is
+ * {@code market-loading * Zm + sector-loading * Zs + sqrt(1 - m² - s²) * e}.
+ * <p>
+ * Paths are cut into fixed chunks of {@code risk.var.chunk-paths}, each with its own
+ * {@link SplittableRandom} split in chunk order from {@code risk.var.seed}, and run on
+ * a dedicated fork-join pool. A result therefore depends only on the seed, the
+ * portfolio and the market prices, not on the number of cores. The inner loop works
+ * on primitive columns prepared once per request and allocates nothing per path.
+ */
+@Service
+public class RiskService {
+
+    private static final double TRADING_DAYS = 252.0;
+
+    private final MarketState marketState;
+    private final PortfolioAggregateService aggregateService;
+    private final ForkJoinPool pool;
+
+    private final long seed;
+    private final int chunkPaths;
+    private final int maxPaths;
+    private final double marketLoading;
+    private final double sectorLoading;
+    private final double idiosyncraticLoading;
+
+    private final double batchConfidence;
+    private final int batchHorizonDays;
+    private final int batchPaths;
+
+    private volatile Map<Long, RiskReport> nightly = Map.of();
+
+    public RiskService(MarketState marketState,
+                       PortfolioAggregateService aggregateService,
+                       @Value("${risk.var.seed:42}") long seed,
+                       @Value("${risk.var.parallelism:0}") int parallelism,
+                       @Value("${risk.var.chunk-paths:4096}") int chunkPaths,
+                       @Value("${risk.var.max-paths:1000000}") int maxPaths,
+                       @Value("${risk.var.market-loading:0.5}") double marketLoading,
+                       @Value("${risk.var.sector-loading:0.4}") double sectorLoading,
+                       @Value("${risk.batch.confidence:0.99}") double batchConfidence,
+                       @Value("${risk.batch.horizon:1d}") String batchHorizon,
+                       @Value("${risk.batch.paths:10000}") int batchPaths) {
+        this.marketState = marketState;
+        this.aggregateService = aggregateService;
+        this.seed = seed;
+        this.chunkPaths = Math.max(1, chunkPaths);
+        this.maxPaths = maxPaths;
+
+        if (marketLoading * marketLoading + sectorLoading * sectorLoading > 1) {
+            throw new IllegalArgumentException("risk.var market and sector loadings must satisfy m² + s² <= 1");
+        }
+        this.marketLoading = marketLoading;
+        this.sectorLoading = sectorLoading;
+        this.idiosyncraticLoading = Math.sqrt(1 - marketLoading * marketLoading - sectorLoading * sectorLoading);
+
+        this.batchConfidence = batchConfidence;
+        this.batchHorizonDays = parseHorizon(batchHorizon);
+        this.batchPaths = batchPaths;
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("risk-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Parses a horizon such as {@code 1d}, {@code 10d}, {@code 1w} or {@code 1m}
+     * into trading days (a week is 5, a month 21).
+     */
+    public static int parseHorizon(String horizon) {
+
+        if (horizon == null || horizon.length() < 2) {
+            throw new IllegalArgumentException("Horizon must look like 1d, 1w or 1m");
+        }
+
+        int unit = switch (Character.toLowerCase(horizon.charAt(horizon.length() - 1))) {
+            case 'd' -> 1;
+            case 'w' -> 5;
+            case 'm' -> 21;
+            default -> throw new IllegalArgumentException("Horizon unit must be d, w or m");
+        };
+
+        int n;
+        try {
+            n = Integer.parseInt(horizon.substring(0, horizon.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Horizon must look like 1d, 1w or 1m");
+        }
+        if (n <= 0 || n > 252 / unit) {
+            throw new IllegalArgumentException("Horizon must be between 1d and 1 year");
+        }
+        return n * unit;
+    }
+
+    /**
+     * Simulates the holder's live portfolio, splitting the paths across the pool.
+     *
+     * @return the report, or null if the holder is not tracked
+     */
+    public RiskReport valueAtRisk(Long holderId, double confidence, int horizonDays, int paths) {
+
+        if (!(confidence > 0.5 && confidence < 1)) {
+            throw new IllegalArgumentException("Confidence must be between 0.5 and 1");
+        }
+        if (paths < 100 || paths > maxPaths) {
+            throw new IllegalArgumentException("Paths must be between 100 and " + maxPaths);
+        }
+
+        HolderAggregate aggregate = aggregateService.get(holderId);
+        if (aggregate == null) return null;
+
+        HolderAggregate.Positions positions = aggregate.positions();
+        return simulate(holderId, aggregate.getHolderName(), positions.symbols(), positions.quantities(),
+                confidence, horizonDays, paths, null);
+    }
+
+    /**
+     * Runs the simulation for explicit positions at the current market prices.
+     *
+     * @param losses reusable buffer of at least {@code paths} entries; when given, the
+     *               paths run on the calling thread (batch mode), otherwise on the pool
+     */
+    public RiskReport simulate(Long holderId, String holderName, int[] symbols, int[] quantities,
+                               double confidence, int horizonDays, int paths, double[] losses) {
+
+        long start = System.nanoTime();
+        Model model = model(symbols, quantities, horizonDays);
+
+        boolean parallel = losses == null;
+        if (parallel) losses = new double[paths];
+
+        int chunks = (paths + chunkPaths - 1) / chunkPaths;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+
+        if (model.count > 0) {
+            if (parallel && chunks > 1) {
+                pool.invoke(new ChunkTask(model, randoms, losses, paths, 0, chunks));
+            } else {
+                double[] factors = new double[model.factorCount];
+                for (int c = 0; c < chunks; c++) {
+                    int from = c * chunkPaths;
+                    simulatePaths(model, randoms[c], losses, from, Math.min(paths, from + chunkPaths), factors);
+                }
+            }
+        } else {
+            Arrays.fill(losses, 0, paths, 0.0);
+        }
+
+        Arrays.sort(losses, 0, paths);
+
+        // VaR is the loss at the confidence quantile; CVaR averages the tail from it onwards
+        int cut = Math.min(paths - 1, (int) Math.ceil(confidence * paths) - 1);
+        double tail = 0;
+        for (int i = cut; i < paths; i++) tail += losses[i];
+        double total = 0;
+        for (int i = 0; i < paths; i++) total += losses[i];
+
+        double var = Math.max(0, losses[cut]);
+
+        return RiskReport.builder()
+                .holderId(holderId)
+                .holderName(holderName)
+                .confidence(confidence)
+                .horizonDays(horizonDays)
+                .paths(paths)
+                .positions(model.count)
+                .portfolioValue(round(model.totalValue))
+                .valueAtRisk(round(var))
+                .conditionalValueAtRisk(round(Math.max(0, tail / (paths - cut))))
+                .valueAtRiskPercent(model.totalValue > 0 ? round(var * 100 / model.totalValue) : 0.0)
+                .expectedPnl(round(-total / paths))
+                .worstLoss(round(Math.max(0, losses[paths - 1])))
+                .computedAt(System.currentTimeMillis())
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    /** Latest nightly result for the holder, or null before the first batch. */
+    public RiskReport nightly(Long holderId) {
+        return nightly.get(holderId);
+    }
+
+    // ✅ Nightly VaR for every holder: holders run in parallel, each on one thread with a reused buffer
+    @Scheduled(cron = "${risk.batch.cron:0 30 1 * * *}")
+    public void runNightlyBatch() {
+
+        if (!aggregateService.isReady()) return;
+
+        long start = System.currentTimeMillis();
+        HolderAggregate[] holders = aggregateService.all().toArray(new HolderAggregate[0]);
+        RiskReport[] reports = new RiskReport[holders.length];
+
+        pool.invoke(new BatchTask(holders, reports, 0, holders.length));
+
+        Map<Long, RiskReport> results = new ConcurrentHashMap<>(Math.max(16, holders.length * 2));
+        RiskReport largest = null;
+        for (RiskReport report : reports) {
+            results.put(report.getHolderId(), report);
+            if (largest == null || report.getValueAtRisk() > largest.getValueAtRisk()) largest = report;
+        }
+        nightly = results;
+
+        System.out.println("🌙 Nightly VaR (" + batchConfidence + ", " + batchHorizonDays + "d, " + batchPaths
+                + " paths) for " + holders.length + " holders in " + (System.currentTimeMillis() - start) + " ms"
+                + (largest != null ? "; largest " + largest.getValueAtRisk() + " (holder " + largest.getHolderId() + ")" : ""));
+    }
+
+    /** Collapses holdings per symbol and precomputes the per-position constants of the path loop. */
+    private Model model(int[] symbols, int[] quantities, int horizonDays) {
+
+        int n = symbols.length;
+        int[] unique = new int[n];
+        double[] values = new double[n];
+        int count = 0;
+
+        // Sort (symbol, index) pairs packed in longs so repeated symbols become adjacent
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) sorted[i] = (long) symbols[i] << 32 | i;
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < n; k++) {
+            int p = (int) sorted[k];
+            double value = marketState.price(symbols[p]) * quantities[p];
+            if (count > 0 && unique[count - 1] == symbols[p]) {
+                values[count - 1] += value;
+            } else {
+                unique[count] = symbols[p];
+                values[count] = value;
+                count++;
+            }
+        }
+
+        double scale = Math.sqrt(horizonDays / TRADING_DAYS);
+        double[] sigmas = new double[count];
+        double[] drifts = new double[count];
+        int[] factors = new int[count];
+        int[] sectorFactor = new int[Math.max(1, marketState.sectorCount())];
+        Arrays.fill(sectorFactor, -1);
+        int factorCount = 0;
+        double totalValue = 0;
+
+        for (int i = 0; i < count; i++) {
+            double sigma = marketState.volatility(unique[i]) * scale;
+            sigmas[i] = sigma;
+            drifts[i] = -0.5 * sigma * sigma;
+
+            int sector = marketState.sectorId(unique[i]);
+            if (sector >= sectorFactor.length) sectorFactor = grow(sectorFactor, sector + 1);
+            if (sectorFactor[sector] < 0) sectorFactor[sector] = factorCount++;
+            factors[i] = sectorFactor[sector];
+
+            totalValue += values[i];
+        }
+
+        return new Model(count, Arrays.copyOf(values, count), sigmas, drifts, factors, factorCount, totalValue);
+    }
+
+    private static int[] grow(int[] a, int capacity) {
+        int old = a.length;
+        int[] grown = Arrays.copyOf(a, capacity);
+        Arrays.fill(grown, old, capacity, -1);
+        return grown;
+    }
+
+    /** Fills {@code losses[from, to)} with simulated portfolio losses. */
+    private void simulatePaths(Model model, SplittableRandom random, double[] losses, int from, int to,
+                               double[] sectorDraws) {
+
+        double m = marketLoading;
+        double s = sectorLoading;
+        double e = idiosyncraticLoading;
+
+        for (int path = from; path < to; path++) {
+
+            double market = random.nextGaussian();
+            for (int f = 0; f < model.factorCount; f++) {
+                sectorDraws[f] = random.nextGaussian();
+            }
+
+            double pnl = 0;
+            for (int i = 0; i < model.count; i++) {
+                double z = m * market + s * sectorDraws[model.factors[i]] + e * random.nextGaussian();
+                pnl += model.values[i] * (Math.exp(model.drifts[i] + model.sigmas[i] * z) - 1);
+            }
+            losses[path] = -pnl;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /** Per-request constants, one entry per distinct symbol. */
+    private record Model(int count, double[] values, double[] sigmas, double[] drifts,
+                         int[] factors, int factorCount, double totalValue) {
+    }
+
+    /** Halves the chunk range until one chunk is left. */
+    private final class ChunkTask extends RecursiveAction {
+
+        private final Model model;
+        private final SplittableRandom[] randoms;
+        private final double[] losses;
+        private final int paths;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(Model model, SplittableRandom[] randoms, double[] losses, int paths, int lo, int hi) {
+            this.model = model;
+            this.randoms = randoms;
+            this.losses = losses;
+            this.paths = paths;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                int from = lo * chunkPaths;
+                simulatePaths(model, randoms[lo], losses, from, Math.min(paths, from + chunkPaths),
+                        new double[model.factorCount]);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new ChunkTask(model, randoms, losses, paths, lo, mid),
+                    new ChunkTask(model, randoms, losses, paths, mid, hi)
+            );
+        }
+    }
+
+    /** Splits the holder range into leaves of up to 64 holders sharing one loss buffer. */
+    private final class BatchTask extends RecursiveAction {
+
+        private static final int LEAF_HOLDERS = 64;
+
+        private final HolderAggregate[] holders;
+        private final RiskReport[] reports;
+        private final int lo;
+        private final int hi;
+
+        BatchTask(HolderAggregate[] holders, RiskReport[] reports, int lo, int hi) {
+            this.holders = holders;
+            this.reports = reports;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= LEAF_HOLDERS) {
+                double[] losses = new double[batchPaths];
+                for (int h = lo; h < hi; h++) {
+                    HolderAggregate aggregate = holders[h];
+                    HolderAggregate.Positions positions = aggregate.positions();
+                    reports[h] = simulate(aggregate.getHolderId(), aggregate.getHolderName(),
+                            positions.symbols(), positions.quantities(),
+                            batchConfidence, batchHorizonDays, batchPaths, losses);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new BatchTask(holders, reports, lo, mid),
+                    new BatchTask(holders, reports, mid, hi)
+            );
+        }
+    }
+}
@@ -0,0 +1,531 @@
+package com.example.portfolio_management_system.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped log of fixed-width per-symbol records.
+ * <p>
+ * The log is a sequence of segment files ({@code 00000042.seg}), each covering at
+ * most {@code segmentMillis} of wall-clock time or {@code segmentBytes} of records.
+ * A segment is a 64-byte header followed by records of
+ * {@code RECORD_PREFIX_BYTES + payloadBytes}:
+ * <pre>
+ *   int    millis since segment start
+ *   int    symbol id
+ *   int    record number of the previous record of the same symbol (-1 if none)
+ *   ...    payload, written and read by the caller
+ * </pre>
+ * The back pointers chain each symbol's records, so a range scan reads only that
+ * symbol's records, straight out of the mapping, newest first. When a segment is
+ * sealed, the chain heads (one int per symbol) are appended as a footer and the
+ * file is truncated to its used length. Segments left unsealed by a crash are
+ * rebuilt and sealed on startup.
+ * <p>
+ * Symbol ids are log-local and listed one per line in {@code symbols.txt}; new
+ * symbols are buffered and written out once per {@link #append}, before the
+ * records that reference them.
+ * There is a single writer; readers only take the read lock while walking the
+ * active segment.
+ */
+public class SegmentLog implements AutoCloseable {
+
+    private static final int MAGIC = 0x50544B48; // "PTKH"
+    private static final int FORMAT_VERSION = 1;
+
+    public static final int HEADER_BYTES = 64;
+    public static final int RECORD_PREFIX_BYTES = 12;
+
+    // A mapping is at most 2 GB; keep records plus footer well inside it
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    // Header offsets
+    private static final int H_MAGIC = 0;
+    private static final int H_FORMAT = 4;
+    private static final int H_START = 8;
+    private static final int H_END = 16;
+    private static final int H_COUNT = 24;
+    private static final int H_SEALED = 28;
+    private static final int H_HEADS = 32;
+    private static final int H_RECORD = 36;
+
+    // Record prefix offsets
+    private static final int R_DELTA = 0;
+    private static final int R_SYMBOL = 4;
+    private static final int R_PREV = 8;
+
+    /** Writes the payload of row {@code row} at {@code offset}. */
+    @FunctionalInterface
+    public interface PayloadWriter {
+        void write(ByteBuffer buffer, int offset, int row);
+    }
+
+    /** Receives one record's payload at {@code offset}. */
+    @FunctionalInterface
+    public interface PayloadReader {
+        void read(ByteBuffer buffer, int offset, long timestamp);
+    }
+
+    private final Path dir;
+    private final Path symbolsFile;
+    private final int recordBytes;
+    private final long segmentMillis;
+    private final int segmentRecords;
+    private final long retentionMillis;
+
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+    // Opened on the first new symbol and kept open (writer thread only)
+    private BufferedWriter symbolsWriter;
+    private boolean symbolsPending;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantReadWriteLock activeLock = new ReentrantReadWriteLock();
+    private Segment active;
+    private long nextSequence;
+
+    /**
+     * @param payloadBytes    bytes per record after the 12-byte prefix
+     * @param segmentMillis   wall-clock span of one segment (at most ~24 days, record deltas are ints)
+     * @param segmentBytes    maximum size of one segment file
+     * @param retentionMillis segments ending before {@code now - retentionMillis} are deleted on roll;
+     *                        0 keeps everything
+     */
+    public SegmentLog(Path dir, int payloadBytes, long segmentMillis, long segmentBytes, long retentionMillis) {
+
+        if (segmentMillis <= 0 || segmentMillis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentMillis must be in (0, " + Integer.MAX_VALUE + "]");
+        }
+
+        this.dir = dir;
+        this.symbolsFile = dir.resolve("symbols.txt");
+        this.recordBytes = RECORD_PREFIX_BYTES + payloadBytes;
+        this.segmentMillis = segmentMillis;
+        this.segmentRecords = (int) Math.max(1,
+                (Math.min(MAX_SEGMENT_BYTES, segmentBytes) - HEADER_BYTES) / recordBytes);
+        this.retentionMillis = retentionMillis;
+
+        try {
+            Files.createDirectories(dir);
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open segment log in " + dir, e);
+        }
+    }
+
+    // -----------------------------
+    // ✅ Startup
+    // -----------------------------
+
+    private void open() throws IOException {
+
+        if (Files.exists(symbolsFile)) {
+            for (String symbol : Files.readAllLines(symbolsFile, StandardCharsets.UTF_8)) {
+                if (!symbol.isEmpty()) {
+                    symbolIds.put(symbol, symbols.size());
+                    symbols.add(symbol);
+                }
+            }
+        }
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+
+        for (Path file : files) {
+            long sequence = Long.parseLong(file.getFileName().toString().replace(".seg", ""));
+            Segment segment = Segment.open(file, recordBytes);
+
+            // A segment left open by a crash or kill: rebuild its chain heads and seal it
+            if (!segment.sealed) {
+                segment.seal(symbols.size());
+            }
+            segments.add(segment);
+            nextSequence = sequence + 1;
+        }
+    }
+
+    // -----------------------------
+    // ✅ Symbols
+    // -----------------------------
+
+    /**
+     * @return the symbol's log id, registering it if needed (writer thread only); a new
+     *         symbol reaches {@code symbols.txt} with the next {@link #append}
+     */
+    public int symbolId(String symbol) {
+
+        Integer id = symbolIds.get(symbol);
+        if (id != null) return id;
+
+        try {
+            if (symbolsWriter == null) {
+                symbolsWriter = Files.newBufferedWriter(symbolsFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            symbolsWriter.write(symbol);
+            symbolsWriter.write('\n');
+            symbolsPending = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot register symbol " + symbol, e);
+        }
+
+        synchronized (symbols) {
+            symbols.add(symbol);
+            symbolIds.put(symbol, symbols.size() - 1);
+            return symbols.size() - 1;
+        }
+    }
+
+    private void flushSymbols() {
+        if (!symbolsPending) return;
+        try {
+            symbolsWriter.flush();
+            symbolsPending = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + symbolsFile, e);
+        }
+    }
+
+    /** @return the symbol's log id, or -1 if it has never been recorded */
+    public int findSymbol(String symbol) {
+        synchronized (symbols) {
+            Integer id = symbolIds.get(symbol);
+            return id != null ? id : -1;
+        }
+    }
+
+    // -----------------------------
+    // ✅ Writes
+    // -----------------------------
+
+    /**
+     * Appends rows {@code [0, count)}, all stamped with {@code timestamp}; {@code payload}
+     * writes each row's fields. Rolls the active segment first when its time span or
+     * capacity is exhausted.
+     */
+    public void append(long timestamp, int count, int[] symbolIds, PayloadWriter payload) {
+
+        // Names first, so no record on disk references an unknown id
+        flushSymbols();
+
+        activeLock.writeLock().lock();
+        try {
+            for (int i = 0; i < count; i++) {
+
+                if (active == null
+                        || timestamp - active.start >= segmentMillis
+                        || active.count == segmentRecords) {
+                    roll(timestamp);
+                }
+
+                int offset = active.append(timestamp, symbolIds[i]);
+                payload.write(active.buffer, offset + RECORD_PREFIX_BYTES, i);
+            }
+            if (active != null) {
+                active.publish(timestamp);
+            }
+        } finally {
+            activeLock.writeLock().unlock();
+        }
+    }
+
+    private void roll(long timestamp) {
+        try {
+            if (active != null) {
+                active.seal(symbols.size());
+            }
+
+            Path file = dir.resolve(String.format("%08d.seg", nextSequence));
+            active = Segment.create(file, recordBytes, timestamp, segmentRecords);
+            nextSequence++;
+            segments.add(active);
+
+            if (retentionMillis > 0) {
+                purgeBefore(timestamp - retentionMillis);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll segment in " + dir, e);
+        }
+    }
+
+    private void purgeBefore(long cutoff) throws IOException {
+        for (Segment segment : segments) {
+            if (segment != active && segment.end < cutoff) {
+                segments.remove(segment);
+                // Readers still holding the mapping keep working; the file is gone once they drop it
+                Files.deleteIfExists(segment.file);
+            }
+        }
+    }
+
+    /** Forces the active segment to disk. */
+    public void flush() {
+        activeLock.readLock().lock();
+        try {
+            if (active != null) active.buffer.force();
+        } finally {
+            activeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        activeLock.writeLock().lock();
+        try {
+            flushSymbols();
+            if (symbolsWriter != null) {
+                symbolsWriter.close();
+                symbolsWriter = null;
+            }
+            if (active != null) {
+                active.seal(symbols.size());
+                active = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot seal segment in " + dir, e);
+        } finally {
+            activeLock.writeLock().unlock();
+        }
+    }
+
+    // -----------------------------
+    // ✅ Reads
+    // -----------------------------
+
+    /**
+     * Passes the symbol's records with {@code from <= timestamp <= to} to {@code reader},
+     * newest first, stopping after {@code maxRecords}.
+     *
+     * @return the number of records read
+     */
+    public int scan(int symbolId, long from, long to, int maxRecords, PayloadReader reader) {
+
+        if (symbolId < 0 || maxRecords <= 0) return 0;
+
+        int read = 0;
+        List<Segment> snapshot = new ArrayList<>(segments);
+        for (int s = snapshot.size() - 1; s >= 0 && read < maxRecords; s--) {
+
+            Segment segment = snapshot.get(s);
+            if (segment.start > to) continue;
+
+            if (segment.sealed) {
+                if (segment.end < from) break;
+                read += segment.scan(segment.head(symbolId), from, to, maxRecords - read, reader);
+            } else {
+                activeLock.readLock().lock();
+                try {
+                    // Sealed by the writer while we waited: the footer holds the heads now
+                    int head = segment.sealed ? segment.head(symbolId) : segment.liveHead(symbolId);
+                    read += segment.scan(head, from, to, maxRecords - read, reader);
+                } finally {
+                    activeLock.readLock().unlock();
+                }
+            }
+        }
+        return read;
+    }
+
+    /** Number of segment files currently retained. */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    // -----------------------------
+    // ✅ Segment file
+    // -----------------------------
+
+    private static final class Segment {
+
+        final Path file;
+        final int recordBytes;
+        final long start;
+
+        volatile MappedByteBuffer buffer;
+        volatile boolean sealed;
+        volatile int count;
+        volatile long end;
+
+        // Chain heads of the active segment; sealed segments read them from the footer
+        private int[] heads;
+        private int headCount;
+
+        private Segment(Path file, int recordBytes, long start) {
+            this.file = file;
+            this.recordBytes = recordBytes;
+            this.start = start;
+        }
+
+        static Segment create(Path file, int recordBytes, long start, int capacity) throws IOException {
+
+            Segment segment = new Segment(file, recordBytes, start);
+            segment.buffer = map(file, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) capacity * recordBytes);
+            segment.heads = new int[1024];
+            Arrays.fill(segment.heads, -1);
+            segment.end = start;
+
+            MappedByteBuffer b = segment.buffer;
+            b.putInt(H_MAGIC, MAGIC);
+            b.putInt(H_FORMAT, FORMAT_VERSION);
+            b.putLong(H_START, start);
+            b.putLong(H_END, start);
+            b.putInt(H_COUNT, 0);
+            b.putInt(H_SEALED, 0);
+            b.putInt(H_RECORD, recordBytes);
+            return segment;
+        }
+
+        static Segment open(Path file, int recordBytes) throws IOException {
+
+            MappedByteBuffer b = map(file, FileChannel.MapMode.READ_ONLY, Files.size(file));
+            if (b.capacity() < HEADER_BYTES || b.getInt(H_MAGIC) != MAGIC
+                    || b.getInt(H_FORMAT) != FORMAT_VERSION || b.getInt(H_RECORD) != recordBytes) {
+                throw new IOException("Not a segment of this log: " + file);
+            }
+
+            Segment segment = new Segment(file, recordBytes, b.getLong(H_START));
+            segment.buffer = b;
+            segment.count = b.getInt(H_COUNT);
+            segment.end = b.getLong(H_END);
+            segment.sealed = b.getInt(H_SEALED) != 0;
+            segment.headCount = b.getInt(H_HEADS);
+            return segment;
+        }
+
+        private static MappedByteBuffer map(Path file, FileChannel.MapMode mode, long size) throws IOException {
+            StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                    ? new StandardOpenOption[]{StandardOpenOption.READ}
+                    : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+            try (FileChannel channel = FileChannel.open(file, options)) {
+                MappedByteBuffer buffer = channel.map(mode, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                return buffer;
+            }
+        }
+
+        /** Writes the record prefix (writer thread, under the write lock) and returns the record offset. */
+        int append(long timestamp, int symbol) {
+
+            int record = count;
+            if (symbol >= heads.length) {
+                int old = heads.length;
+                heads = Arrays.copyOf(heads, Math.max(symbol + 1, old * 2));
+                Arrays.fill(heads, old, heads.length, -1);
+            }
+
+            int offset = HEADER_BYTES + record * recordBytes;
+            MappedByteBuffer b = buffer;
+            b.putInt(offset + R_DELTA, (int) (timestamp - start));
+            b.putInt(offset + R_SYMBOL, symbol);
+            b.putInt(offset + R_PREV, heads[symbol]);
+
+            heads[symbol] = record;
+            headCount = Math.max(headCount, symbol + 1);
+            count = record + 1;
+            return offset;
+        }
+
+        void publish(long timestamp) {
+            end = timestamp;
+            buffer.putLong(H_END, timestamp);
+            buffer.putInt(H_COUNT, count);
+        }
+
+        int liveHead(int symbol) {
+            return symbol < heads.length ? heads[symbol] : -1;
+        }
+
+        int head(int symbol) {
+            if (symbol >= headCount) return -1;
+            return buffer.getInt(HEADER_BYTES + count * recordBytes + symbol * 4);
+        }
+
+        /** Walks the chain from {@code record} backwards, newest first. */
+        int scan(int record, long from, long to, int maxRecords, PayloadReader reader) {
+
+            MappedByteBuffer b = buffer;
+            int read = 0;
+            while (record >= 0 && read < maxRecords) {
+
+                int offset = HEADER_BYTES + record * recordBytes;
+                long timestamp = start + b.getInt(offset + R_DELTA);
+                if (timestamp < from) break;
+
+                if (timestamp <= to) {
+                    reader.read(b, offset + RECORD_PREFIX_BYTES, timestamp);
+                    read++;
+                }
+                record = b.getInt(offset + R_PREV);
+            }
+            return read;
+        }
+
+        /**
+         * Writes the chain heads as a footer, marks the segment sealed, truncates the
+         * file to its used length and remaps it read-only.
+         */
+        void seal(int symbolCount) throws IOException {
+
+            MappedByteBuffer b = buffer;
+            int records = count;
+
+            // Unsealed segment found on startup: rebuild the heads from the records
+            if (heads == null) {
+                heads = new int[Math.max(symbolCount, 1)];
+                Arrays.fill(heads, -1);
+                b = map(file, FileChannel.MapMode.READ_WRITE, Files.size(file));
+                for (int r = 0; r < records; r++) {
+                    int symbol = b.getInt(HEADER_BYTES + r * recordBytes + R_SYMBOL);
+                    if (symbol >= heads.length) {
+                        int old = heads.length;
+                        heads = Arrays.copyOf(heads, Math.max(symbol + 1, old * 2));
+                        Arrays.fill(heads, old, heads.length, -1);
+                    }
+                    heads[symbol] = r;
+                    headCount = Math.max(headCount, symbol + 1);
+                }
+            }
+
+            long footer = HEADER_BYTES + (long) records * recordBytes;
+            long length = footer + (long) headCount * 4;
+
+            // The footer may not fit behind the last record of a full mapping; write it through the channel
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer out = ByteBuffer.allocate(headCount * 4).order(ByteOrder.LITTLE_ENDIAN);
+                for (int s = 0; s < headCount; s++) out.putInt(heads[s]);
+                out.flip();
+                channel.write(out, footer);
+
+                b.putInt(H_COUNT, records);
+                b.putInt(H_HEADS, headCount);
+                b.putInt(H_SEALED, 1);
+                b.force();
+                channel.truncate(length);
+                channel.force(true);
+            }
+
+            buffer = map(file, FileChannel.MapMode.READ_ONLY, length);
+            heads = null;
+            sealed = true;
+        }
+    }
+}
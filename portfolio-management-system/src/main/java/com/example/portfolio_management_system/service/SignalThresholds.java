@@ -0,0 +1,28 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+
+/**
+ * Cut-offs of the dumb-money signal: high volatility with low confidence is
+ * {@link DumbMoneySignal#DUMB_MONEY}, low volatility with high confidence is
+ * {@link DumbMoneySignal#SMART_MONEY}, anything else is neutral. All bounds are strict.
+ */
+public record SignalThresholds(double dumbVolatility, int dumbConfidence,
+                               double smartVolatility, int smartConfidence) {
+
+    /** The thresholds the live market uses. */
+    public static final SignalThresholds DEFAULT = new SignalThresholds(0.35, 70, 0.25, 85);
+
+    public DumbMoneySignal evaluate(double volatility, int confidence) {
+
+        if (volatility > dumbVolatility && confidence < dumbConfidence) {
+            return DumbMoneySignal.DUMB_MONEY;
+        }
+
+        if (volatility < smartVolatility && confidence > smartConfidence) {
+            return DumbMoneySignal.SMART_MONEY;
+        }
+
+        return DumbMoneySignal.NEUTRAL;
+    }
+}
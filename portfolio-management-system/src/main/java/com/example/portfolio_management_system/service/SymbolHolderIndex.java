@@ -0,0 +1,216 @@
+package com.example.portfolio_management_system.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inverted index from a {@link MarketState} symbol index to the holders holding it.
+ * <p>
+ * Holders get dense ordinals; each symbol's posting list is a pair of primitive
+ * columns (holder ordinal, quantity), so the index costs 8 bytes per holding.
+ * Consecutive holdings of the same holder and symbol share one posting, others
+ * get one each, so a holder may appear more than once in a list.
+ * <p>
+ * {@link #collect} turns the symbols a tick changed into the distinct holders
+ * owning any of them, deduplicated with an epoch stamp per ordinal, so the cost
+ * follows the postings touched rather than the number of holders.
+ */
+public class SymbolHolderIndex {
+
+    /** Receives one posting of a symbol. */
+    @FunctionalInterface
+    public interface PostingHandler {
+        void accept(HolderAggregate holder, int quantity);
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Holders by ordinal
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private HolderAggregate[] holders = new HolderAggregate[1024];
+    private int holderCount;
+
+    // Posting lists by symbol index
+    private int[][] postingHolders = new int[0][];
+    private int[][] postingQuantities = new int[0][];
+    private int[] postingSizes = new int[0];
+    private long postingCount;
+
+    // Result of the last collect (tick thread)
+    private int[] stamps = new int[1024];
+    private int epoch;
+    private HolderAggregate[] affected = new HolderAggregate[1024];
+    private int affectedCount;
+
+    /** Records {@code quantity} units of {@code symbol} held by the aggregate's holder. */
+    public void add(HolderAggregate holder, int symbol, int quantity) {
+        lock.lock();
+        try {
+            int ordinal = ordinal(holder);
+            ensureSymbol(symbol);
+
+            int size = postingSizes[symbol];
+            int[] owners = postingHolders[symbol];
+            if (size > 0 && owners[size - 1] == ordinal) {
+                postingQuantities[symbol][size - 1] += quantity;
+                return;
+            }
+
+            if (owners == null || size == owners.length) {
+                int capacity = owners == null ? 4 : size * 2;
+                postingHolders[symbol] = owners = owners == null ? new int[capacity] : Arrays.copyOf(owners, capacity);
+                postingQuantities[symbol] = postingQuantities[symbol] == null
+                        ? new int[capacity] : Arrays.copyOf(postingQuantities[symbol], capacity);
+            }
+            owners[size] = ordinal;
+            postingQuantities[symbol][size] = quantity;
+            postingSizes[symbol] = size + 1;
+            postingCount++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int ordinal(HolderAggregate holder) {
+        Integer ordinal = ordinals.get(holder.getHolderId());
+        if (ordinal != null) return ordinal;
+
+        if (holderCount == holders.length) {
+            holders = Arrays.copyOf(holders, holderCount * 2);
+        }
+        holders[holderCount] = holder;
+        ordinals.put(holder.getHolderId(), holderCount);
+        return holderCount++;
+    }
+
+    private void ensureSymbol(int symbol) {
+        if (symbol >= postingSizes.length) {
+            int capacity = Math.max(symbol + 1, postingSizes.length * 2);
+            postingHolders = Arrays.copyOf(postingHolders, capacity);
+            postingQuantities = Arrays.copyOf(postingQuantities, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+        }
+    }
+
+    /**
+     * Collects the distinct holders of any of {@code symbols}; read them with
+     * {@link #affected(int)}. Tick thread only: the result is kept until the next call.
+     *
+     * @return the number of holders collected
+     */
+    public int collect(int[] symbols) {
+        lock.lock();
+        try {
+            if (stamps.length < holderCount) {
+                stamps = Arrays.copyOf(stamps, holders.length);
+            }
+            if (++epoch == 0) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+
+            int n = 0;
+            for (int symbol : symbols) {
+                if (symbol >= postingSizes.length) continue;
+                int[] owners = postingHolders[symbol];
+                for (int p = 0, size = postingSizes[symbol]; p < size; p++) {
+                    int ordinal = owners[p];
+                    if (stamps[ordinal] != epoch) {
+                        stamps[ordinal] = epoch;
+                        if (n == affected.length) {
+                            affected = Arrays.copyOf(affected, n * 2);
+                        }
+                        affected[n++] = holders[ordinal];
+                    }
+                }
+            }
+            affectedCount = n;
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The {@code k}-th holder of the last {@link #collect}. */
+    public HolderAggregate affected(int k) {
+        return affected[k];
+    }
+
+    /** Whether the last {@link #collect} included the holder; unknown holders count as included. */
+    public boolean wasCollected(Long holderId) {
+        lock.lock();
+        try {
+            Integer ordinal = ordinals.get(holderId);
+            return ordinal == null || ordinal >= stamps.length || stamps[ordinal] == epoch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Visits every posting of {@code symbol} under the index lock. */
+    public void forEachPosting(int symbol, PostingHandler handler) {
+        lock.lock();
+        try {
+            if (symbol < 0 || symbol >= postingSizes.length) return;
+            int[] owners = postingHolders[symbol];
+            int[] quantities = postingQuantities[symbol];
+            for (int p = 0, size = postingSizes[symbol]; p < size; p++) {
+                handler.accept(holders[owners[p]], quantities[p]);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of postings of {@code symbol}. */
+    public int postings(int symbol) {
+        lock.lock();
+        try {
+            return symbol >= 0 && symbol < postingSizes.length ? postingSizes[symbol] : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total postings of {@code symbols}: an upper bound on the holders {@link #collect} would return. */
+    public long postings(int[] symbols) {
+        lock.lock();
+        try {
+            long total = 0;
+            for (int symbol : symbols) {
+                if (symbol < postingSizes.length) total += postingSizes[symbol];
+            }
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long postingCount() {
+        lock.lock();
+        try {
+            return postingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            ordinals.clear();
+            Arrays.fill(holders, 0, holderCount, null);
+            holderCount = 0;
+            postingHolders = new int[0][];
+            postingQuantities = new int[0][];
+            postingSizes = new int[0];
+            postingCount = 0;
+            Arrays.fill(affected, 0, affectedCount, null);
+            affectedCount = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
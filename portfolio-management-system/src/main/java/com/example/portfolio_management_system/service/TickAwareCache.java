@@ -0,0 +1,201 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded per-holder result cache keyed by holder ID and market version.
+ * <p>
+ * An entry is only served for the version it was computed at, so a new tick
+ * invalidates it implicitly; {@link #evictOlderThan} drops such entries eagerly
+ * and {@link #invalidate} drops one holder after a holding change. Concurrent
+ * misses for the same key share one computation. The least recently used entry
+ * is evicted once the cache is full.
+ */
+public class TickAwareCache<V> {
+
+    private final String name;
+    private final int maxEntries;
+
+    // Not a monitor: request threads contend here, and a blocked virtual thread must not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TickAwareCache(String name, int maxEntries, MeterRegistry registry) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+
+        FunctionCounter.builder("cache.results.gets", hits, AtomicLong::get)
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.results.gets", misses, AtomicLong::get)
+                .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.results.gets", coalesced, AtomicLong::get)
+                .tag("cache", name).tag("result", "coalesced").register(registry);
+        FunctionCounter.builder("cache.results.evictions", evictions, AtomicLong::get)
+                .tag("cache", name).register(registry);
+        Gauge.builder("cache.results.size", this, TickAwareCache::size)
+                .tag("cache", name).register(registry);
+    }
+
+    public V get(Long holderId, long version, Supplier<V> loader) {
+
+        CompletableFuture<V> future;
+        boolean owner = false;
+
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(holderId);
+
+            if (entry != null && entry.version == version) {
+                future = entry.future;
+                if (future.isDone()) hits.incrementAndGet();
+                else coalesced.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                future = new CompletableFuture<>();
+                owner = true;
+
+                // A request that read an older version must not replace a newer entry
+                if (entry == null || entry.version < version) {
+                    entries.put(holderId, new Entry<>(version, future));
+                    evictOverflow();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (owner) {
+            try {
+                future.complete(loader.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                removeIfSame(holderId, future);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, Entry<V>>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void removeIfSame(Long holderId, CompletableFuture<V> future) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(holderId);
+            if (entry != null && entry.future == future) {
+                entries.remove(holderId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long holderId) {
+        lock.lock();
+        try {
+            if (entries.remove(holderId) != null) {
+                invalidations.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops every entry computed before {@code version}. */
+    public void evictOlderThan(long version) {
+        lock.lock();
+        try {
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().version < version) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Carries entries computed before {@code version} over to it unless {@code stale}
+     * says the tick changed their inputs; those, and unfinished ones, are dropped.
+     */
+    public void advance(long version, LongPredicate stale) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<Long, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Entry<V>> e = it.next();
+                Entry<V> entry = e.getValue();
+                if (entry.version >= version) continue;
+
+                if (entry.future.isDone() && !entry.future.isCompletedExceptionally() && !stale.test(e.getKey())) {
+                    e.setValue(new Entry<>(version, entry.future));
+                } else {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return CacheStats.builder()
+                .name(name)
+                .size(size())
+                .maxEntries(maxEntries)
+                .hits(hits.get())
+                .misses(misses.get())
+                .coalesced(coalesced.get())
+                .evictions(evictions.get())
+                .invalidations(invalidations.get())
+                .build();
+    }
+
+    private record Entry<V>(long version, CompletableFuture<V> future) {
+    }
+}
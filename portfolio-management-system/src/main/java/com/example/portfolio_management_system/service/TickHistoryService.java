@@ -0,0 +1,131 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.PriceHistory;
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every tick's changed rows in the {@link TickHistoryStore} under
+ * {@code market.data-dir} and serves per-symbol range queries from it.
+ */
+@Service
+public class TickHistoryService implements MarketTickListener {
+
+    private static final List<String> SIGNALS =
+            Arrays.stream(DumbMoneySignal.values()).map(Enum::name).toList();
+
+    private final MarketState marketState;
+    private final TickHistoryStore store;
+    private final int maxPoints;
+
+    // MarketState index -> store symbol id (-1 until first recorded)
+    private int[] storeIds = new int[0];
+
+    // Reused tick buffers
+    private int[] ids = new int[0];
+    private double[] prices = new double[0];
+    private int[] confidences = new int[0];
+    private byte[] signals = new byte[0];
+
+    public TickHistoryService(MarketState marketState,
+                              @Value("${market.data-dir:data}") String dataDir,
+                              @Value("${market.history.segment-minutes:60}") long segmentMinutes,
+                              @Value("${market.history.segment-mb:256}") long segmentMb,
+                              @Value("${market.history.retention-days:30}") long retentionDays,
+                              @Value("${market.history.max-points:10000}") int maxPoints) {
+        this.marketState = marketState;
+        this.maxPoints = maxPoints;
+        this.store = new TickHistoryStore(
+                Path.of(dataDir, "ticks"),
+                TimeUnit.MINUTES.toMillis(segmentMinutes),
+                segmentMb << 20,
+                TimeUnit.DAYS.toMillis(retentionDays)
+        );
+    }
+
+    @Override
+    public void onTick(MarketTick tick) {
+
+        int[] changed = tick.changed();
+        int n = changed.length;
+        if (n == 0) return;
+
+        if (ids.length < n) {
+            ids = new int[n];
+            prices = new double[n];
+            confidences = new int[n];
+            signals = new byte[n];
+        }
+
+        for (int k = 0; k < n; k++) {
+            int i = changed[k];
+            ids[k] = storeId(i);
+            prices[k] = marketState.price(i);
+            confidences[k] = marketState.confidence(i);
+            signals[k] = marketState.signalCode(i);
+        }
+
+        store.appendTick(tick.timestamp(), n, ids, prices, confidences, signals);
+    }
+
+    private int storeId(int i) {
+        if (i >= storeIds.length) {
+            int old = storeIds.length;
+            storeIds = Arrays.copyOf(storeIds, Math.max(i + 1, marketState.size()));
+            Arrays.fill(storeIds, old, storeIds.length, -1);
+        }
+        if (storeIds[i] < 0) {
+            storeIds[i] = store.symbolId(marketState.symbol(i));
+        }
+        return storeIds[i];
+    }
+
+    /**
+     * @return the symbol's ticks in {@code [from, to]} (epoch millis), oldest first,
+     *         or null if the symbol has never been recorded
+     */
+    public PriceHistory history(String symbol, long from, long to) {
+
+        int id = store.findSymbol(symbol);
+        if (id < 0) return null;
+
+        TickHistoryStore.Range range = store.query(id, from, to, maxPoints);
+
+        byte[] codes = range.signals();
+        char[] signalCodes = new char[codes.length];
+        for (int k = 0; k < codes.length; k++) {
+            signalCodes[k] = (char) ('0' + codes[k]);
+        }
+
+        return PriceHistory.builder()
+                .symbol(symbol)
+                .from(from)
+                .to(to)
+                .truncated(range.truncated())
+                .signals(SIGNALS)
+                .timestamps(range.timestamps())
+                .prices(range.prices())
+                .confidenceScore(range.confidences())
+                .signalCodes(new String(signalCodes))
+                .build();
+    }
+
+    // ✅ Pages are written by the OS anyway; this bounds what a power loss can take
+    @Scheduled(fixedDelayString = "${market.history.force-interval-ms:60000}")
+    public void force() {
+        store.flush();
+    }
+
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+}
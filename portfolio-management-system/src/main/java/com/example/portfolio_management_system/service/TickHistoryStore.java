@@ -0,0 +1,146 @@
+package com.example.portfolio_management_system.service;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Append-only, memory-mapped log of per-symbol ticks, stored in a {@link SegmentLog}
+ * as fixed-width 24-byte records:
+ * <pre>
+ *   int    millis since segment start   \
+ *   int    symbol id                     } SegmentLog prefix
+ *   int    previous record of the symbol /
+ *   double price
+ *   short  confidence
+ *   byte   signal
+ *   byte   padding
+ * </pre>
+ */
+public class TickHistoryStore implements AutoCloseable {
+
+    static final int HEADER_BYTES = SegmentLog.HEADER_BYTES;
+    static final int RECORD_BYTES = 24;
+
+    private static final int P_PRICE = 0;
+    private static final int P_CONFIDENCE = 8;
+    private static final int P_SIGNAL = 10;
+
+    private final SegmentLog log;
+
+    /**
+     * @param segmentMillis   wall-clock span of one segment (at most ~24 days, record deltas are ints)
+     * @param segmentBytes    maximum size of one segment file
+     * @param retentionMillis segments ending before {@code now - retentionMillis} are deleted on roll;
+     *                        0 keeps everything
+     */
+    public TickHistoryStore(Path dir, long segmentMillis, long segmentBytes, long retentionMillis) {
+        this.log = new SegmentLog(dir, RECORD_BYTES - SegmentLog.RECORD_PREFIX_BYTES,
+                segmentMillis, segmentBytes, retentionMillis);
+    }
+
+    /** @return the symbol's store id, registering it if needed (writer thread only) */
+    public int symbolId(String symbol) {
+        return log.symbolId(symbol);
+    }
+
+    /** @return the symbol's store id, or -1 if it has never been recorded */
+    public int findSymbol(String symbol) {
+        return log.findSymbol(symbol);
+    }
+
+    /** Appends one tick's rows {@code [0, count)} from the given columns, all stamped with {@code timestamp}. */
+    public void appendTick(long timestamp, int count, int[] symbolIds, double[] prices,
+                           int[] confidences, byte[] signals) {
+
+        log.append(timestamp, count, symbolIds, (b, offset, i) -> {
+            b.putDouble(offset + P_PRICE, prices[i]);
+            b.putShort(offset + P_CONFIDENCE, (short) confidences[i]);
+            b.put(offset + P_SIGNAL, signals[i]);
+        });
+    }
+
+    /**
+     * Reads the symbol's ticks with {@code from <= timestamp <= to}, oldest first.
+     * When more than {@code maxPoints} match, the most recent {@code maxPoints} are returned
+     * and the range is {@link Range#truncated() truncated}.
+     */
+    public Range query(int symbolId, long from, long to, int maxPoints) {
+
+        Range range = new Range(Math.max(0, Math.min(maxPoints, 1024)));
+        // One record past the cap, newest first: if it exists, older ticks were left out
+        log.scan(symbolId, from, to, (int) Math.min(Integer.MAX_VALUE, maxPoints + 1L), (b, offset, timestamp) ->
+                range.add(timestamp, b.getDouble(offset + P_PRICE),
+                        b.getShort(offset + P_CONFIDENCE), b.get(offset + P_SIGNAL)));
+        if (range.size > maxPoints) {
+            range.size = maxPoints;
+            range.truncated = true;
+        }
+
+        range.reverse();
+        return range;
+    }
+
+    /** Forces the active segment to disk. */
+    public void flush() {
+        log.flush();
+    }
+
+    /** Number of segment files currently retained. */
+    public int segmentCount() {
+        return log.segmentCount();
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    /** Columnar result of a range scan. */
+    public static final class Range {
+
+        private long[] timestamps;
+        private double[] prices;
+        private int[] confidences;
+        private byte[] signals;
+        private int size;
+        private boolean truncated;
+
+        Range(int capacity) {
+            timestamps = new long[capacity];
+            prices = new double[capacity];
+            confidences = new int[capacity];
+            signals = new byte[capacity];
+        }
+
+        void add(long timestamp, double price, int confidence, byte signal) {
+            if (size == timestamps.length) {
+                int capacity = Math.max(16, size * 2);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                confidences = Arrays.copyOf(confidences, capacity);
+                signals = Arrays.copyOf(signals, capacity);
+            }
+            timestamps[size] = timestamp;
+            prices[size] = price;
+            confidences[size] = confidence;
+            signals[size] = signal;
+            size++;
+        }
+
+        void reverse() {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                long t = timestamps[i]; timestamps[i] = timestamps[j]; timestamps[j] = t;
+                double p = prices[i]; prices[i] = prices[j]; prices[j] = p;
+                int c = confidences[i]; confidences[i] = confidences[j]; confidences[j] = c;
+                byte g = signals[i]; signals[i] = signals[j]; signals[j] = g;
+            }
+        }
+
+        public int size() { return size; }
+        public boolean truncated() { return truncated; }
+        public long[] timestamps() { return Arrays.copyOf(timestamps, size); }
+        public double[] prices() { return Arrays.copyOf(prices, size); }
+        public int[] confidences() { return Arrays.copyOf(confidences, size); }
+        public byte[] signals() { return Arrays.copyOf(signals, size); }
+    }
+}
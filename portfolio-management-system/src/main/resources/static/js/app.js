@@ -5,7 +5,9 @@
 
 // --- Configuration ---
 const API_BASE = "http://localhost:8081/api";
+const STREAM_URL = `${API_BASE}/stream/prices`;
 const REFRESH_RATE = 5000;
+let pollTimer = null;
 
 // --- Chart Instances (Global) ---
 // We keep track of these to update data without re-drawing the whole chart
@@ -21,7 +23,10 @@ let state = {
     holdings: [],
     analytics: {},
     recommendations: [],
-    history: []
+    history: [],
+    stocks: {},
+    stocksVersion: null,
+    stocksETag: null
 };
 
 // --- Initialization ---
@@ -29,13 +34,7 @@ document.addEventListener('DOMContentLoaded', () => {
     initNavigation();
     fetchHolders();
     initTicker();
-
-    // Auto-refresh loop
-    setInterval(() => {
-        if (state.currentHolderId) {
-            refreshData();
-        }
-    }, REFRESH_RATE);
+    initPriceStream();
 
     document.getElementById('refresh-btn').addEventListener('click', refreshData);
 });
@@ -65,36 +64,113 @@ function initNavigation() {
     });
 }
 
+// --- Live Price Stream (falls back to polling) ---
+function initPriceStream() {
+    if (!window.EventSource) { startPolling(); return; }
+
+    const source = new EventSource(STREAM_URL);
+
+    source.addEventListener('snapshot', e => {
+        applyQuotes(JSON.parse(e.data).quotes);
+    });
+
+    source.addEventListener('prices', e => {
+        const quotes = JSON.parse(e.data).quotes;
+        applyQuotes(quotes);
+        // Only re-fetch holder data when one of its symbols moved
+        if (state.currentHolderId && quotes.some(q => state.holdings.some(h => h.stock.symbol === q.symbol))) {
+            refreshData();
+        }
+    });
+
+    source.onopen = () => stopPolling();
+    source.onerror = () => {
+        // EventSource reconnects on its own; poll until the stream is back
+        startPolling();
+        if (source.readyState === EventSource.CLOSED) setTimeout(initPriceStream, REFRESH_RATE);
+    };
+}
+
+function startPolling() {
+    if (pollTimer) return;
+    pollTimer = setInterval(() => {
+        initTicker();
+        if (state.currentHolderId) {
+            refreshData();
+        }
+    }, REFRESH_RATE);
+}
+
+function stopPolling() {
+    if (!pollTimer) return;
+    clearInterval(pollTimer);
+    pollTimer = null;
+}
+
+function applyQuotes(quotes) {
+    quotes.forEach(q => {
+        const s = state.stocks[q.symbol];
+        if (!s) return;
+        s.currentPrice = q.currentPrice;
+        s.confidenceScore = q.confidenceScore;
+        s.dumbMoneySignal = q.dumbMoneySignal;
+    });
+    renderTicker();
+}
+
+// --- Stock Sync (delta + ETag) ---
+// Fetches only the rows changed since the last known market version;
+// a 304 means the local copy is already current.
+async function syncStocks() {
+    const url = state.stocksVersion != null
+        ? `${API_BASE}/stocks?since=${state.stocksVersion}`
+        : `${API_BASE}/stocks`;
+    const headers = state.stocksETag ? { 'If-None-Match': state.stocksETag } : {};
+
+    const res = await fetch(url, { headers });
+    if (res.status === 304) return state.stocks;
+
+    const stocks = await res.json();
+    stocks.forEach(s => { state.stocks[s.symbol] = s; });
+    state.stocksVersion = res.headers.get('X-Market-Version');
+    state.stocksETag = res.headers.get('ETag');
+    return state.stocks;
+}
+
 // --- Ticker Logic ---
 async function initTicker() {
     try {
-        const res = await fetch(`${API_BASE}/stocks`);
-        const stocks = await res.json();
-        const track = document.getElementById('ticker-track');
-        if (!track) return;
-        track.innerHTML = '';
-
-        const tickerData = [...stocks, ...stocks];
-
-        tickerData.forEach(s => {
-            const change = s.currentPrice - s.basePrice;
-            const pct = (change / s.basePrice) * 100;
-            const isUp = change >= 0;
-
-            const html = `
-                <div class="ticker-item">
-                    <span class="ticker-symbol">${s.symbol}</span>
-                    <span class="ticker-price">${formatCurrency(s.currentPrice)}</span>
-                    <span class="ticker-change ${isUp ? 'ticker-up' : 'ticker-down'}">
-                        ${isUp ? '▲' : '▼'} ${Math.abs(pct).toFixed(2)}%
-                    </span>
-                </div>
-            `;
-            track.innerHTML += html;
-        });
+        await syncStocks();
+        renderTicker();
     } catch (e) { console.error("Ticker Error:", e); }
 }
 
+function renderTicker() {
+    const track = document.getElementById('ticker-track');
+    if (!track) return;
+
+    const stocks = Object.values(state.stocks);
+    let html = '';
+    const tickerData = [...stocks, ...stocks];
+
+    tickerData.forEach(s => {
+        const change = s.currentPrice - s.basePrice;
+        const pct = (change / s.basePrice) * 100;
+        const isUp = change >= 0;
+
+        html += `
+            <div class="ticker-item">
+                <span class="ticker-symbol">${s.symbol}</span>
+                <span class="ticker-price">${formatCurrency(s.currentPrice)}</span>
+                <span class="ticker-change ${isUp ? 'ticker-up' : 'ticker-down'}">
+                    ${isUp ? '▲' : '▼'} ${Math.abs(pct).toFixed(2)}%
+                </span>
+            </div>
+        `;
+    });
+    track.innerHTML = html;
+}
+
 // --- API Calls ---
 async function fetchHolders() {
     try {
@@ -469,8 +545,7 @@ function formatCurrency(num) { if (num == null) return '₹0.00'; return new Int
 // --- Management Logic ---
 async function fetchStocks() {
     try {
-        const res = await fetch(`${API_BASE}/stocks`);
-        const stocks = await res.json();
+        const stocks = Object.values(await syncStocks());
         const select = document.getElementById('manage-stock-select');
         select.innerHTML = '<option value="" disabled selected>Select Stock</option>';
         stocks.forEach(s => {
@@ -0,0 +1,84 @@
+package com.example.portfolio_management_system.benchmark;
+
+import com.example.portfolio_management_system.model.Holder;
+import com.example.portfolio_management_system.model.Holding;
+import com.example.portfolio_management_system.model.Stock;
+import com.example.portfolio_management_system.service.MarketFixtures;
+import com.example.portfolio_management_system.service.MarketState;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Synthetic market and portfolio data for the benchmarks, plus in-memory
+ * repository stubs so services can be constructed without Spring or a database.
+ */
+final class BenchmarkFixtures {
+
+    static final String[] SECTORS = {
+            "IT", "Banking", "Energy", "FMCG", "Finance", "Telecom", "Consumer",
+            "Automobile", "Healthcare", "Infrastructure", "Defense", "Retail"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<Stock> stocks(int universe, long seed) {
+        Random random = new Random(seed);
+        List<Stock> stocks = new ArrayList<>(universe);
+        for (int i = 0; i < universe; i++) {
+            double basePrice = 50 + random.nextDouble() * 5000;
+            stocks.add(Stock.builder()
+                    .symbol(String.format("SYM%06d", i))
+                    .name("Synthetic " + i)
+                    .sector(SECTORS[i % SECTORS.length])
+                    .basePrice(basePrice)
+                    .currentPrice(basePrice)
+                    .volatility(0.10 + random.nextDouble() * 0.40)
+                    .confidenceScore(40 + random.nextInt(60))
+                    .build());
+        }
+        return stocks;
+    }
+
+    static MarketState marketState(List<Stock> stocks) {
+        return MarketFixtures.market(stocks);
+    }
+
+    static List<Holding> holdings(Holder holder, List<Stock> stocks, int count, long seed) {
+        Random random = new Random(seed);
+        List<Holding> holdings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Stock stock = stocks.get(random.nextInt(stocks.size()));
+            holdings.add(Holding.builder()
+                    .id((long) i + 1)
+                    .holder(holder)
+                    .stock(stock)
+                    .quantity(1 + random.nextInt(100))
+                    .avgPrice(stock.getBasePrice() * (0.8 + random.nextDouble() * 0.4))
+                    .build());
+        }
+        return holdings;
+    }
+
+    /**
+     * Implements a repository interface with a fixed set of methods;
+     * any other call fails loudly so a benchmark never measures a silent no-op.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> impl = methods.get(method.getName());
+            if (impl != null) {
+                return impl.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "Stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+}
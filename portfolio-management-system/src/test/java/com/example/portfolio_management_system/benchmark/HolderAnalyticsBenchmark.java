@@ -0,0 +1,122 @@
+package com.example.portfolio_management_system.benchmark;
+
+import com.example.portfolio_management_system.dto.DiversificationRecommendation;
+import com.example.portfolio_management_system.dto.HoldingView;
+import com.example.portfolio_management_system.dto.PortfolioAnalyticsResponse;
+import com.example.portfolio_management_system.dto.StockRecommendation;
+import com.example.portfolio_management_system.model.Holder;
+import com.example.portfolio_management_system.model.Holding;
+import com.example.portfolio_management_system.model.Stock;
+import com.example.portfolio_management_system.repository.HolderRepository;
+import com.example.portfolio_management_system.repository.HoldingJdbcRepository;
+import com.example.portfolio_management_system.repository.HoldingRepository;
+import com.example.portfolio_management_system.service.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-request holder work: analytics (aggregate read and full recompute),
+ * diversification and recommendations, for one holder whose portfolio size
+ * and stock universe are parameterised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HolderAnalyticsBenchmark {
+
+    private static final Long HOLDER_ID = 1L;
+
+    @Param({"5", "100", "1000", "10000"})
+    public int holdings;
+
+    @Param({"100", "10000", "100000"})
+    public int universe;
+
+    private PortfolioAnalyticsService analyticsService;
+    private DiversificationService diversificationService;
+    private RecommendationService recommendationService;
+
+    @Setup
+    public void setup() {
+
+        List<Stock> stocks = BenchmarkFixtures.stocks(universe, 42);
+        MarketState marketState = BenchmarkFixtures.marketState(stocks);
+
+        Holder holder = new Holder(HOLDER_ID, "Benchmark", null);
+        List<Holding> portfolio = BenchmarkFixtures.holdings(holder, stocks, holdings, 11);
+
+        List<HoldingView> views = portfolio.stream().map(h -> new HoldingView(h.getId(), h.getQuantity(), h.getAvgPrice(),
+                h.getStock().getSymbol(), h.getStock().getName(), h.getStock().getSector(), h.getStock().getBasePrice(),
+                h.getStock().getVolatility(), h.getStock().getConfidenceScore(), h.getStock().getCurrentPrice(),
+                h.getStock().getDumbMoneySignal())).toList();
+
+        HoldingRepository holdingRepository = BenchmarkFixtures.repository(HoldingRepository.class, Map.of(
+                "findWithStockByHolderId", args -> portfolio,
+                "findViewsByHolderId", args -> views,
+                "findWithStockByHolderIdIn", args -> portfolio,
+                "findAllWithStockAndHolder", args -> portfolio
+        ));
+        HolderRepository holderRepository = BenchmarkFixtures.repository(HolderRepository.class, Map.<String, Function<Object[], Object>>of(
+                "findById", args -> Optional.of(holder),
+                "findAll", args -> List.of(holder),
+                "findAllById", args -> List.of(holder)
+        ));
+
+        HoldingJdbcRepository holdingJdbcRepository = new HoldingJdbcRepository(null, 0) {
+            @Override
+            public Map<Long, String> findHolderNames() {
+                return Map.of(holder.getId(), holder.getName());
+            }
+
+            @Override
+            public long maxHoldingId() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public void forEachPosition(long maxId, PositionHandler handler) {
+                for (Holding h : portfolio) {
+                    handler.accept(holder.getId(), h.getStock().getSymbol(), h.getQuantity(), h.getAvgPrice());
+                }
+            }
+        };
+
+        PortfolioAggregateService aggregateService = new PortfolioAggregateService(holdingJdbcRepository, marketState);
+        aggregateService.rebuild();
+
+        analyticsService = new PortfolioAnalyticsService(holdingRepository, holderRepository, marketState, aggregateService);
+        diversificationService = new DiversificationService(holdingRepository, marketState,
+                new CovarianceService(marketState, aggregateService, 1000, 30, 0.7));
+        recommendationService = new RecommendationService(holdingRepository, marketState,
+                new RecommendationRules(new DefaultResourceLoader(), "classpath:rules/recommendations.csv"));
+    }
+
+    @Benchmark
+    public PortfolioAnalyticsResponse analytics() {
+        return analyticsService.getAnalytics(HOLDER_ID);
+    }
+
+    @Benchmark
+    public PortfolioAnalyticsResponse analyticsRecompute() {
+        return analyticsService.recompute(HOLDER_ID);
+    }
+
+    @Benchmark
+    public List<DiversificationRecommendation> diversification() {
+        return diversificationService.analyzeDiversification(HOLDER_ID);
+    }
+
+    @Benchmark
+    public List<StockRecommendation> recommendations() {
+        return recommendationService.getRecommendations(HOLDER_ID);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.portfolio_management_system.benchmark;
+
+import com.example.portfolio_management_system.service.DumbMoneyService;
+import com.example.portfolio_management_system.service.MarketSimulationService;
+import com.example.portfolio_management_system.service.MarketState;
+import com.example.portfolio_management_system.service.MarketTickMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick market work over the whole universe: the simulation step and
+ * the dumb-money evaluation of every symbol. {@code parallelism} sizes the
+ * tick's fork-join pool (0 = all cores).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int universe;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private MarketState marketState;
+    private DumbMoneyService dumbMoneyService;
+    private MarketSimulationService simulationService;
+    private SplittableRandom random;
+    private int[] changed;
+
+    @Setup
+    public void setup() {
+        marketState = BenchmarkFixtures.marketState(BenchmarkFixtures.stocks(universe, 42));
+        dumbMoneyService = new DumbMoneyService(marketState);
+        simulationService = new MarketSimulationService(marketState, dumbMoneyService, List.of(),
+                new MarketTickMetrics(new SimpleMeterRegistry(), 5000), 7L, parallelism, 4096);
+        random = new SplittableRandom(7);
+        changed = new int[universe];
+    }
+
+    @Benchmark
+    public int tick() {
+        return simulationService.simulateTick(marketState, random.split(), changed);
+    }
+
+    @TearDown
+    public void tearDown() {
+        simulationService.shutdown();
+    }
+
+    @Benchmark
+    public void evaluateDumbMoney(Blackhole blackhole) {
+        int n = marketState.size();
+        for (int i = 0; i < n; i++) {
+            blackhole.consume(dumbMoneyService.evaluate(marketState, i));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.portfolio_management_system.benchmark;
+
+import com.example.portfolio_management_system.dto.RiskReport;
+import com.example.portfolio_management_system.service.MarketState;
+import com.example.portfolio_management_system.service.RiskService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Monte Carlo VaR run: {@code paths} simulated one-day paths of a
+ * {@code holdings}-position portfolio. {@code parallelism} sizes the risk
+ * fork-join pool (0 = all cores). Target: 100k paths x 50 holdings under 1 s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskBenchmark {
+
+    @Param({"50"})
+    public int holdings;
+
+    @Param({"10000", "100000"})
+    public int paths;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private RiskService riskService;
+    private int[] symbols;
+    private int[] quantities;
+
+    @Setup
+    public void setup() {
+        MarketState marketState = BenchmarkFixtures.marketState(BenchmarkFixtures.stocks(1000, 42));
+        riskService = new RiskService(marketState, null, 42, parallelism, 4096, 1_000_000,
+                0.5, 0.4, 0.99, "1d", 10_000);
+
+        SplittableRandom random = new SplittableRandom(11);
+        symbols = new int[holdings];
+        quantities = new int[holdings];
+        for (int i = 0; i < holdings; i++) {
+            symbols[i] = random.nextInt(marketState.size());
+            quantities[i] = 1 + random.nextInt(100);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        riskService.shutdown();
+    }
+
+    @Benchmark
+    public RiskReport valueAtRisk() {
+        return riskService.simulate(1L, "Benchmark", symbols, quantities, 0.99, 1, paths, null);
+    }
+}
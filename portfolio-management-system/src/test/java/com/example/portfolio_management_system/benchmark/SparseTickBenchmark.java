@@ -0,0 +1,103 @@
+package com.example.portfolio_management_system.benchmark;
+
+import com.example.portfolio_management_system.repository.HoldingJdbcRepository;
+import com.example.portfolio_management_system.service.HolderAggregate;
+import com.example.portfolio_management_system.service.MarketState;
+import com.example.portfolio_management_system.service.MarketTick;
+import com.example.portfolio_management_system.service.PortfolioAggregateService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregate upkeep for a tick that moves {@code moved} of {@code universe} symbols:
+ * through the symbol-to-holders index versus marking every holder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseTickBenchmark {
+
+    @Param({"100000"})
+    public int universe;
+
+    @Param({"100000"})
+    public int holders;
+
+    @Param({"20"})
+    public int holdingsPerHolder;
+
+    @Param({"200", "5000"})
+    public int moved;
+
+    private MarketState marketState;
+    private PortfolioAggregateService aggregateService;
+    private SplittableRandom random;
+    private int[] changed;
+    private long version;
+
+    @Setup
+    public void setup() {
+
+        marketState = BenchmarkFixtures.marketState(BenchmarkFixtures.stocks(universe, 42));
+        random = new SplittableRandom(7);
+
+        Map<Long, String> names = new HashMap<>();
+        for (long id = 1; id <= holders; id++) names.put(id, "H" + id);
+
+        HoldingJdbcRepository positions = new HoldingJdbcRepository(null, 0) {
+            @Override
+            public Map<Long, String> findHolderNames() {
+                return names;
+            }
+
+            @Override
+            public long maxHoldingId() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public void forEachPosition(long maxId, PositionHandler handler) {
+                SplittableRandom r = new SplittableRandom(11);
+                for (long id = 1; id <= holders; id++) {
+                    for (int h = 0; h < holdingsPerHolder; h++) {
+                        handler.accept(id, marketState.symbol(r.nextInt(universe)), 1 + r.nextInt(100), 100.0);
+                    }
+                }
+            }
+        };
+        aggregateService = new PortfolioAggregateService(positions, marketState);
+        aggregateService.rebuild();
+
+        changed = new int[moved];
+    }
+
+    private MarketTick move() {
+        for (int k = 0; k < moved; k++) {
+            int i = random.nextInt(universe);
+            marketState.set(i, marketState.price(i) * (random.nextBoolean() ? 1.001 : 0.999),
+                    marketState.confidence(i), marketState.signal(i), ++version);
+            changed[k] = i;
+        }
+        return new MarketTick(version, 0, changed);
+    }
+
+    @Benchmark
+    public void indexedTick() {
+        aggregateService.onTick(move());
+    }
+
+    @Benchmark
+    public void fullTick() {
+        move();
+        for (HolderAggregate aggregate : aggregateService.all()) {
+            aggregate.markToMarket(marketState);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.portfolio_management_system.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Open-model HTTP load generator: every scenario fires at a fixed arrival rate
+ * whether or not earlier requests have returned, like independent users would.
+ * <p>
+ * Latency is recorded per endpoint from the <em>scheduled</em> send time, so time
+ * a request spends queued behind a slow server counts against it (no coordinated
+ * omission). Arrivals during the warm-up are sent but not recorded.
+ */
+final class LoadDriver {
+
+    /** One HTTP call of a scenario firing, recorded under {@code endpoint}. */
+    record Call(String endpoint, HttpRequest request, Consumer<HttpResponse<String>> onResponse) {
+        Call(String endpoint, HttpRequest request) {
+            this(endpoint, request, response -> {});
+        }
+    }
+
+    /** Builds the calls of one firing; all of them share its scheduled time. */
+    @FunctionalInterface
+    interface Firing {
+        List<Call> calls(SplittableRandom random);
+    }
+
+    record Scenario(String name, double ratePerSecond, Firing firing) {}
+
+    /** Measured results of one endpoint. */
+    record EndpointResult(String endpoint, double offeredPerSecond, double achievedPerSecond, long requests,
+                          long errors, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final HttpClient client;
+    private final ExecutorService workers;
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    LoadDriver(int workerThreads) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "load-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Runs every scenario for {@code warmup + duration}, then waits for in-flight calls.
+     *
+     * @return per-endpoint results over the measured window, in first-seen order
+     */
+    List<EndpointResult> run(List<Scenario> scenarios, Duration warmup, Duration duration, long seed)
+            throws InterruptedException {
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Thread> dispatchers = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            if (scenario.ratePerSecond() <= 0) continue;
+            SplittableRandom scenarioRandom = random.split();
+            Thread dispatcher = new Thread(() -> dispatch(scenario, scenarioRandom, start, measureFrom, end),
+                    "load-" + scenario.name());
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+            dispatchers.add(dispatcher);
+        }
+
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+            workers.shutdownNow();
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        List<EndpointResult> results = new ArrayList<>();
+        synchronized (endpoints) {
+            for (Endpoint e : endpoints.values()) {
+                Histogram h = e.latencyMicros;
+                results.add(new EndpointResult(e.name, e.offeredPerSecond, e.completed.get() / seconds,
+                        e.completed.get(), e.errors.get(),
+                        h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(95) / 1000.0,
+                        h.getValueAtPercentile(99) / 1000.0, h.getMaxValue() / 1000.0));
+            }
+        }
+        return results;
+    }
+
+    /** Fires {@code scenario} on a fixed schedule; each arrival's calls go to the worker pool. */
+    private void dispatch(Scenario scenario, SplittableRandom random, long start, long measureFrom, long end) {
+
+        long interval = (long) (1e9 / scenario.ratePerSecond());
+
+        for (long k = 0; ; k++) {
+            long scheduled = start + k * interval;
+            if (scheduled >= end) return;
+
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            boolean measured = scheduled >= measureFrom;
+            for (Call call : scenario.firing().calls(random)) {
+                Endpoint endpoint = endpoint(call.endpoint(), scenario.ratePerSecond());
+                workers.execute(() -> send(endpoint, call, scheduled, measured));
+            }
+        }
+    }
+
+    private void send(Endpoint endpoint, Call call, long scheduled, boolean measured) {
+
+        boolean failed;
+        try {
+            HttpResponse<String> response = client.send(call.request(), HttpResponse.BodyHandlers.ofString());
+            failed = response.statusCode() >= 400;
+            if (!failed) call.onResponse().accept(response);
+        } catch (Exception e) {
+            failed = true;
+        }
+
+        if (!measured) return;
+
+        long micros = Math.max(1, (System.nanoTime() - scheduled) / 1000);
+        endpoint.latencyMicros.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        endpoint.completed.incrementAndGet();
+        if (failed) endpoint.errors.incrementAndGet();
+    }
+
+    private Endpoint endpoint(String name, double offeredPerSecond) {
+        synchronized (endpoints) {
+            return endpoints.computeIfAbsent(name, n -> new Endpoint(n, offeredPerSecond));
+        }
+    }
+
+    private static final class Endpoint {
+        final String name;
+        final double offeredPerSecond;
+        final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        Endpoint(String name, double offeredPerSecond) {
+            this.name = name;
+            this.offeredPerSecond = offeredPerSecond;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.portfolio_management_system.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the whole application on the embedded {@code loadtest} profile and drives
+ * a dashboard / ticker / trade traffic mix against it while the market tick runs.
+ * <p>
+ * Not part of the regular test run: {@code ./mvnw -Pload-test test}. Fails when an
+ * endpoint misses its budget in {@code application-loadtest.properties}, or, given
+ * {@code loadtest.baseline}, when its p99 regresses beyond {@code loadtest.budget.regression-pct}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class PortfolioLoadHarness {
+
+    private static final File RESULT_FILE = new File("target/loadtest-result.json");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void trafficMixStaysWithinBudget() throws Exception {
+
+        long[] holderIds = jdbcTemplate.queryForList("SELECT id FROM holders", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        String[] symbols = jdbcTemplate.queryForList("SELECT symbol FROM stocks", String.class)
+                .toArray(String[]::new);
+        assertTrue(holderIds.length > 0 && symbols.length > 0, "loadtest profile seeded no data");
+
+        String base = "http://localhost:" + port + "/api";
+        AtomicReference<String> stocksVersion = new AtomicReference<>();
+
+        List<LoadDriver.Scenario> mix = List.of(
+
+                // ✅ Dashboard refresh: the three panels load in parallel for one holder
+                new LoadDriver.Scenario("dashboard", rate("dashboard"), random -> {
+                    long id = holderIds[random.nextInt(holderIds.length)];
+                    return List.of(
+                            new LoadDriver.Call("portfolio", get(base + "/portfolio/" + id)),
+                            new LoadDriver.Call("analytics", get(base + "/" + id + "/analytics")),
+                            new LoadDriver.Call("diversification", get(base + "/" + id + "/diversification")));
+                }),
+
+                // ✅ Ticker polling: delta since the last version seen, like app.js
+                new LoadDriver.Scenario("ticker", rate("ticker"), random -> {
+                    String since = stocksVersion.get();
+                    String uri = base + "/stocks" + (since == null ? "" : "?since=" + since);
+                    return List.of(new LoadDriver.Call("stocks", get(uri), response ->
+                            response.headers().firstValue("X-Market-Version").ifPresent(stocksVersion::set)));
+                }),
+
+                // ✅ Trade entry
+                new LoadDriver.Scenario("trade", rate("trade"), random -> {
+                    String body = "{\"holderId\":" + holderIds[random.nextInt(holderIds.length)]
+                            + ",\"stockSymbol\":\"" + symbols[random.nextInt(symbols.length)] + "\""
+                            + ",\"quantity\":" + (1 + random.nextInt(50))
+                            + ",\"price\":" + (10 + random.nextInt(5000)) + "}";
+                    return List.of(new LoadDriver.Call("trade", HttpRequest.newBuilder(URI.create(base + "/holdings/add"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build()));
+                })
+        );
+
+        Timer tick = meterRegistry.get("market.tick.duration").timer();
+        long ticksBefore = tick.count();
+        double overrunsBefore = meterRegistry.get("market.tick.overruns").counter().count();
+
+        Duration warmup = Duration.ofSeconds(env.getProperty("loadtest.warmup-s", Long.class, 20L));
+        Duration duration = Duration.ofSeconds(env.getProperty("loadtest.duration-s", Long.class, 30L));
+        LoadDriver driver = new LoadDriver(env.getProperty("loadtest.workers", Integer.class, 32));
+
+        System.out.println("🏋️ Load test: " + holderIds.length + " holders, " + symbols.length + " stocks, "
+                + warmup.toSeconds() + " s warm-up + " + duration.toSeconds() + " s measured");
+        List<LoadDriver.EndpointResult> results = driver.run(mix, warmup, duration, 42);
+
+        long ticks = tick.count() - ticksBefore;
+        double overruns = meterRegistry.get("market.tick.overruns").counter().count() - overrunsBefore;
+
+        print(results, ticks, overruns, tick);
+        writeResult(results, ticks);
+
+        List<String> violations = checkBudget(results);
+        if (ticks == 0) violations.add("market tick did not run during the load test");
+
+        assertTrue(violations.isEmpty(), "Load test budget exceeded:\n  " + String.join("\n  ", violations));
+    }
+
+    private List<String> checkBudget(List<LoadDriver.EndpointResult> results) throws Exception {
+
+        List<String> violations = new ArrayList<>();
+        double maxErrorRate = env.getProperty("loadtest.budget.error-rate", Double.class, 0.001);
+        double minThroughput = env.getProperty("loadtest.budget.min-throughput-ratio", Double.class, 0.95);
+
+        for (LoadDriver.EndpointResult r : results) {
+            Double p99Budget = env.getProperty("loadtest.budget.p99-ms." + r.endpoint(), Double.class);
+            if (p99Budget != null && r.p99Ms() > p99Budget) {
+                violations.add(r.endpoint() + ": p99 " + r.p99Ms() + " ms > budget " + p99Budget + " ms");
+            }
+            if (r.errorRate() > maxErrorRate) {
+                violations.add(r.endpoint() + ": error rate " + r.errorRate() + " > " + maxErrorRate);
+            }
+            if (r.achievedPerSecond() < r.offeredPerSecond() * minThroughput) {
+                violations.add(r.endpoint() + ": " + String.format("%.1f", r.achievedPerSecond())
+                        + " req/s achieved of " + r.offeredPerSecond() + " offered");
+            }
+        }
+
+        String baseline = env.getProperty("loadtest.baseline", "");
+        if (!baseline.isBlank()) {
+            double allowed = 1 + env.getProperty("loadtest.budget.regression-pct", Double.class, 25.0) / 100;
+            JsonNode previous = objectMapper.readTree(new File(baseline)).path("endpoints");
+            for (LoadDriver.EndpointResult r : results) {
+                JsonNode before = previous.path(r.endpoint()).path("p99Ms");
+                if (before.isNumber() && r.p99Ms() > before.asDouble() * allowed) {
+                    violations.add(r.endpoint() + ": p99 " + r.p99Ms() + " ms regressed from baseline "
+                            + before.asDouble() + " ms");
+                }
+            }
+        }
+        return violations;
+    }
+
+    private void print(List<LoadDriver.EndpointResult> results, long ticks, double overruns, Timer tick) {
+        System.out.println(String.format("%-16s %9s %9s %8s %9s %9s %9s %9s",
+                "endpoint", "offered/s", "achieved", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (LoadDriver.EndpointResult r : results) {
+            System.out.println(String.format("%-16s %9.1f %9.1f %8d %9.1f %9.1f %9.1f %9.1f",
+                    r.endpoint(), r.offeredPerSecond(), r.achievedPerSecond(), r.errors(),
+                    r.p50Ms(), r.p95Ms(), r.p99Ms(), r.maxMs()));
+        }
+        System.out.println("⏱️ Market ticks during run: " + ticks + " (overruns " + (long) overruns
+                + ", max " + String.format("%.1f", tick.max(TimeUnit.MILLISECONDS)) + " ms)");
+    }
+
+    private void writeResult(List<LoadDriver.EndpointResult> results, long ticks) throws Exception {
+        Map<String, LoadDriver.EndpointResult> byEndpoint = new LinkedHashMap<>();
+        for (LoadDriver.EndpointResult r : results) {
+            byEndpoint.put(r.endpoint(), r);
+        }
+        RESULT_FILE.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(RESULT_FILE, Map.of("ticks", ticks, "endpoints", byEndpoint));
+    }
+
+    private double rate(String scenario) {
+        return env.getProperty("loadtest.rate." + scenario, Double.class, 0.0);
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.BacktestReport;
+import com.example.portfolio_management_system.dto.BacktestRequest;
+import com.example.portfolio_management_system.model.Stock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktestServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private BacktestService service(MarketState state, int parallelism) {
+        RecommendationRules rules = new RecommendationRules(new DefaultResourceLoader(),
+                "classpath:rules/recommendations.csv");
+        return new BacktestService(state, rules, parallelism, dir.resolve("ticks.csv").toString(),
+                10_000_000, 1_000_000_000L, 64);
+    }
+
+    private static BacktestRequest.BacktestRequestBuilder generated() {
+        return BacktestRequest.builder().symbols(200).ticks(300).holders(500).positionsPerHolder(8).seed(7L);
+    }
+
+    @Test
+    void resultsDoNotDependOnTheNumberOfCores() {
+        MarketState state = MarketFixtures.market(300);
+        BacktestRequest request = generated()
+                .grid(BacktestRequest.Grid.builder()
+                        .dumbVolatility(List.of(0.3, 0.35))
+                        .smartConfidence(List.of(80, 85, 90))
+                        .build())
+                .rules("signal,confidence,decision\nDUMB_MONEY,,SELL\nSMART_MONEY,,BUY\n,<50,SELL\n,,HOLD")
+                .build();
+
+        BacktestService serial = service(state, 1);
+        BacktestService parallel = service(state, 4);
+        try {
+            BacktestReport a = serial.run(request);
+            BacktestReport b = parallel.run(request);
+
+            assertEquals(6, a.getVariants().size());
+            assertEquals(a.getBuyAndHoldReturnPercent(), b.getBuyAndHoldReturnPercent());
+            for (int v = 0; v < 6; v++) {
+                BacktestReport.VariantResult x = a.getVariants().get(v);
+                BacktestReport.VariantResult y = b.getVariants().get(v);
+                assertEquals(x.getName(), y.getName());
+                assertEquals(x.getReturnPercent(), y.getReturnPercent());
+                assertEquals(x.getMeanMaxDrawdownPercent(), y.getMeanMaxDrawdownPercent());
+                assertEquals(x.getHitRatePercent(), y.getHitRatePercent());
+                assertEquals(x.getBuys(), y.getBuys());
+                assertEquals(x.getSells(), y.getSells());
+            }
+            assertTrue(a.getVariants().stream().anyMatch(r -> r.getBuys() > 0 && r.getSells() > 0));
+            assertEquals(500L * 299 * 6, a.getHolderTicks());
+        } finally {
+            serial.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void holdOnlyRulesMatchBuyAndHoldAndSellOnlyRulesExitOnTheFirstTick() {
+        MarketState state = MarketFixtures.market(50);
+        BacktestService service = service(state, 2);
+        try {
+            BacktestReport report = service.run(generated()
+                    .variants(List.of(
+                            BacktestRequest.Variant.builder().name("hold").rules("decision\nHOLD").build(),
+                            BacktestRequest.Variant.builder().name("sell").rules("decision\nSELL").build()))
+                    .build());
+
+            BacktestReport.VariantResult hold = report.getVariants().get(0);
+            assertEquals(report.getBuyAndHoldReturnPercent(), hold.getReturnPercent());
+            assertEquals(0, hold.getBuys() + hold.getSells());
+            assertNull(hold.getHitRatePercent());
+
+            BacktestReport.VariantResult sell = report.getVariants().get(1);
+            assertEquals(0, sell.getBuys());
+            assertEquals(500L * 8, sell.getSells());
+            assertEquals(sell.getSells(), sell.getScoredTrades());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void recordedSeriesCarriesRowsForwardAndRejectsBadRequests() throws Exception {
+        MarketState state = MarketFixtures.market(3);
+        Files.writeString(dir.resolve("ticks.csv"), String.join("\n",
+                "1000,S0,10.0,50,NEUTRAL",
+                "1000,S1,20.0,60,NEUTRAL",
+                "2000,S1,21.0,61,NEUTRAL",
+                "2000,GONE,1.0,1,NEUTRAL",
+                "3000,S2,30.0,",
+                "3000,S0,11.0,52,NEUTRAL",
+                ""));
+
+        PriceSeries series = PriceSeries.load(dir.resolve("ticks.csv"), state, 100);
+        assertEquals(3, series.symbols());
+        assertEquals(3, series.ticks());
+        assertEquals(10.0, series.price(1, 0));
+        assertEquals(21.0, series.price(1, 1));
+        assertEquals(30.0, series.price(0, 2), "backfilled from the first update");
+        assertEquals(state.confidence(2), series.confidence(2, 2));
+        assertEquals(11.0, series.price(2, 0));
+        assertEquals(61, series.confidence(2, 1));
+
+        BacktestService service = service(state, 1);
+        try {
+            BacktestReport report = service.run(BacktestRequest.builder().source("recorded").holders(10).build());
+            assertEquals(3, report.getTicks());
+            assertEquals(3, report.getPositionsPerHolder());
+
+            assertThrows(IllegalArgumentException.class, () -> service.run(BacktestRequest.builder().source("live").build()));
+            assertThrows(IllegalArgumentException.class, () -> service.run(BacktestRequest.builder().ticks(1).build()));
+            assertThrows(IllegalArgumentException.class, () -> service.run(BacktestRequest.builder().rules("oops").build()));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void oversizedGridsAreRejectedBeforeAnyVariantIsBuilt() {
+        MarketState state = MarketFixtures.market(10);
+        BacktestService service = service(state, 1);
+        try {
+            // 10 000⁴ cells: building them before the check would never finish
+            List<Integer> wide = Collections.nCopies(10_000, 50);
+            BacktestRequest huge = generated()
+                    .grid(BacktestRequest.Grid.builder()
+                            .dumbConfidence(wide).smartConfidence(wide)
+                            .dumbVolatility(Collections.nCopies(10_000, 0.3))
+                            .smartVolatility(Collections.nCopies(10_000, 0.1))
+                            .build())
+                    .build();
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.run(huge));
+            assertTrue(e.getMessage().contains("64 variants"), e.getMessage());
+
+            // Explicit variants count towards the same limit as the grid
+            BacktestRequest mixed = generated()
+                    .variants(Collections.nCopies(4, BacktestRequest.Variant.builder().build()))
+                    .grid(BacktestRequest.Grid.builder().smartConfidence(Collections.nCopies(60, 80)).build())
+                    .build();
+            assertEquals(64, service.run(mixed).getVariants().size());
+
+            BacktestRequest over = generated()
+                    .variants(Collections.nCopies(5, BacktestRequest.Variant.builder().build()))
+                    .grid(BacktestRequest.Grid.builder().smartConfidence(Collections.nCopies(60, 80)).build())
+                    .build();
+            assertThrows(IllegalArgumentException.class, () -> service.run(over));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void confidencesOutsideTheByteRangeAreClampedNotWrapped() throws Exception {
+        MarketState state = MarketFixtures.market(List.of(Stock.builder()
+                .symbol("HOT").name("Hot").sector("Tech")
+                .basePrice(100.0).volatility(0.2).confidenceScore(150)
+                .build()));
+
+        PriceSeries generated = PriceSeries.generate(state, 1, 50, 3);
+        for (int t = 0; t < generated.ticks(); t++) {
+            int confidence = generated.confidence(t, 0);
+            assertTrue(confidence >= 0 && confidence <= 100, "tick " + t + ": " + confidence);
+        }
+        assertEquals(100, generated.confidence(0, 0));
+
+        Files.writeString(dir.resolve("ticks.csv"), "1000,HOT,101.0\n2000,HOT,102.0,90\n");
+        PriceSeries recorded = PriceSeries.load(dir.resolve("ticks.csv"), state, 100);
+        assertEquals(100, recorded.confidence(0, 0), "backfilled from the live confidence");
+        assertEquals(90, recorded.confidence(1, 0));
+    }
+}
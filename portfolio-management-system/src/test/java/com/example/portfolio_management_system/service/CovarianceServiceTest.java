@@ -0,0 +1,121 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.PairCorrelation;
+import com.example.portfolio_management_system.dto.PortfolioCorrelation;
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CovarianceServiceTest {
+
+    /** Moves every symbol by {@code returns[i]} (log) and feeds the tick to the service. */
+    private static void tick(MarketState state, CovarianceService service, long version, double[] returns) {
+        for (int i = 0; i < returns.length; i++) {
+            state.set(i, state.price(i) * Math.exp(returns[i]), state.confidence(i), DumbMoneySignal.NEUTRAL, version);
+        }
+        service.onTick(new MarketTick(version, version * 1000, new int[0]));
+    }
+
+    /** Sample covariance by the textbook two-pass formula. */
+    private static double reference(double[][] returns, int i, int j) {
+        int t = returns.length;
+        double mi = 0, mj = 0;
+        for (double[] r : returns) {
+            mi += r[i];
+            mj += r[j];
+        }
+        mi /= t;
+        mj /= t;
+        double sum = 0;
+        for (double[] r : returns) sum += (r[i] - mi) * (r[j] - mj);
+        return sum / (t - 1);
+    }
+
+    @Test
+    void runningCovarianceMatchesATwoPassReferenceForEveryPair() {
+        int symbols = 12;
+        int tracked = 10;
+        MarketState state = MarketFixtures.market(symbols);
+        CovarianceService service = new CovarianceService(state, null, tracked, 30, 0.7);
+
+        SplittableRandom random = new SplittableRandom(5);
+        double[][] returns = new double[200][symbols];
+        service.onTick(new MarketTick(0, 0, new int[0]));
+        for (int t = 0; t < returns.length; t++) {
+            double market = random.nextDouble() - 0.5;
+            for (int i = 0; i < symbols; i++) {
+                // Some rows sit still now and then, which the update skips
+                returns[t][i] = i % 4 == 3 && t % 5 == 0 ? 0 : 0.01 * (market * (i % 3) + random.nextDouble() - 0.5);
+            }
+            tick(state, service, t + 1, returns[t]);
+
+            if (t == 10) {
+                assertNull(service.pair("S0", "S1").getCovariance(), "below min-observations");
+            }
+        }
+        assertEquals(200, service.observations());
+
+        for (int i = 0; i < tracked; i++) {
+            for (int j = 0; j < tracked; j++) {
+                PairCorrelation pair = service.pair("S" + i, "S" + j);
+                assertEquals(reference(returns, i, j), pair.getCovariance(), 1e-12, "S" + i + "/S" + j);
+            }
+        }
+
+        PairCorrelation self = service.pair("S4", "S4");
+        assertEquals(1.0, self.getCorrelation());
+        assertNull(service.pair("S2", "S11").getCovariance(), "S11 is beyond the tracked rows");
+        assertNull(service.pair("S2", "NOPE"));
+    }
+
+    @Test
+    void analyzeClustersCorrelatedPositionsAndComputesTheWeightedVariance() {
+        MarketState state = MarketFixtures.market(6);
+        CovarianceService service = new CovarianceService(state, null, 5, 30, 0.7);
+
+        SplittableRandom random = new SplittableRandom(9);
+        double[][] returns = new double[100][6];
+        service.onTick(new MarketTick(0, 0, new int[0]));
+        for (int t = 0; t < returns.length; t++) {
+            double shared = 0.02 * (random.nextDouble() - 0.5);
+            returns[t][0] = shared;
+            returns[t][1] = shared + 0.001 * (random.nextDouble() - 0.5);
+            returns[t][2] = -shared;
+            returns[t][3] = 0.02 * (random.nextDouble() - 0.5);
+            returns[t][4] = 0.02 * (random.nextDouble() - 0.5);
+            returns[t][5] = 0.02 * (random.nextDouble() - 0.5);
+            tick(state, service, t + 1, returns[t]);
+        }
+
+        // S0 held twice; S5 is untracked. Weights: S0 .3, S1 .2, S3 .2, S4 .2, S5 .1
+        PortfolioCorrelation result = service.analyze(1L,
+                new int[]{0, 1, 0, 3, 4, 5}, new double[]{200, 200, 100, 200, 200, 100});
+
+        assertEquals(5, result.getPositions());
+        assertEquals(4, result.getTrackedPositions());
+        assertEquals(0.9, result.getCoverage(), 1e-9);
+        assertEquals(List.of(List.of("S0", "S1")), result.getCorrelatedClusters());
+        // Clusters {S0, S1} .5, S3 .2, S4 .2, S5 .1
+        assertEquals(Math.round(10000 / (0.25 + 0.04 + 0.04 + 0.01)) / 10000.0, result.getEffectiveBets());
+
+        int[] rows = {0, 1, 3, 4};
+        double[] w = {0.3, 0.2, 0.2, 0.2};
+        double variance = 0;
+        for (int a = 0; a < rows.length; a++) {
+            for (int b = 0; b < rows.length; b++) {
+                variance += w[a] * w[b] * reference(returns, rows[a], rows[b]);
+            }
+        }
+        assertEquals(Math.round(Math.sqrt(variance) * 100 * 10000) / 10000.0, result.getVolatilityPercent(), 1e-4);
+
+        // Perfectly anti-correlated positions hedge each other and stay separate clusters
+        PortfolioCorrelation hedged = service.analyze(2L, new int[]{0, 2}, new double[]{100, 100});
+        assertTrue(hedged.getCorrelatedClusters().isEmpty());
+        assertEquals(2.0, hedged.getEffectiveBets());
+        assertTrue(hedged.getVolatilityPercent() < 1e-3);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionTableTest {
+
+    @TempDir
+    Path dir;
+
+    /** The if/else chain the shipped rules file replaced. */
+    private static String legacy(int confidence, double pnlPercent, double volatility) {
+        if (confidence >= 75 && pnlPercent < 5 && volatility < 0.30) return "BUY";
+        if (confidence >= 60 && pnlPercent >= 5) return "HOLD";
+        if (confidence < 50 || pnlPercent < -8) return "SELL";
+        return "HOLD";
+    }
+
+    @Test
+    void shippedRulesMatchTheLegacyChainIncludingBoundaries() {
+        DecisionTable table = new RecommendationRules(new DefaultResourceLoader(),
+                "classpath:rules/recommendations.csv").current();
+
+        int[] confidences = {0, 49, 50, 59, 60, 74, 75, 100};
+        double[] pnls = {-50, -8.0001, -8, -7.9, 0, 4.9999, 5, 30};
+        double[] volatilities = {0.05, 0.2999, 0.30, 0.6};
+
+        DecisionTable.Inputs inputs = new DecisionTable.Inputs(4);
+        for (int c : confidences) {
+            for (double pnl : pnls) {
+                for (double v : volatilities) {
+                    int row = table.match(c, pnl, v, DumbMoneySignal.NEUTRAL.ordinal());
+                    assertEquals(legacy(c, pnl, v), table.decision(row), c + " / " + pnl + " / " + v);
+                    inputs.add(c, pnl, v, (byte) DumbMoneySignal.SMART_MONEY.ordinal());
+                }
+            }
+        }
+
+        // Bulk evaluation agrees with single matches
+        int[] rows = new int[inputs.size()];
+        table.matchAll(inputs, rows);
+        long[] counts = new long[table.decisions().size()];
+        table.countDecisions(inputs, counts);
+
+        int p = 0;
+        long[] expected = new long[counts.length];
+        for (int c : confidences) {
+            for (double pnl : pnls) {
+                for (double v : volatilities) {
+                    assertEquals(legacy(c, pnl, v), table.decision(rows[p++]));
+                    expected[table.decisions().indexOf(legacy(c, pnl, v))]++;
+                }
+            }
+        }
+        assertArrayEquals(expected, counts);
+    }
+
+    @Test
+    void signalColumnAndBoundsCompileToFirstMatch() {
+        DecisionTable table = DecisionTable.parse("test", List.of(
+                "# comment",
+                "signal,volatility,decision,reason",
+                "DUMB_MONEY|NEUTRAL,>0.35,sell,\"Crowded, \"\"hot\"\" money\"",
+                ",>=0.2 <=0.3,hold,Mid band",
+                "*,*,buy,"));
+
+        int dumb = DumbMoneySignal.DUMB_MONEY.ordinal();
+        int smart = DumbMoneySignal.SMART_MONEY.ordinal();
+
+        assertEquals(0, table.match(0, 0, 0.36, dumb));
+        assertEquals("SELL", table.decision(0));
+        assertEquals("Crowded, \"hot\" money", table.reason(0));
+        assertEquals(2, table.match(0, 0, 0.35, dumb));
+        assertEquals(2, table.match(0, 0, 0.36, smart));
+        assertEquals(1, table.match(0, 0, 0.3, smart));
+        assertEquals(1, table.match(0, 0, 0.2, smart));
+        assertEquals(List.of("SELL", "HOLD", "BUY"), table.decisions());
+
+        // Wildcards also match values no bound can (NaN P&L of a zero buy price)
+        assertEquals(2, table.match(0, Double.NaN, 0.1, smart));
+    }
+
+    @Test
+    void parseErrorsNameTheLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                DecisionTable.parse("rules.csv", List.of("confidence,decision", ">=50,BUY", "~3,SELL")));
+        assertTrue(e.getMessage().startsWith("rules.csv line 3:"), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                DecisionTable.parse("rules.csv", List.of("confidence,signal,decision", ",MEME,BUY")));
+        assertThrows(IllegalArgumentException.class, () ->
+                DecisionTable.parse("rules.csv", List.of("confidence,decision", ">60 <40,BUY")));
+        assertThrows(IllegalArgumentException.class, () ->
+                DecisionTable.parse("rules.csv", List.of("confidence,outcome", ",BUY")));
+    }
+
+    @Test
+    void changedFileIsReloadedAndABrokenOneIsIgnored() throws Exception {
+        Path file = dir.resolve("rules.csv");
+        Files.writeString(file, "decision,reason\nHOLD,Always\n");
+
+        RecommendationRules rules = new RecommendationRules(new DefaultResourceLoader(), "file:" + file);
+        assertEquals("HOLD", rules.current().decision(0));
+
+        Files.writeString(file, "confidence,decision\n>=50,BUY\n,SELL\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+        rules.reloadIfChanged();
+        assertEquals("BUY", rules.current().decision(rules.current().match(80, 0, 0, 0)));
+
+        Files.writeString(file, "confidence,decision\n>=oops,BUY\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 4000));
+        rules.reloadIfChanged();
+        assertEquals(2, rules.current().rows());
+    }
+
+    @Test
+    void aFixSavedWithTheSameTimestampAsTheBrokenFileIsPickedUp() throws Exception {
+        Path file = dir.resolve("rules.csv");
+        Files.writeString(file, "decision,reason\nHOLD,Always\n");
+        RecommendationRules rules = new RecommendationRules(new DefaultResourceLoader(), "file:" + file);
+
+        // Coarse file-system timestamps: the broken save and its fix share one
+        FileTime saved = FileTime.fromMillis(System.currentTimeMillis() + 2000);
+        Files.writeString(file, "confidence,decision\n>=oops,BUY\n");
+        Files.setLastModifiedTime(file, saved);
+        rules.reloadIfChanged();
+        rules.reloadIfChanged();
+        assertEquals("HOLD", rules.current().decision(0));
+
+        Files.writeString(file, "confidence,decision\n>=50,BUY\n,SELL\n");
+        Files.setLastModifiedTime(file, saved);
+        rules.reloadIfChanged();
+        assertEquals(2, rules.current().rows());
+        assertEquals("BUY", rules.current().decision(rules.current().match(80, 0, 0, 0)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.Stock;
+
+import java.util.List;
+
+/**
+ * Loaded {@link MarketState}s for tests and benchmarks, built without Spring or a database.
+ */
+public final class MarketFixtures {
+
+    private MarketFixtures() {
+    }
+
+    /**
+     * {@code n} symbols {@code S0..S<n-1>} in 7 sectors, with base prices, volatilities
+     * and confidences cycling through fixed ranges.
+     */
+    public static MarketState market(int n) {
+        MarketState state = new MarketState();
+        for (int i = 0; i < n; i++) {
+            state.add(Stock.builder()
+                    .symbol("S" + i)
+                    .name("Stock " + i)
+                    .sector("Sector " + i % 7)
+                    .basePrice(100.0 + i % 500)
+                    .volatility(0.1 + (i % 40) / 100.0)
+                    .confidenceScore(50 + i % 50)
+                    .build());
+        }
+        state.markLoaded();
+        return state;
+    }
+
+    public static MarketState market(List<Stock> stocks) {
+        MarketState state = new MarketState();
+        for (Stock stock : stocks) {
+            state.add(stock);
+        }
+        state.markLoaded();
+        return state;
+    }
+}
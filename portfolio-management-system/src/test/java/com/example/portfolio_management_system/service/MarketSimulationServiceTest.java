@@ -0,0 +1,50 @@
+package com.example.portfolio_management_system.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketSimulationServiceTest {
+
+    private static final int UNIVERSE = 10_000;
+
+    /** Runs {@code ticks} ticks from a fresh market and returns the final prices. */
+    private static double[] run(long seed, int parallelism, int ticks) {
+        MarketState state = MarketFixtures.market(UNIVERSE);
+        MarketSimulationService service = new MarketSimulationService(state, new DumbMoneyService(state), List.of(),
+                new MarketTickMetrics(new SimpleMeterRegistry(), 5000), seed, parallelism, 512);
+        try {
+            SplittableRandom runRandom = new SplittableRandom(seed);
+            int[] changed = new int[UNIVERSE];
+            for (int t = 0; t < ticks; t++) {
+                int count = service.simulateTick(state, runRandom.split(), changed);
+                for (int k = 1; k < count; k++) {
+                    assertTrue(changed[k - 1] < changed[k], "changed rows are reported in index order");
+                }
+            }
+
+            double[] prices = new double[UNIVERSE];
+            for (int i = 0; i < UNIVERSE; i++) prices[i] = state.price(i);
+            return prices;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void sameSeedGivesSamePricePathsOnAnyNumberOfThreads() {
+        double[] sequential = run(42, 1, 20);
+        assertArrayEquals(sequential, run(42, 4, 20));
+        assertArrayEquals(sequential, run(42, 16, 20));
+    }
+
+    @Test
+    void differentSeedsDiverge() {
+        assertFalse(Arrays.equals(run(42, 4, 5), run(43, 4, 5)));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import com.example.portfolio_management_system.repository.HoldingJdbcRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioAggregateServiceTest {
+
+    private record Row(long id, long holderId, String symbol, int quantity, double avgPrice) {
+    }
+
+    /** In-memory holdings; {@code duringScan} runs once, after the first row of the next scan. */
+    private static final class Holdings extends HoldingJdbcRepository {
+
+        final List<Row> rows = new CopyOnWriteArrayList<>();
+        Runnable duringScan;
+
+        Holdings() {
+            super(null, 0);
+        }
+
+        @Override
+        public Map<Long, String> findHolderNames() {
+            Map<Long, String> names = new HashMap<>();
+            for (Row row : rows) names.put(row.holderId(), "H" + row.holderId());
+            return names;
+        }
+
+        @Override
+        public long maxHoldingId() {
+            return rows.stream().mapToLong(Row::id).max().orElse(0);
+        }
+
+        @Override
+        public void forEachPosition(long maxId, PositionHandler handler) {
+            boolean first = true;
+            for (Row row : rows) {
+                if (row.id() > maxId) continue;
+                handler.accept(row.holderId(), row.symbol(), row.quantity(), row.avgPrice());
+                if (first && duringScan != null) {
+                    duringScan.run();
+                    duringScan = null;
+                }
+                first = false;
+            }
+        }
+    }
+
+    @Test
+    void holdingsCommittedDuringARebuildAreCountedOnce() throws Exception {
+        MarketState state = MarketFixtures.market(10);
+        Holdings holdings = new Holdings();
+        holdings.rows.add(new Row(1, 1, "S0", 10, 100));
+        holdings.rows.add(new Row(2, 2, "S1", 5, 100));
+
+        PortfolioAggregateService service = new PortfolioAggregateService(holdings, state);
+        service.rebuild();
+        assertEquals(1, service.get(1L).snapshot().positions());
+
+        // A writer commits and applies a holding while the second rebuild is scanning
+        holdings.duringScan = () -> {
+            assertTrue(service.isReady(), "the previous generation keeps serving");
+            assertNotNull(service.get(1L));
+
+            Thread writer = new Thread(() -> service.recording(() -> {
+                holdings.rows.add(new Row(3, 1, "S2", 3, 100));
+                service.applyPosition(1L, "A", state.indexOf("S2"), 3, 100);
+                return null;
+            }));
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            assertEquals(2, service.get(1L).snapshot().positions(), "applied to the live generation too");
+        };
+        service.rebuild();
+
+        HolderAggregate.Snapshot a = service.get(1L).snapshot();
+        assertEquals(2, a.positions());
+        assertEquals(1300.0, a.totalInvested(), 1e-9);
+        assertEquals(1, service.get(2L).snapshot().positions());
+        assertEquals(3, service.index().postingCount());
+
+        // A rebuild with nothing in flight reproduces the same totals
+        service.rebuild();
+        assertEquals(1300.0, service.get(1L).snapshot().totalInvested(), 1e-9);
+    }
+
+    @Test
+    void sparseTicksMarkOnlyTheHoldersOfMovedSymbolsAndDenseTicksMarkAll() {
+        MarketState state = MarketFixtures.market(10);
+        Holdings holdings = new Holdings();
+        // Holder h holds 10 of symbol h - 1
+        for (int h = 1; h <= 8; h++) {
+            holdings.rows.add(new Row(h, h, "S" + (h - 1), 10, 100));
+        }
+        PortfolioAggregateService service = new PortfolioAggregateService(holdings, state);
+        service.rebuild();
+
+        double before = service.get(2L).snapshot().currentValue();
+        state.set(0, state.price(0) + 1, state.confidence(0), DumbMoneySignal.NEUTRAL, 1);
+        state.set(1, state.price(1) + 1, state.confidence(1), DumbMoneySignal.NEUTRAL, 1);
+
+        // One posting of eight: only holder 1 is re-marked, holder 2 keeps its old value
+        MarketTick sparse = new MarketTick(1, 1000, new int[]{0});
+        service.onTick(sparse);
+        assertTrue(service.isAffected(sparse, 1L));
+        assertFalse(service.isAffected(sparse, 2L));
+        assertFalse(service.isAffected(sparse, 5L));
+        assertTrue(service.isAffected(sparse, 99L), "untracked holder");
+        assertTrue(service.isAffected(new MarketTick(7, 7000, new int[]{0}), 2L), "not the last tick");
+        assertEquals(before, service.get(2L).snapshot().currentValue());
+
+        // Two postings of eight reach the quarter threshold: every holder is marked and affected
+        MarketTick dense = new MarketTick(2, 2000, new int[]{0, 1});
+        service.onTick(dense);
+        assertTrue(service.isAffected(dense, 2L));
+        assertTrue(service.isAffected(dense, 5L));
+        assertEquals(before + 10, service.get(2L).snapshot().currentValue(), 1e-9);
+
+        // A rebuild forgets the last tick
+        service.rebuild();
+        assertTrue(service.isAffected(sparse, 5L));
+    }
+}
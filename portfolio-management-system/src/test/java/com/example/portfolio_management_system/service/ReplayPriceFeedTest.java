@@ -0,0 +1,160 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.model.DumbMoneySignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayPriceFeedTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void adapterMergesPerSymbolAndBlocksOnceCapacityUpdatesArePending() throws Exception {
+        PriceFeedAdapter adapter = new PriceFeedAdapter(3);
+
+        assertTrue(adapter.offer(0, 10.0, 70, PriceFeedAdapter.UNCHANGED));
+        assertTrue(adapter.offer(1, 20.0, PriceFeedAdapter.UNCHANGED, PriceFeedAdapter.UNCHANGED));
+        assertTrue(adapter.offer(0, 11.0, PriceFeedAdapter.UNCHANGED, PriceFeedAdapter.UNCHANGED));
+        assertEquals(2, adapter.pending());
+        assertEquals(1, adapter.conflated());
+
+        // Three updates wait, merged into two symbols: even a symbol already pending waits for the tick
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return adapter.offer(0, 12.0, PriceFeedAdapter.UNCHANGED, PriceFeedAdapter.UNCHANGED);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(150);
+        assertFalse(blocked.isDone());
+
+        PriceFeedAdapter.Batch batch = adapter.drain();
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+        assertTrue(adapter.blockedNanos() > 0);
+
+        assertEquals(2, batch.size());
+        assertEquals(0, batch.symbol(0));
+        assertEquals(11.0, batch.price(0));
+        assertEquals(70, batch.confidence(0), "the newer update left confidence out");
+        assertEquals(1, adapter.pending());
+
+        adapter.close();
+        assertTrue(adapter.offer(3, 1.0, 0, 0), "room left");
+        assertTrue(adapter.offer(3, 2.0, 0, 0), "room left");
+        assertFalse(adapter.offer(4, 1.0, 0, 0), "full and closed");
+    }
+
+    @Test
+    void replayAppliesTheFileThroughTheTick() throws Exception {
+        Path file = dir.resolve("ticks.csv");
+        Files.writeString(file, String.join("\n",
+                "timestamp,symbol,price,confidence,signal",
+                "1000,S0,101.5,65,SMART_MONEY",
+                "1001,S1,99.0",
+                "1002,UNKNOWN,1.0",
+                "1003,S0,102.25,,",
+                "oops",
+                "1004,S2,not-a-price",
+                ""));
+
+        MarketState state = MarketFixtures.market(3);
+        int confidence1 = state.confidence(1);
+        double price2 = state.price(2);
+        DumbMoneyService dumbMoney = new DumbMoneyService(state);
+        ReplayPriceFeed feed = new ReplayPriceFeed(dumbMoney, new SimpleMeterRegistry(),
+                file.toString(), 0, false, 16);
+        feed.start(state);
+        for (int i = 0; i < 100 && !feed.isFinished(); i++) Thread.sleep(20);
+        assertTrue(feed.isFinished());
+
+        long version = state.version();
+        int[] changed = new int[state.size()];
+        int n = feed.advance(state, changed);
+
+        assertEquals(2, n);
+        assertArrayEquals(new int[]{0, 1}, Arrays.copyOf(changed, n));
+        assertEquals(version + 1, state.version());
+        assertEquals(102.25, state.price(0));
+        assertEquals(65, state.confidence(0));
+        assertEquals(DumbMoneySignal.SMART_MONEY, state.signal(0));
+        assertEquals(99.0, state.price(1));
+        assertEquals(confidence1, state.confidence(1));
+        assertEquals(price2, state.price(2));
+        assertEquals(1, feed.malformedLines());
+
+        // The heatmap shows the recorded signal, not one re-derived from volatility and confidence
+        assertNotEquals(DumbMoneySignal.SMART_MONEY, dumbMoney.evaluate(state, 0));
+        dumbMoney.onTick(new MarketTick(state.version(), 1003, Arrays.copyOf(changed, n)));
+        assertEquals("SMART MONEY", dumbMoney.generateHeatmap().getSectors().get("Sector 0").get(0).getLabel());
+
+        // Nothing new: the tick still publishes, with no changed rows
+        assertEquals(0, feed.advance(state, changed));
+        feed.stop();
+    }
+
+    @Test
+    void linesWithImpossiblePricesOrConfidencesAreMalformed() throws Exception {
+        assertEquals(12.5, ReplayPriceFeed.parseLine("1000,S0,12.5,0").price());
+        assertEquals(100, ReplayPriceFeed.parseLine("1000,S0,12.5,100").confidence());
+
+        for (String line : new String[]{
+                "1000,S0,NaN",
+                "1000,S0,Infinity",
+                "1000,S0,-Infinity",
+                "1000,S0,0",
+                "1000,S0,-3.5",
+                "1000,S0,12.5,-1",
+                "1000,S0,12.5,101",
+                "1000,S0,12.5,200"}) {
+            assertThrows(IllegalArgumentException.class, () -> ReplayPriceFeed.parseLine(line), line);
+        }
+
+        Path file = dir.resolve("bad.csv");
+        Files.writeString(file, String.join("\n",
+                "1000,S0,NaN,50",
+                "1000,S0,0,50",
+                "1000,S1,10.0,-1",
+                "1000,S1,10.0,101",
+                "1001,S2,55.0,70",
+                ""));
+
+        MarketState state = MarketFixtures.market(3);
+        double price0 = state.price(0);
+        ReplayPriceFeed feed = new ReplayPriceFeed(new DumbMoneyService(state), new SimpleMeterRegistry(),
+                file.toString(), 0, false, 16);
+        feed.start(state);
+        for (int i = 0; i < 100 && !feed.isFinished(); i++) Thread.sleep(20);
+        assertTrue(feed.isFinished());
+
+        int[] changed = new int[state.size()];
+        assertEquals(1, feed.advance(state, changed));
+        assertEquals(2, changed[0]);
+        assertEquals(55.0, state.price(2));
+        assertEquals(price0, state.price(0));
+        assertEquals(4, feed.malformedLines());
+        feed.stop();
+    }
+
+    @Test
+    void recorderRefusesToAppendToTheReplayedFile() throws Exception {
+        MarketState state = MarketFixtures.market(1);
+        String replayed = dir.resolve("ticks.csv").toString();
+
+        assertThrows(IllegalStateException.class, () -> new PriceFeedRecorder(state,
+                dir.resolve("sub/../ticks.csv").toString(), "replay", replayed));
+
+        new PriceFeedRecorder(state, dir.resolve("recorded.csv").toString(), "replay", replayed).close();
+        new PriceFeedRecorder(state, replayed, "", replayed).close();
+    }
+}
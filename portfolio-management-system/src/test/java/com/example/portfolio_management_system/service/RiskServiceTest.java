@@ -0,0 +1,116 @@
+package com.example.portfolio_management_system.service;
+
+import com.example.portfolio_management_system.dto.RiskReport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskServiceTest {
+
+    private static final long SEED = 1234;
+
+    private static RiskService service(MarketState state, int parallelism, double marketLoading, double sectorLoading) {
+        return new RiskService(state, null, SEED, parallelism, 1000, 1_000_000,
+                marketLoading, sectorLoading, 0.99, "1d", 1000);
+    }
+
+    @Test
+    void resultsDoNotDependOnTheNumberOfCores() {
+        MarketState state = MarketFixtures.market(100);
+        int[] symbols = new int[60];
+        int[] quantities = new int[60];
+        for (int k = 0; k < symbols.length; k++) {
+            symbols[k] = k % 50; // ten symbols held twice
+            quantities[k] = 1 + k * 7 % 40;
+        }
+
+        RiskService serial = service(state, 1, 0.5, 0.4);
+        RiskService parallel = service(state, 4, 0.5, 0.4);
+        try {
+            RiskReport a = serial.simulate(1L, "A", symbols, quantities, 0.99, 5, 25_000, null);
+            RiskReport b = parallel.simulate(1L, "A", symbols, quantities, 0.99, 5, 25_000, null);
+            RiskReport batch = parallel.simulate(1L, "A", symbols, quantities, 0.99, 5, 25_000, new double[25_000]);
+
+            assertEquals(50, a.getPositions());
+            for (RiskReport other : new RiskReport[]{b, batch}) {
+                assertEquals(a.getValueAtRisk(), other.getValueAtRisk());
+                assertEquals(a.getConditionalValueAtRisk(), other.getConditionalValueAtRisk());
+                assertEquals(a.getExpectedPnl(), other.getExpectedPnl());
+                assertEquals(a.getWorstLoss(), other.getWorstLoss());
+            }
+            assertTrue(a.getValueAtRisk() > 0);
+            assertTrue(a.getConditionalValueAtRisk() >= a.getValueAtRisk());
+            assertTrue(a.getWorstLoss() >= a.getConditionalValueAtRisk());
+        } finally {
+            serial.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void varAndCvarAreTheConfidenceQuantileAndTheMeanBeyondIt() {
+        MarketState state = MarketFixtures.market(50);
+        RiskService service = service(state, 1, 0.5, 0.4);
+        try {
+            int paths = 10_000;
+            double[] losses = new double[paths];
+            RiskReport report = service.simulate(1L, "A", new int[]{3, 17, 29}, new int[]{40, 25, 10},
+                    0.95, 10, paths, losses);
+
+            // The batch buffer comes back sorted; 95% of 10 000 paths lose at most losses[9499]
+            for (int i = 1; i < paths; i++) assertTrue(losses[i - 1] <= losses[i]);
+            double tail = 0;
+            for (int i = 9499; i < paths; i++) tail += losses[i];
+
+            assertEquals(losses[9499], report.getValueAtRisk(), 0.005);
+            assertEquals(tail / 501, report.getConditionalValueAtRisk(), 0.005);
+            assertEquals(losses[paths - 1], report.getWorstLoss(), 0.005);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void singlePositionMatchesTheLognormalClosedForm() {
+        MarketState state = MarketFixtures.market(50);
+        // No factors: the one position's return is exp(-σ²/2 + σZ) - 1
+        RiskService service = service(state, 1, 0, 0);
+        try {
+            int symbol = 39;
+            int horizon = 21;
+            double value = state.price(symbol) * 100;
+            double sigma = state.volatility(symbol) * Math.sqrt(horizon / 252.0);
+
+            RiskReport report = service.simulate(1L, "A", new int[]{symbol}, new int[]{100},
+                    0.99, horizon, 200_000, null);
+
+            double z = -2.3263478740; // 1% quantile of N(0, 1)
+            double var = -value * (Math.exp(-0.5 * sigma * sigma + sigma * z) - 1);
+            // E[exp(-σ²/2 + σZ) | Z <= z] = Φ(z - σ) / Φ(z)
+            double cvar = value * (1 - normalCdf(z - sigma) / 0.01);
+
+            assertEquals(value, report.getPortfolioValue(), 0.005);
+            assertEquals(var, report.getValueAtRisk(), var * 0.02);
+            assertEquals(cvar, report.getConditionalValueAtRisk(), cvar * 0.02);
+            assertEquals(0, report.getExpectedPnl(), value * 0.002);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /** Φ(x) for x < 0, by Simpson's rule over [x - 10, x]. */
+    private static double normalCdf(double x) {
+        int steps = 20_000;
+        double a = x - 10;
+        double h = (x - a) / steps;
+        double sum = pdf(a) + pdf(x);
+        for (int i = 1; i < steps; i++) {
+            sum += (i % 2 == 0 ? 2 : 4) * pdf(a + i * h);
+        }
+        return sum * h / 3;
+    }
+
+    private static double pdf(double x) {
+        return Math.exp(-0.5 * x * x) / Math.sqrt(2 * Math.PI);
+    }
+}
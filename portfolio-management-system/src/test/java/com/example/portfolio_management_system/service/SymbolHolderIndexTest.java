@@ -0,0 +1,71 @@
+package com.example.portfolio_management_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolHolderIndexTest {
+
+    private static Set<Long> collected(SymbolHolderIndex index, int... symbols) {
+        int n = index.collect(symbols);
+        Set<Long> ids = new HashSet<>();
+        for (int k = 0; k < n; k++) {
+            assertTrue(ids.add(index.affected(k).getHolderId()), "holder collected twice");
+        }
+        return ids;
+    }
+
+    @Test
+    void collectReturnsEachHolderOfTheChangedSymbolsOnce() {
+        SymbolHolderIndex index = new SymbolHolderIndex();
+        HolderAggregate a = new HolderAggregate(1L, "A");
+        HolderAggregate b = new HolderAggregate(2L, "B");
+        HolderAggregate c = new HolderAggregate(3L, "C");
+
+        index.add(a, 0, 10);
+        index.add(a, 0, 5);   // merged into the previous posting
+        index.add(b, 0, 1);
+        index.add(a, 0, 2);   // not consecutive: a second posting for A
+        index.add(a, 1, 3);
+        index.add(c, 2, 4);
+
+        assertEquals(3, index.postings(0));
+        assertEquals(5, index.postingCount());
+        assertEquals(5, index.postings(new int[]{0, 1, 2, 99}));
+
+        assertEquals(Set.of(1L, 2L), collected(index, 0, 1));
+        assertTrue(index.wasCollected(1L));
+        assertTrue(index.wasCollected(2L));
+        assertFalse(index.wasCollected(3L));
+        assertTrue(index.wasCollected(42L), "untracked holders count as collected");
+
+        // The next collect replaces the previous result
+        assertEquals(Set.of(3L), collected(index, 2, 99));
+        assertFalse(index.wasCollected(1L));
+        assertTrue(index.wasCollected(3L));
+
+        assertEquals(Set.of(), collected(index));
+        assertFalse(index.wasCollected(3L));
+    }
+
+    @Test
+    void collectKeepsUpWithHoldersAddedBetweenTicks() {
+        SymbolHolderIndex index = new SymbolHolderIndex();
+        for (long id = 0; id < 3000; id++) {
+            index.add(new HolderAggregate(id, "H" + id), (int) (id % 3), 1);
+        }
+        assertEquals(1000, collected(index, 1).size());
+
+        for (long id = 3000; id < 5000; id++) {
+            index.add(new HolderAggregate(id, "H" + id), 1, 1);
+        }
+        Set<Long> ids = collected(index, 1);
+        assertEquals(3000, ids.size());
+        assertTrue(ids.contains(4999L));
+        assertTrue(index.wasCollected(4999L));
+        assertFalse(index.wasCollected(3L));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.portfolio_management_system.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickAwareCacheTest {
+
+    private static Supplier<String> counting(AtomicInteger loads, String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    @Test
+    void advanceCarriesUnaffectedEntriesAndEvictsTheRest() {
+        TickAwareCache<String> cache = new TickAwareCache<>("test", 100, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, 1, counting(loads, "one@1"));
+        cache.get(2L, 1, counting(loads, "two@1"));
+        cache.get(3L, 2, counting(loads, "three@2"));
+        assertThrows(IllegalStateException.class, () -> cache.get(4L, 1, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(3, loads.get());
+
+        // Tick 2 moved holder 2 only
+        cache.advance(2, holderId -> holderId == 2L);
+
+        assertEquals("one@1", cache.get(1L, 2, counting(loads, "one@2")), "carried over");
+        assertEquals("two@2", cache.get(2L, 2, counting(loads, "two@2")), "evicted and reloaded");
+        assertEquals("three@2", cache.get(3L, 2, counting(loads, "three@3")), "already current");
+        assertEquals(4, loads.get());
+        assertEquals(1, cache.stats().getInvalidations());
+
+        // A carried entry is only served for the version it was carried to
+        assertEquals("one@3", cache.get(1L, 3, counting(loads, "one@3")));
+    }
+
+    @Test
+    void advanceDropsEntriesStillBeingComputed() throws Exception {
+        TickAwareCache<String> cache = new TickAwareCache<>("test", 100, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread loader = new Thread(() -> cache.get(1L, 1, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow@1";
+        }));
+        loader.start();
+        started.await();
+
+        cache.advance(2, holderId -> false);
+        release.countDown();
+        loader.join();
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("fresh@2", cache.get(1L, 2, counting(loads, "fresh@2")));
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.portfolio_management_system.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickHistoryStoreTest {
+
+    private static final long MINUTE = 60_000;
+
+    @TempDir
+    Path dir;
+
+    private static void tick(TickHistoryStore store, long timestamp, int[] ids, double price) {
+        int n = ids.length;
+        double[] prices = new double[n];
+        int[] confidences = new int[n];
+        byte[] signals = new byte[n];
+        for (int i = 0; i < n; i++) {
+            prices[i] = price + ids[i];
+            confidences[i] = (int) (timestamp / MINUTE) % 100;
+            signals[i] = (byte) (ids[i] % 3);
+        }
+        store.appendTick(timestamp, n, ids, prices, confidences, signals);
+    }
+
+    @Test
+    void rangeScanReturnsOnlyTheSymbolsTicksOldestFirst() {
+        try (TickHistoryStore store = new TickHistoryStore(dir, 10 * MINUTE, 1 << 20, 0)) {
+            int a = store.symbolId("AAA");
+            int b = store.symbolId("BBB");
+
+            for (int t = 0; t < 30; t++) {
+                tick(store, t * MINUTE, t % 2 == 0 ? new int[]{a, b} : new int[]{b}, 100 + t);
+            }
+
+            // 30 minutes at 10 minutes per segment
+            assertEquals(3, store.segmentCount());
+
+            TickHistoryStore.Range range = store.query(a, 5 * MINUTE, 25 * MINUTE, 100);
+            assertArrayEquals(new long[]{6 * MINUTE, 8 * MINUTE, 10 * MINUTE, 12 * MINUTE, 14 * MINUTE,
+                            16 * MINUTE, 18 * MINUTE, 20 * MINUTE, 22 * MINUTE, 24 * MINUTE},
+                    range.timestamps());
+            assertEquals(106 + a, range.prices()[0]);
+            assertEquals(124 + a, range.prices()[9]);
+
+            assertEquals(30, store.query(b, 0, Long.MAX_VALUE, 100).size());
+            assertEquals(-1, store.findSymbol("CCC"));
+        }
+    }
+
+    @Test
+    void pointCapKeepsTheMostRecentTicks() {
+        try (TickHistoryStore store = new TickHistoryStore(dir, 10 * MINUTE, 1 << 20, 0)) {
+            int a = store.symbolId("AAA");
+            for (int t = 0; t < 25; t++) {
+                tick(store, t * MINUTE, new int[]{a}, 100 + t);
+            }
+
+            TickHistoryStore.Range range = store.query(a, 0, Long.MAX_VALUE, 4);
+            assertArrayEquals(new long[]{21 * MINUTE, 22 * MINUTE, 23 * MINUTE, 24 * MINUTE}, range.timestamps());
+            assertTrue(range.truncated());
+
+            // Exactly the cap matching is not truncated
+            TickHistoryStore.Range exact = store.query(a, 21 * MINUTE, Long.MAX_VALUE, 4);
+            assertEquals(4, exact.size());
+            assertFalse(exact.truncated());
+        }
+    }
+
+    @Test
+    void segmentsRollOnCapacity() {
+        // Room for 10 records per segment
+        long bytes = TickHistoryStore.HEADER_BYTES + 10L * TickHistoryStore.RECORD_BYTES;
+        try (TickHistoryStore store = new TickHistoryStore(dir, 60 * MINUTE, bytes, 0)) {
+            int a = store.symbolId("AAA");
+            for (int t = 0; t < 25; t++) {
+                tick(store, t * 1000L, new int[]{a}, 100 + t);
+            }
+
+            assertEquals(3, store.segmentCount());
+            assertEquals(25, store.query(a, 0, Long.MAX_VALUE, 100).size());
+        }
+    }
+
+    @Test
+    void historySurvivesReopenAndUnsealedSegmentsAreRecovered() {
+        TickHistoryStore first = new TickHistoryStore(dir, 10 * MINUTE, 1 << 20, 0);
+        int a = first.symbolId("AAA");
+        for (int t = 0; t < 15; t++) {
+            tick(first, t * MINUTE, new int[]{a}, 100 + t);
+        }
+        first.flush();
+        // No close(): the active segment is left unsealed, as after a crash
+
+        try (TickHistoryStore reopened = new TickHistoryStore(dir, 10 * MINUTE, 1 << 20, 0)) {
+            assertEquals(a, reopened.findSymbol("AAA"));
+            assertEquals(15, reopened.query(a, 0, Long.MAX_VALUE, 100).size());
+
+            tick(reopened, 15 * MINUTE, new int[]{a}, 115);
+            TickHistoryStore.Range range = reopened.query(a, 14 * MINUTE, Long.MAX_VALUE, 100);
+            assertArrayEquals(new double[]{114 + a, 115 + a}, range.prices());
+        }
+    }
+
+    @Test
+    void newSymbolsAreWrittenOnceWithTheTickThatUsesThem() throws Exception {
+        TickHistoryStore first = new TickHistoryStore(dir, 10 * MINUTE, 1 << 20, 0);
+        int[] ids = new int[50];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = first.symbolId("S" + i);
+        }
+        assertEquals(ids[7], first.symbolId("S7"));
+
+        tick(first, 0, ids, 100);
+        assertEquals(50, Files.readAllLines(dir.resolve("symbols.txt")).size());
+
+        int late = first.symbolId("LATE");
+        tick(first, MINUTE, new int[]{late}, 100);
+        // No close(), as after a crash
+
+        try (TickHistoryStore reopened = new TickHistoryStore(dir, 10 * MINUTE, 1 << 20, 0)) {
+            assertEquals(ids[49], reopened.findSymbol("S49"));
+            assertEquals(late, reopened.findSymbol("LATE"));
+            assertEquals(1, reopened.query(late, 0, Long.MAX_VALUE, 100).size());
+            assertEquals(List.of("S0", "S1"), Files.readAllLines(dir.resolve("symbols.txt")).subList(0, 2));
+        }
+    }
+
+    @Test
+    void retentionDropsExpiredSegments() {
+        try (TickHistoryStore store = new TickHistoryStore(dir, 10 * MINUTE, 1 << 20, 30 * MINUTE)) {
+            int a = store.symbolId("AAA");
+            for (int t = 0; t < 60; t++) {
+                tick(store, t * MINUTE, new int[]{a}, 100 + t);
+            }
+
+            assertEquals(0, store.query(a, 0, 19 * MINUTE, 100).size());
+            assertEquals(10, store.query(a, 50 * MINUTE, Long.MAX_VALUE, 100).size());
+        }
+    }
+}